@@ -1,24 +1,50 @@
 package com.example.graphql.config;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.graphql.data.pagination.CursorEncoder;
+import org.springframework.graphql.data.pagination.CursorStrategy;
+import org.springframework.graphql.data.pagination.EncodingCursorStrategy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
 
 /**
  * GraphQL配置类
- * 修复GraphiQL重定向问题
+ * 修复GraphiQL重定向问题，配置分页游标格式、查询开销限制和自动持久化查询
  */
 @Configuration
+@EnableConfigurationProperties({PaginationProperties.class, QueryCostProperties.class, PersistedQueryProperties.class})
 public class GraphQLConfig implements WebMvcConfigurer {
     
     /**
@@ -46,6 +72,104 @@ public class GraphQLConfig implements WebMvcConfigurer {
         return registrationBean;
     }
     
+    /**
+     * 查询开销分析：执行前拒绝嵌套过深或开销过大的查询，框架自动注册Instrumentation类型的Bean
+     */
+    @Bean
+    public QueryCostInstrumentation queryCostInstrumentation(QueryCostProperties properties,
+                                                             PaginationProperties pagination) {
+        return new QueryCostInstrumentation(properties, pagination);
+    }
+    
+    /**
+     * 自动持久化查询：解析和校验后的查询按SHA-256缓存，客户端可以只发送哈希
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "graphql.persisted-queries", name = "enabled", matchIfMissing = true)
+    public GraphQlSourceBuilderCustomizer persistedQueryCustomizer(PersistedQueryProperties properties) {
+        PersistedQueryDocumentProvider provider = new PersistedQueryDocumentProvider(properties.getCacheSize());
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(provider));
+    }
+    
+    /**
+     * 注册持久化查询请求过滤器，为只带哈希的请求补上查询占位符
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "graphql.persisted-queries", name = "enabled", matchIfMissing = true)
+    public FilterRegistrationBean<PersistedQueryRequestFilter> persistedQueryRequestFilter(ObjectMapper objectMapper) {
+        FilterRegistrationBean<PersistedQueryRequestFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new PersistedQueryRequestFilter(objectMapper));
+        registrationBean.addUrlPatterns("/graphql");
+        return registrationBean;
+    }
+    
+    /**
+     * 分页游标：键集位置编码为 "K_id=3"、偏移位置（搜索结果）编码为 "O_20" 后再做Base64，替换框架默认的JSON格式游标
+     * （默认格式带有Java类型名，且在当前版本中无法解析Long类型的键）
+     */
+    @Bean
+    public EncodingCursorStrategy<ScrollPosition> cursorStrategy() {
+        return CursorStrategy.withEncoder(new ScrollPositionCursorStrategy(), CursorEncoder.base64());
+    }
+    
+    /**
+     * 分页游标：键集位置的键的值均为Long（分页按ID排序），偏移位置为按相关度排序的搜索结果中的序号（从0开始）
+     *
+     * 框架按 after 游标的偏移开始取、按 before 游标的偏移向前推算时，把偏移当作“该条之后的位置”，
+     * 因此解析偏移游标时加1；每条结果的位置为其序号，第一条为初始位置，首页的 hasPreviousPage 为 false
+     */
+    static class ScrollPositionCursorStrategy implements CursorStrategy<ScrollPosition> {
+        
+        private static final String PREFIX = "K_";
+        
+        private static final String OFFSET_PREFIX = "O_";
+        
+        @Override
+        public boolean supports(Class<?> targetType) {
+            return ScrollPosition.class.isAssignableFrom(targetType);
+        }
+        
+        @Override
+        public String toCursor(ScrollPosition position) {
+            if (position instanceof OffsetScrollPosition offset) {
+                return OFFSET_PREFIX + offset.getOffset();
+            }
+            if (!(position instanceof KeysetScrollPosition keyset)) {
+                throw new IllegalArgumentException("不支持的分页位置: " + position);
+            }
+            StringJoiner cursor = new StringJoiner(",", PREFIX, "");
+            keyset.getKeys().forEach((key, value) -> cursor.add(key + "=" + value));
+            return cursor.toString();
+        }
+        
+        @Override
+        public ScrollPosition fromCursor(String cursor) {
+            if (cursor.startsWith(OFFSET_PREFIX)) {
+                try {
+                    long index = Long.parseLong(cursor.substring(OFFSET_PREFIX.length()));
+                    if (index < 0) {
+                        throw new IllegalArgumentException("无效的游标: " + cursor);
+                    }
+                    return ScrollPosition.offset(Math.addExact(index, 1));
+                } catch (ArithmeticException | IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("无效的游标: " + cursor);
+                }
+            }
+            if (!cursor.startsWith(PREFIX) || cursor.length() == PREFIX.length()) {
+                throw new IllegalArgumentException("无效的游标: " + cursor);
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (String pair : cursor.substring(PREFIX.length()).split(",")) {
+                int separator = pair.indexOf('=');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("无效的游标: " + cursor);
+                }
+                keys.put(pair.substring(0, separator), Long.parseLong(pair.substring(separator + 1)));
+            }
+            return ScrollPosition.forward(keys);
+        }
+    }
+    
     /**
      * GraphiQL重定向过滤器
      * 拦截对/graphiql的请求，直接转发到带参数的路径，避免重定向
@@ -64,5 +188,129 @@ public class GraphQLConfig implements WebMvcConfigurer {
             filterChain.doFilter(request, response);
         }
     }
+    
+    /**
+     * 持久化查询请求过滤器
+     * 框架要求请求体中必须有query，只带哈希的APQ请求会被直接拒绝，这里补上graphql-java约定的占位符，
+     * 由PersistedQueryDocumentProvider按哈希查找缓存。只有请求体中出现persistedQuery时才解析JSON
+     */
+    static class PersistedQueryRequestFilter extends OncePerRequestFilter {
+        
+        private static final byte[] PERSISTED_QUERY_KEY = "\"persistedQuery\"".getBytes(StandardCharsets.UTF_8);
+        
+        private final ObjectMapper objectMapper;
+        
+        PersistedQueryRequestFilter(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+        
+        @Override
+        protected void doFilterInternal(HttpServletRequest request,
+                                       HttpServletResponse response,
+                                       FilterChain filterChain) throws ServletException, IOException {
+            if (!"POST".equals(request.getMethod())) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+            if (contains(body, PERSISTED_QUERY_KEY)) {
+                body = withQueryMarker(body);
+            }
+            filterChain.doFilter(new CachedBodyRequest(request, body), response);
+        }
+        
+        private byte[] withQueryMarker(byte[] body) {
+            try {
+                JsonNode json = objectMapper.readTree(body);
+                if (json instanceof ObjectNode node
+                        && (!node.path("query").isTextual() || node.path("query").asText().isBlank())) {
+                    node.put("query", PersistedQuerySupport.PERSISTED_QUERY_MARKER);
+                    return objectMapper.writeValueAsBytes(node);
+                }
+            } catch (IOException ex) {
+                // 不是合法的JSON，原样交给框架返回错误
+            }
+            return body;
+        }
+        
+        private static boolean contains(byte[] data, byte[] target) {
+            outer:
+            for (int i = 0; i + target.length <= data.length; i++) {
+                for (int j = 0; j < target.length; j++) {
+                    if (data[i + j] != target[j]) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * 请求体已被读取的请求，从内存中重新提供请求体
+     */
+    static class CachedBodyRequest extends HttpServletRequestWrapper {
+        
+        private final byte[] body;
+        
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+                
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+                
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // 请求体已全部在内存中，立即通知可读并读取完毕
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+        
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+        
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
 }
-
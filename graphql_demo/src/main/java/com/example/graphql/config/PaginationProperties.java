@@ -0,0 +1,22 @@
+package com.example.graphql.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 分页配置，查询解析和查询开销分析共用
+ */
+@Data
+@ConfigurationProperties(prefix = "graphql.pagination")
+public class PaginationProperties {
+    
+    /**
+     * 未指定first/last时的每页条数
+     */
+    private int defaultPageSize = 20;
+    
+    /**
+     * 每页最多条数，first/last超过时按该值返回
+     */
+    private int maxPageSize = 100;
+}
@@ -0,0 +1,100 @@
+package com.example.graphql.config;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 自动持久化查询（APQ）和解析结果缓存
+ *
+ * 客户端按Apollo APQ协议在 extensions.persistedQuery.sha256Hash 中发送查询的SHA-256，
+ * 缓存中有该查询时可以不发送查询文本；没有时返回 PersistedQueryNotFound，客户端再连同查询文本重发一次。
+ * 未带哈希的普通请求按查询文本的SHA-256使用同一个缓存，因此同样的查询只解析和校验一次，
+ * 之后也可以只用哈希发送。缓存按最近使用淘汰，条数有上限。
+ */
+public class PersistedQueryDocumentProvider extends ApolloPersistedQuerySupport {
+    
+    public PersistedQueryDocumentProvider(int cacheSize) {
+        super(new BoundedCache(cacheSize));
+    }
+    
+    /**
+     * 优先使用APQ请求中的哈希，没有时按查询文本计算
+     */
+    @Override
+    protected Optional<Object> getPersistedQueryId(ExecutionInput executionInput) {
+        Optional<Object> persistedQueryId = super.getPersistedQueryId(executionInput);
+        if (persistedQueryId.isPresent()) {
+            return persistedQueryId;
+        }
+        return Optional.of(sha256(executionInput.getQuery()));
+    }
+    
+    private static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    /**
+     * 按最近使用淘汰的解析结果缓存，键为查询的SHA-256
+     */
+    static class BoundedCache implements PersistedQueryCache {
+        
+        private final Map<Object, PreparsedDocumentEntry> entries;
+        
+        BoundedCache(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, PreparsedDocumentEntry> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+        
+        /**
+         * 接口中唯一的抽象方法，graphql-java已标记为过时但仍要求实现；框架调用的是异步版本，这里直接委托
+         */
+        @Override
+        @SuppressWarnings("deprecation")
+        public PreparsedDocumentEntry getPersistedQueryDocument(Object persistedQueryId, ExecutionInput executionInput,
+                                                                PersistedQueryCacheMiss onCacheMiss) {
+            return getPersistedQueryDocumentAsync(persistedQueryId, executionInput, onCacheMiss).join();
+        }
+        
+        /**
+         * 缓存查找和解析都在调用线程中完成，返回已完成的结果
+         */
+        @Override
+        public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(
+                Object persistedQueryId, ExecutionInput executionInput, PersistedQueryCacheMiss onCacheMiss) {
+            synchronized (entries) {
+                PreparsedDocumentEntry entry = entries.get(persistedQueryId);
+                if (entry != null) {
+                    return CompletableFuture.completedFuture(entry);
+                }
+            }
+            // 只带哈希的请求没有查询文本，由onCacheMiss返回PersistedQueryNotFound；解析和校验在锁外进行
+            String query = executionInput.getQuery();
+            PreparsedDocumentEntry entry = onCacheMiss.apply(PERSISTED_QUERY_MARKER.equals(query) ? null : query);
+            synchronized (entries) {
+                entries.put(persistedQueryId, entry);
+            }
+            return CompletableFuture.completedFuture(entry);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.graphql.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 自动持久化查询配置
+ */
+@Data
+@ConfigurationProperties(prefix = "graphql.persisted-queries")
+public class PersistedQueryProperties {
+    
+    /**
+     * 是否支持只发送查询哈希的请求并缓存解析结果
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 缓存的查询条数上限，超出时淘汰最久未使用的查询
+     */
+    private int cacheSize = 1000;
+}
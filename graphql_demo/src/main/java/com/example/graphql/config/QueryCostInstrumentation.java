@@ -0,0 +1,172 @@
+package com.example.graphql.config;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLTypeUtil;
+import lombok.RequiredArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 查询开销分析
+ *
+ * 执行前遍历规范化后的操作（已展开片段、按变量处理 @skip/@include），计算嵌套深度和开销：
+ * 字段开销 = 字段自身开销 + 预估条数 × 子字段开销之和。
+ * 分页字段（Connection）的预估条数取 first/last，未指定时取默认每页条数；其他列表字段取配置的预估条数。
+ * 深度或开销超出限制时直接拒绝，不访问数据库；计算结果放在响应的 extensions.cost 中，便于客户端调整查询。
+ * 内省字段（__schema、__type、__typename）不计入。
+ */
+@RequiredArgsConstructor
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+    
+    private static final String CONNECTION_SUFFIX = "Connection";
+    
+    private final QueryCostProperties properties;
+    private final PaginationProperties pagination;
+    
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new CostState();
+    }
+    
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        if (!properties.isEnabled()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        ExecutionContext context = parameters.getExecutionContext();
+        GraphQLSchema schema = context.getGraphQLSchema();
+        ExecutableNormalizedOperation operation = context.getNormalizedQueryTree().get();
+        
+        int depth = 0;
+        long cost = 0;
+        for (ExecutableNormalizedField field : operation.getTopLevelFields()) {
+            depth = Math.max(depth, depth(field));
+            cost = add(cost, cost(schema, field));
+        }
+        ((CostState) state).report = report(cost, depth);
+        
+        if (depth > properties.getMaxDepth()) {
+            throw new AbortExecutionException("查询嵌套深度 " + depth + " 超过上限 " + properties.getMaxDepth());
+        }
+        if (cost > properties.getMaxCost()) {
+            throw new AbortExecutionException("查询开销 " + cost + " 超过上限 " + properties.getMaxCost());
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+    
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(
+            ExecutionResult executionResult, InstrumentationExecutionParameters parameters, InstrumentationState state) {
+        Map<String, Object> report = state instanceof CostState costState ? costState.report : null;
+        if (report == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        return CompletableFuture.completedFuture(ExecutionResultImpl.newExecutionResult()
+            .from(executionResult)
+            .addExtension("cost", report)
+            .build());
+    }
+    
+    /**
+     * 字段开销 = 自身开销 + 预估条数 × 子字段开销之和
+     */
+    private long cost(GraphQLSchema schema, ExecutableNormalizedField field) {
+        if (field.getFieldName().startsWith("__")) {
+            return 0;
+        }
+        String parentType = field.getObjectTypeNames().iterator().next();
+        String key = parentType + "." + field.getFieldName();
+        GraphQLOutputType type = field.getType(schema);
+        boolean leaf = GraphQLTypeUtil.isLeaf(GraphQLTypeUtil.unwrapAll(type));
+        
+        long own = properties.getFieldCosts().getOrDefault(key,
+            leaf ? properties.getScalarFieldCost() : properties.getObjectFieldCost());
+        long children = 0;
+        for (ExecutableNormalizedField child : field.getChildren()) {
+            children = add(children, cost(schema, child));
+        }
+        return add(own, multiply(size(field, key, parentType, type), children));
+    }
+    
+    /**
+     * 字段返回的预估条数，非列表字段为1
+     */
+    private long size(ExecutableNormalizedField field, String key, String parentType, GraphQLOutputType type) {
+        if (GraphQLTypeUtil.unwrapAll(type).getName().endsWith(CONNECTION_SUFFIX)) {
+            Object first = field.getResolvedArguments().get("first");
+            Object last = field.getResolvedArguments().get("last");
+            Object count = first != null ? first : last;
+            int pageSize = count instanceof Integer value ? value : pagination.getDefaultPageSize();
+            return Math.max(1, Math.min(pageSize, pagination.getMaxPageSize()));
+        }
+        // Connection 的 edges 已按每页条数计算过
+        if (!GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(type)) || parentType.endsWith(CONNECTION_SUFFIX)) {
+            return 1;
+        }
+        return properties.getListSizes().getOrDefault(key, properties.getDefaultListSize());
+    }
+    
+    private static int depth(ExecutableNormalizedField field) {
+        if (field.getFieldName().startsWith("__")) {
+            return 0;
+        }
+        int depth = field.getLevel();
+        for (ExecutableNormalizedField child : field.getChildren()) {
+            depth = Math.max(depth, depth(child));
+        }
+        return depth;
+    }
+    
+    private Map<String, Object> report(long cost, int depth) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requested", cost);
+        report.put("maximum", properties.getMaxCost());
+        report.put("depth", depth);
+        report.put("maxDepth", properties.getMaxDepth());
+        return report;
+    }
+    
+    /**
+     * 深层嵌套的列表会使开销超出long范围，溢出时按最大值计
+     */
+    private static long add(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+    
+    private static long multiply(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+    
+    /**
+     * 每个请求的计算结果，执行结束时写入响应
+     */
+    static class CostState implements InstrumentationState {
+        
+        private volatile Map<String, Object> report;
+    }
+}
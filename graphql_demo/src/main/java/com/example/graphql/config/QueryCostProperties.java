@@ -0,0 +1,55 @@
+package com.example.graphql.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 查询开销限制配置
+ */
+@Data
+@ConfigurationProperties(prefix = "graphql.cost")
+public class QueryCostProperties {
+    
+    /**
+     * 是否在执行前计算查询开销并拒绝超出限制的查询
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 最大嵌套深度（第一层字段为1）
+     */
+    private int maxDepth = 10;
+    
+    /**
+     * 单个操作的最大开销
+     */
+    private int maxCost = 1000;
+    
+    /**
+     * 返回对象或列表的字段的默认开销
+     */
+    private int objectFieldCost = 1;
+    
+    /**
+     * 返回标量或枚举的字段的默认开销
+     */
+    private int scalarFieldCost = 0;
+    
+    /**
+     * 不分页的列表字段的默认预估条数
+     */
+    private int defaultListSize = 10;
+    
+    /**
+     * 按 "类型.字段" 指定的字段开销，覆盖默认值
+     */
+    private Map<String, Integer> fieldCosts = new HashMap<>();
+    
+    /**
+     * 按 "类型.字段" 指定的不分页列表字段的预估条数，覆盖默认值
+     */
+    private Map<String, Integer> listSizes = new HashMap<>();
+}
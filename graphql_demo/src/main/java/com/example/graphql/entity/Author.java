@@ -3,7 +3,9 @@ package com.example.graphql.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -31,7 +33,12 @@ public class Author {
     @Column(length = 1000)
     private String bio;
     
+    /**
+     * 不参与equals/hashCode/toString，避免触发懒加载和循环引用
+     */
     @OneToMany(mappedBy = "author", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private List<Book> books = new ArrayList<>();
     
     public Author(String name, String email, String bio) {
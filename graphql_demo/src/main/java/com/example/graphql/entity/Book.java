@@ -3,7 +3,9 @@ package com.example.graphql.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * 图书实体类
@@ -28,8 +30,13 @@ public class Book {
     @Column(length = 1000)
     private String description;
     
+    /**
+     * 不参与equals/hashCode/toString，避免初始化作者代理对象
+     */
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Author author;
     
     @Column(nullable = false)
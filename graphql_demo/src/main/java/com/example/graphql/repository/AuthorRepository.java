@@ -1,7 +1,15 @@
 package com.example.graphql.repository;
 
 import com.example.graphql.entity.Author;
+import com.example.graphql.search.IndexedText;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -19,8 +27,14 @@ public interface AuthorRepository extends JpaRepository<Author, Long> {
     Optional<Author> findByEmail(String email);
     
     /**
-     * 根据名称模糊查询作者
+     * 按ID顺序批量读取ID大于afterId的作者名称，用于重建搜索索引（不加载实体）
      */
-    List<Author> findByNameContainingIgnoreCase(String name);
+    @Query("select new com.example.graphql.search.IndexedText(a.id, a.name) from Author a where a.id > :afterId order by a.id")
+    List<IndexedText> findNamesAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * 从指定位置开始查询作者（键集分页）
+     */
+    Window<Author> findAllBy(ScrollPosition position, Limit limit, Sort sort);
 }
 
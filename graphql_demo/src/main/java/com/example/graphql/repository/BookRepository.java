@@ -1,9 +1,18 @@
 package com.example.graphql.repository;
 
 import com.example.graphql.entity.Book;
+import com.example.graphql.search.IndexedText;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,13 +28,24 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     Optional<Book> findByIsbn(String isbn);
     
     /**
-     * 根据标题模糊查询图书
+     * 从指定位置开始查询图书（键集分页）
      */
-    List<Book> findByTitleContainingIgnoreCase(String title);
+    Window<Book> findAllBy(ScrollPosition position, Limit limit, Sort sort);
     
     /**
-     * 根据作者ID查询图书
+     * 按ID顺序批量读取ID大于afterId的图书标题，用于重建搜索索引（不加载实体）
      */
-    List<Book> findByAuthorId(Long authorId);
+    @Query("select new com.example.graphql.search.IndexedText(b.id, b.title) from Book b where b.id > :afterId order by b.id")
+    List<IndexedText> findTitlesAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * 根据作者ID查询图书（键集分页）
+     */
+    Window<Book> findByAuthorId(Long authorId, ScrollPosition position, Limit limit, Sort sort);
+    
+    /**
+     * 根据多个作者ID批量查询图书（一条IN查询）
+     */
+    List<Book> findByAuthorIdIn(Collection<Long> authorIds);
 }
 
@@ -1,18 +1,35 @@
 package com.example.graphql.resolver;
 
+import com.example.graphql.config.PaginationProperties;
 import com.example.graphql.entity.Author;
 import com.example.graphql.entity.Book;
 import com.example.graphql.service.AuthorService;
 import com.example.graphql.service.BookService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
 import org.springframework.stereotype.Controller;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
 
 /**
  * GraphQL查询解析器
+ * 
+ * Author.books 和 Book.author 使用批量映射：同一层级的所有父对象收集后一次性用IN查询加载，
+ * 由每个请求独立的DataLoader去重，SQL条数与结果数量无关
+ * 
+ * 列表查询返回Relay风格的Connection（first/after、last/before），游标为编码后的键集位置，
+ * 每页按 id > ?（或 id < ?）查询，翻到多深都与第一页的开销相同
  */
 @Controller
 @RequiredArgsConstructor
@@ -20,13 +37,14 @@ public class QueryResolver {
     
     private final AuthorService authorService;
     private final BookService bookService;
+    private final PaginationProperties pagination;
     
     /**
-     * 获取所有作者
+     * 分页获取作者
      */
     @QueryMapping
-    public List<Author> allAuthors() {
-        return authorService.getAllAuthors();
+    public Window<Author> allAuthors(ScrollSubrange subrange) {
+        return page(subrange, size -> authorService.getAuthors(position(subrange), size));
     }
     
     /**
@@ -39,19 +57,20 @@ public class QueryResolver {
     }
     
     /**
-     * 根据名称搜索作者
+     * 根据名称搜索作者，按相关度排序
      */
     @QueryMapping
-    public List<Author> authorsByName(@Argument String name) {
-        return authorService.searchAuthorsByName(name);
+    public Window<Author> authorsByName(@Argument String name, ScrollSubrange subrange) {
+        return page(subrange, size -> authorService.searchAuthorsByName(name, offset(subrange),
+            size, subrange.forward()));
     }
     
     /**
-     * 获取所有图书
+     * 分页获取图书
      */
     @QueryMapping
-    public List<Book> allBooks() {
-        return bookService.getAllBooks();
+    public Window<Book> allBooks(ScrollSubrange subrange) {
+        return page(subrange, size -> bookService.getBooks(position(subrange), size));
     }
     
     /**
@@ -64,19 +83,92 @@ public class QueryResolver {
     }
     
     /**
-     * 根据标题搜索图书
+     * 根据标题搜索图书，按相关度排序
      */
     @QueryMapping
-    public List<Book> booksByTitle(@Argument String title) {
-        return bookService.searchBooksByTitle(title);
+    public Window<Book> booksByTitle(@Argument String title, ScrollSubrange subrange) {
+        return page(subrange, size -> bookService.searchBooksByTitle(title, offset(subrange),
+            size, subrange.forward()));
     }
     
     /**
      * 根据作者ID获取图书
      */
     @QueryMapping
-    public List<Book> booksByAuthor(@Argument Long authorId) {
-        return bookService.getBooksByAuthor(authorId);
+    public Window<Book> booksByAuthor(@Argument Long authorId, ScrollSubrange subrange) {
+        return page(subrange, size -> bookService.getBooksByAuthor(authorId, position(subrange), size));
+    }
+    
+    /**
+     * 批量获取作者的图书
+     */
+    @BatchMapping(typeName = "Author", field = "books")
+    public List<List<Book>> books(List<Author> authors) {
+        Set<Long> authorIds = new LinkedHashSet<>();
+        for (Author author : authors) {
+            authorIds.add(author.getId());
+        }
+        Map<Long, List<Book>> booksByAuthor = bookService.getBooksByAuthorIds(authorIds);
+        return authors.stream()
+            .map(author -> booksByAuthor.getOrDefault(author.getId(), List.of()))
+            .toList();
+    }
+    
+    /**
+     * 批量获取图书的作者，多本图书属于同一作者时只查询一次
+     */
+    @BatchMapping(typeName = "Book", field = "author")
+    public List<Author> author(List<Book> books) {
+        Set<Long> authorIds = new LinkedHashSet<>();
+        for (Book book : books) {
+            authorIds.add(book.getAuthor().getId());
+        }
+        Map<Long, Author> authorsById = authorService.getAuthorsByIds(authorIds);
+        return books.stream()
+            .map(book -> authorsById.get(book.getAuthor().getId()))
+            .toList();
+    }
+    
+    /**
+     * 游标对应的键集位置；没有游标时从头（first）或从尾（last）开始。
+     * 只接受键集游标，偏移游标会变成 OFFSET 查询，按无效参数拒绝
+     */
+    private KeysetScrollPosition position(ScrollSubrange subrange) {
+        ScrollPosition position = subrange.position()
+            .orElseGet(() -> subrange.forward() ? ScrollPosition.keyset() : ScrollPosition.keyset().backward());
+        if (position instanceof KeysetScrollPosition keyset) {
+            return keyset;
+        }
+        throw new IllegalArgumentException("该列表只支持键集分页游标");
+    }
+    
+    /**
+     * 搜索结果中的偏移位置，没有游标时为null；搜索结果按相关度排序，不接受键集游标
+     */
+    private OffsetScrollPosition offset(ScrollSubrange subrange) {
+        ScrollPosition position = subrange.position().orElse(null);
+        if (position == null || position instanceof OffsetScrollPosition) {
+            return (OffsetScrollPosition) position;
+        }
+        throw new IllegalArgumentException("搜索结果只支持偏移分页游标");
+    }
+    
+    /**
+     * 按每页条数查询一页；first/last 为0时返回空页，不查询数据库
+     */
+    private <T> Window<T> page(ScrollSubrange subrange, IntFunction<Window<T>> query) {
+        int size = pageSize(subrange);
+        return size == 0 ? Window.from(List.of(), index -> ScrollPosition.offset()) : query.apply(size);
+    }
+    
+    /**
+     * 每页条数，超过最大每页条数时按最大值返回，负数视为无效参数
+     */
+    private int pageSize(ScrollSubrange subrange) {
+        int count = subrange.count().orElse(pagination.getDefaultPageSize());
+        if (count < 0) {
+            throw new IllegalArgumentException("first/last 不能为负数: " + count);
+        }
+        return Math.min(count, pagination.getMaxPageSize());
     }
 }
-
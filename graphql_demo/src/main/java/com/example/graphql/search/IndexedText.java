@@ -0,0 +1,7 @@
+package com.example.graphql.search;
+
+/**
+ * 重建索引时从数据库读取的记录，只包含ID和被索引的文本
+ */
+public record IndexedText(Long id, String text) {
+}
@@ -0,0 +1,358 @@
+package com.example.graphql.search;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存中的字符N-gram倒排索引
+ *
+ * 文本归一化（NFKC、小写）后按单字和相邻两字建立倒排表，中英文都不需要分词。
+ * 查询按空白切分为多个词，每个词取其两字片段（单字的词取单字）的倒排表求交集得到候选，
+ * 再逐个确认候选文本确实包含该词，因此结果与 LIKE '%词%' 一致，不会误命中。
+ *
+ * 文档按加入顺序编号（槽位），倒排表是递增的int数组，追加即有序，求交集时从最短的表开始跳跃查找。
+ * 修改文档时旧槽位作废、分配新槽位，作废的槽位超过一半时整体压缩。
+ * 读写锁保护，查询之间并发执行，更新时短暂互斥。
+ */
+public class NgramIndex {
+    
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] ids = new long[64];
+    private String[] texts = new String[64];
+    private int nextSlot;
+    
+    /**
+     * 添加或替换文档
+     */
+    public void put(long id, String text) {
+        String normalized = normalize(text);
+        lock.writeLock().lock();
+        try {
+            Integer previous = slots.remove(id);
+            if (previous != null) {
+                unlink(previous);
+            }
+            link(id, normalized);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 删除文档，不存在时忽略
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = slots.remove(id);
+            if (previous != null) {
+                unlink(previous);
+                compactIfSparse();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 清空后批量加载
+     */
+    public void reload(Map<Long, String> documents) {
+        lock.writeLock().lock();
+        try {
+            clear(documents.size());
+            documents.forEach((id, text) -> link(id, normalize(text)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 查询包含所有词的文档
+     *
+     * 相关度：词出现在开头（3分）、出现在词首（2分）、出现在中间（1分）累加；
+     * 多个词时整句出现再加2分，文本与查询完全相同再加5分；最后加上查询长度占文本长度的比例，较短的文本排在前面
+     */
+    public Hits search(String query) {
+        String normalized = normalize(query).trim();
+        if (normalized.isEmpty()) {
+            return new Hits(new long[0], new double[0]);
+        }
+        String[] terms = normalized.split("\\s+");
+        
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(terms);
+            long[] hitIds = new long[candidates.length];
+            double[] scores = new double[candidates.length];
+            int count = 0;
+            for (int slot : candidates) {
+                double score = score(texts[slot], normalized, terms);
+                if (score > 0) {
+                    hitIds[count] = ids[slot];
+                    scores[count++] = score;
+                }
+            }
+            return new Hits(Arrays.copyOf(hitIds, count), Arrays.copyOf(scores, count));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * 所有词的片段倒排表的交集，从最短的倒排表开始
+     */
+    private int[] candidates(String[] terms) {
+        List<Postings> lists = new ArrayList<>();
+        for (String term : terms) {
+            List<String> grams = term.length() == 1 ? List.of(term) : bigrams(term);
+            for (String gram : grams) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        Postings shortest = lists.get(0);
+        int[] result = Arrays.copyOf(shortest.slots, shortest.size);
+        int size = result.length;
+        for (int i = 1; i < lists.size() && size > 0; i++) {
+            size = lists.get(i).retain(result, size);
+        }
+        return Arrays.copyOf(result, size);
+    }
+    
+    /**
+     * 计算相关度，有词不在文本中时返回0
+     */
+    private static double score(String text, String query, String[] terms) {
+        double score = 0;
+        int matched = 0;
+        for (String term : terms) {
+            int index = text.indexOf(term);
+            if (index < 0) {
+                return 0;
+            }
+            if (index == 0) {
+                score += 3;
+            } else if (!Character.isLetterOrDigit(text.charAt(index - 1))) {
+                score += 2;
+            } else {
+                score += 1;
+            }
+            matched += term.length();
+        }
+        if (terms.length > 1 && text.contains(query)) {
+            score += 2;
+        }
+        if (text.equals(query)) {
+            score += 5;
+        }
+        return score + (double) matched / text.length();
+    }
+    
+    private void link(long id, String text) {
+        if (nextSlot == ids.length) {
+            ids = Arrays.copyOf(ids, nextSlot * 2);
+            texts = Arrays.copyOf(texts, nextSlot * 2);
+        }
+        int slot = nextSlot++;
+        ids[slot] = id;
+        texts[slot] = text;
+        slots.put(id, slot);
+        for (String gram : grams(text)) {
+            postings.computeIfAbsent(gram, key -> new Postings()).append(slot);
+        }
+    }
+    
+    private void unlink(int slot) {
+        for (String gram : grams(texts[slot])) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(slot) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+        texts[slot] = null;
+    }
+    
+    /**
+     * 作废的槽位超过一半时按现有文档重新编号
+     */
+    private void compactIfSparse() {
+        if (nextSlot < 1024 || nextSlot < slots.size() * 2) {
+            return;
+        }
+        Map<Long, String> documents = new LinkedHashMap<>();
+        for (int slot = 0; slot < nextSlot; slot++) {
+            if (texts[slot] != null) {
+                documents.put(ids[slot], texts[slot]);
+            }
+        }
+        clear(documents.size());
+        documents.forEach(this::link);
+    }
+    
+    private void clear(int capacity) {
+        slots.clear();
+        postings.clear();
+        ids = new long[Math.max(64, capacity)];
+        texts = new String[ids.length];
+        nextSlot = 0;
+    }
+    
+    /**
+     * 文本的所有单字和相邻两字片段（不含空白）
+     */
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            grams.add(String.valueOf(c));
+            if (i + 1 < text.length() && !Character.isWhitespace(text.charAt(i + 1))) {
+                grams.add(text.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+    
+    private static List<String> bigrams(String term) {
+        List<String> grams = new ArrayList<>(term.length() - 1);
+        for (int i = 0; i + 1 < term.length(); i++) {
+            grams.add(term.substring(i, i + 2));
+        }
+        return grams;
+    }
+    
+    private static String normalize(String text) {
+        return Normalizer.normalize(text == null ? "" : text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * 一个片段的倒排表：递增的槽位数组
+     */
+    private static final class Postings {
+        
+        private int[] slots = new int[4];
+        private int size;
+        
+        /**
+         * 新槽位总是大于已有槽位，直接追加
+         */
+        void append(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+        
+        boolean remove(int slot) {
+            int index = Arrays.binarySearch(slots, 0, size, slot);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+            size--;
+            return true;
+        }
+        
+        /**
+         * 只保留candidates前count个中也在本表中的槽位，返回保留的个数。
+         * candidates递增，本表中的查找位置只前进，步长倍增后二分
+         */
+        int retain(int[] candidates, int count) {
+            int kept = 0;
+            int low = 0;
+            for (int i = 0; i < count && low < size; i++) {
+                int target = candidates[i];
+                int high = low;
+                int step = 1;
+                while (high < size && slots[high] < target) {
+                    low = high + 1;
+                    high += step;
+                    step <<= 1;
+                }
+                int index = Arrays.binarySearch(slots, low, Math.min(high + 1, size), target);
+                if (index >= 0) {
+                    candidates[kept++] = target;
+                    low = index + 1;
+                } else {
+                    low = -index - 1;
+                }
+            }
+            return kept;
+        }
+    }
+    
+    /**
+     * 查询结果：命中的文档ID及相关度，未排序
+     */
+    public static final class Hits {
+        
+        private final long[] ids;
+        private final double[] scores;
+        
+        Hits(long[] ids, double[] scores) {
+            this.ids = ids;
+            this.scores = scores;
+        }
+        
+        /**
+         * 命中的文档数
+         */
+        public int size() {
+            return ids.length;
+        }
+        
+        /**
+         * 按相关度从高到低（相同时按ID升序）排列后的第 [from, from + limit) 个文档ID，
+         * 只用大小为 from + limit 的堆选出排名靠前的部分，不排序全部结果
+         */
+        public List<Long> page(int from, int limit) {
+            int end = Math.min(ids.length, from + limit);
+            if (from >= end) {
+                return List.of();
+            }
+            PriorityQueue<Integer> top = new PriorityQueue<>(end, this::compare);
+            for (int i = 0; i < ids.length; i++) {
+                if (top.size() < end) {
+                    top.add(i);
+                } else if (compare(i, top.peek()) > 0) {
+                    top.poll();
+                    top.add(i);
+                }
+            }
+            Long[] ranked = new Long[end];
+            for (int i = end - 1; i >= 0; i--) {
+                ranked[i] = ids[top.poll()];
+            }
+            return Arrays.asList(ranked).subList(from, end);
+        }
+        
+        /**
+         * 排名靠前的大于排名靠后的
+         */
+        private int compare(int a, int b) {
+            int byScore = Double.compare(scores[a], scores[b]);
+            return byScore != 0 ? byScore : Long.compare(ids[b], ids[a]);
+        }
+    }
+}
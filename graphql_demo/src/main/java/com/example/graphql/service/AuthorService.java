@@ -1,13 +1,23 @@
 package com.example.graphql.service;
 
 import com.example.graphql.entity.Author;
+import com.example.graphql.entity.Book;
 import com.example.graphql.repository.AuthorRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 作者服务层
@@ -17,13 +27,19 @@ import java.util.Optional;
 @Transactional
 public class AuthorService {
     
+    /**
+     * 分页按ID排序，ID唯一，可以作为键集分页的游标
+     */
+    private static final Sort BY_ID = Sort.by("id");
+    
     private final AuthorRepository authorRepository;
+    private final SearchService searchService;
     
     /**
-     * 获取所有作者
+     * 分页获取作者，从游标位置按 id > ? 查询，不使用OFFSET
      */
-    public List<Author> getAllAuthors() {
-        return authorRepository.findAll();
+    public Window<Author> getAuthors(KeysetScrollPosition position, int limit) {
+        return authorRepository.findAllBy(position, Limit.of(limit), BY_ID);
     }
     
     /**
@@ -34,10 +50,18 @@ public class AuthorService {
     }
     
     /**
-     * 根据名称搜索作者
+     * 根据多个ID批量获取作者（一条IN查询），按ID索引
+     */
+    public Map<Long, Author> getAuthorsByIds(Collection<Long> ids) {
+        return authorRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Author::getId, Function.identity()));
+    }
+    
+    /**
+     * 根据名称搜索作者（分页），走内存索引，按相关度排序
      */
-    public List<Author> searchAuthorsByName(String name) {
-        return authorRepository.findByNameContainingIgnoreCase(name);
+    public Window<Author> searchAuthorsByName(String name, OffsetScrollPosition position, int limit, boolean forward) {
+        return searchService.searchAuthors(name, position, limit, forward);
     }
     
     /**
@@ -49,8 +73,9 @@ public class AuthorService {
             throw new RuntimeException("邮箱已被使用: " + email);
         }
         
-        Author author = new Author(name, email, bio);
-        return authorRepository.save(author);
+        Author author = authorRepository.save(new Author(name, email, bio));
+        searchService.indexAuthor(author);
+        return author;
     }
     
     /**
@@ -76,17 +101,23 @@ public class AuthorService {
             author.setBio(bio);
         }
         
-        return authorRepository.save(author);
+        Author saved = authorRepository.save(author);
+        searchService.indexAuthor(saved);
+        return saved;
     }
     
     /**
      * 删除作者
      */
     public boolean deleteAuthor(Long id) {
-        if (!authorRepository.existsById(id)) {
-            throw new RuntimeException("作者不存在，ID: " + id);
-        }
-        authorRepository.deleteById(id);
+        Author author = authorRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("作者不存在，ID: " + id));
+        // 作者的图书级联删除，一并从搜索索引中移除
+        List<Long> bookIds = author.getBooks().stream()
+            .map(Book::getId)
+            .toList();
+        authorRepository.delete(author);
+        searchService.removeAuthor(id, bookIds);
         return true;
     }
 }
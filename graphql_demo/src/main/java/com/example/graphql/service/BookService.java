@@ -5,11 +5,19 @@ import com.example.graphql.entity.Book;
 import com.example.graphql.repository.AuthorRepository;
 import com.example.graphql.repository.BookRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * 图书服务层
@@ -19,14 +27,20 @@ import java.util.Optional;
 @Transactional
 public class BookService {
     
+    /**
+     * 分页按ID排序，ID唯一，可以作为键集分页的游标
+     */
+    private static final Sort BY_ID = Sort.by("id");
+    
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
+    private final SearchService searchService;
     
     /**
-     * 获取所有图书
+     * 分页获取图书，从游标位置按 id > ? 查询，不使用OFFSET
      */
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    public Window<Book> getBooks(KeysetScrollPosition position, int limit) {
+        return bookRepository.findAllBy(position, Limit.of(limit), BY_ID);
     }
     
     /**
@@ -37,17 +51,25 @@ public class BookService {
     }
     
     /**
-     * 根据标题搜索图书
+     * 根据标题搜索图书（分页），走内存索引，按相关度排序
+     */
+    public Window<Book> searchBooksByTitle(String title, OffsetScrollPosition position, int limit, boolean forward) {
+        return searchService.searchBooks(title, position, limit, forward);
+    }
+    
+    /**
+     * 根据作者ID获取图书（分页）
      */
-    public List<Book> searchBooksByTitle(String title) {
-        return bookRepository.findByTitleContainingIgnoreCase(title);
+    public Window<Book> getBooksByAuthor(Long authorId, KeysetScrollPosition position, int limit) {
+        return bookRepository.findByAuthorId(authorId, position, Limit.of(limit), BY_ID);
     }
     
     /**
-     * 根据作者ID获取图书
+     * 根据多个作者ID批量获取图书，按作者ID分组
      */
-    public List<Book> getBooksByAuthor(Long authorId) {
-        return bookRepository.findByAuthorId(authorId);
+    public Map<Long, List<Book>> getBooksByAuthorIds(Collection<Long> authorIds) {
+        return bookRepository.findByAuthorIdIn(authorIds).stream()
+            .collect(Collectors.groupingBy(book -> book.getAuthor().getId()));
     }
     
     /**
@@ -64,8 +86,9 @@ public class BookService {
         Author author = authorRepository.findById(authorId)
             .orElseThrow(() -> new RuntimeException("作者不存在，ID: " + authorId));
         
-        Book book = new Book(title, isbn, description, author, price, publishYear);
-        return bookRepository.save(book);
+        Book book = bookRepository.save(new Book(title, isbn, description, author, price, publishYear));
+        searchService.indexBook(book);
+        return book;
     }
     
     /**
@@ -106,7 +129,9 @@ public class BookService {
             book.setPublishYear(publishYear);
         }
         
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        searchService.indexBook(saved);
+        return saved;
     }
     
     /**
@@ -117,6 +142,7 @@ public class BookService {
             throw new RuntimeException("图书不存在，ID: " + id);
         }
         bookRepository.deleteById(id);
+        searchService.removeBook(id);
         return true;
     }
 }
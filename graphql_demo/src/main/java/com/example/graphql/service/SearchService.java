@@ -0,0 +1,195 @@
+package com.example.graphql.service;
+
+import com.example.graphql.entity.Author;
+import com.example.graphql.entity.Book;
+import com.example.graphql.repository.AuthorRepository;
+import com.example.graphql.repository.BookRepository;
+import com.example.graphql.search.IndexedText;
+import com.example.graphql.search.NgramIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 搜索服务层
+ *
+ * 图书标题和作者名称的搜索走内存中的N-gram索引，按相关度排序后分页，只按主键加载当前页的实体，
+ * 不再执行 LIKE '%x%' 全表扫描。索引在第一次搜索时从数据库重建，之后由增删改操作在事务提交后同步更新。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+    
+    /**
+     * 重建索引时每批读取的记录数
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    
+    private final NgramIndex bookIndex = new NgramIndex();
+    private final NgramIndex authorIndex = new NgramIndex();
+    
+    /**
+     * 重建与增量更新互斥：重建期间提交的修改等重建完成后再写入索引，不会被重建结果覆盖
+     */
+    private final Object rebuildLock = new Object();
+    private volatile boolean loaded;
+    
+    /**
+     * 按标题搜索图书，结果按相关度排序
+     *
+     * @param position 偏移位置，为null时从头（forward）或从尾开始
+     */
+    @Transactional(readOnly = true)
+    public Window<Book> searchBooks(String title, OffsetScrollPosition position, int limit, boolean forward) {
+        ensureLoaded();
+        return page(bookIndex.search(title), position, limit, forward, bookRepository, Book::getId);
+    }
+    
+    /**
+     * 按名称搜索作者，结果按相关度排序
+     *
+     * @param position 偏移位置，为null时从头（forward）或从尾开始
+     */
+    @Transactional(readOnly = true)
+    public Window<Author> searchAuthors(String name, OffsetScrollPosition position, int limit, boolean forward) {
+        ensureLoaded();
+        return page(authorIndex.search(name), position, limit, forward, authorRepository, Author::getId);
+    }
+    
+    /**
+     * 图书创建或修改后更新索引
+     */
+    public void indexBook(Book book) {
+        Long id = book.getId();
+        String title = book.getTitle();
+        afterCommit(() -> bookIndex.put(id, title));
+    }
+    
+    /**
+     * 图书删除后更新索引
+     */
+    public void removeBook(Long id) {
+        afterCommit(() -> bookIndex.remove(id));
+    }
+    
+    /**
+     * 作者创建或修改后更新索引
+     */
+    public void indexAuthor(Author author) {
+        Long id = author.getId();
+        String name = author.getName();
+        afterCommit(() -> authorIndex.put(id, name));
+    }
+    
+    /**
+     * 作者删除后更新索引，作者的图书随作者一起删除
+     */
+    public void removeAuthor(Long id, Collection<Long> bookIds) {
+        List<Long> removedBooks = List.copyOf(bookIds);
+        afterCommit(() -> {
+            authorIndex.remove(id);
+            removedBooks.forEach(bookIndex::remove);
+        });
+    }
+    
+    /**
+     * 索引中的一页：从偏移位置取limit条，再按主键批量加载实体并保持相关度顺序。
+     * 每条结果的位置为其在全部结果中的序号，从0开始的一页没有上一页
+     */
+    private <T> Window<T> page(NgramIndex.Hits hits, OffsetScrollPosition position, int limit, boolean forward,
+                               JpaRepository<T, Long> repository, Function<T, Long> idOf) {
+        int start = position != null
+            ? (int) Math.min(position.getOffset(), hits.size())
+            : forward ? 0 : Math.max(0, hits.size() - limit);
+        List<Long> ids = hits.page(start, limit);
+        
+        Map<Long, T> entities = new HashMap<>();
+        for (T entity : repository.findAllById(ids)) {
+            entities.put(idOf.apply(entity), entity);
+        }
+        // 索引在事务提交后才更新，期间被删除的记录跳过
+        List<T> content = ids.stream()
+            .map(entities::get)
+            .filter(Objects::nonNull)
+            .toList();
+        return Window.from(content, index -> ScrollPosition.offset(start + index), start + ids.size() < hits.size());
+    }
+    
+    /**
+     * 索引为空时从数据库重建（冷启动），只在第一次搜索时执行
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            if (loaded) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            bookIndex.reload(readAll(bookRepository::findTitlesAfter));
+            authorIndex.reload(readAll(authorRepository::findNamesAfter));
+            loaded = true;
+            log.info("搜索索引重建完成：图书 {} 本，作者 {} 位，耗时 {} ms",
+                bookIndex.size(), authorIndex.size(), System.currentTimeMillis() - start);
+        }
+    }
+    
+    /**
+     * 按ID分批读取全部记录，每批按 id > ? 查询
+     */
+    private Map<Long, String> readAll(BiFunction<Long, PageRequest, List<IndexedText>> batch) {
+        Map<Long, String> texts = new HashMap<>();
+        long afterId = 0;
+        while (true) {
+            List<IndexedText> rows = batch.apply(afterId, PageRequest.ofSize(REBUILD_BATCH_SIZE));
+            for (IndexedText row : rows) {
+                texts.put(row.id(), row.text());
+                afterId = row.id();
+            }
+            if (rows.size() < REBUILD_BATCH_SIZE) {
+                return texts;
+            }
+        }
+    }
+    
+    /**
+     * 在当前事务提交后更新索引，回滚时不更新；没有事务时立即更新。
+     * 索引尚未重建时跳过，重建时会从数据库读到最新数据
+     */
+    private void afterCommit(Runnable update) {
+        Runnable guarded = () -> {
+            synchronized (rebuildLock) {
+                if (loaded) {
+                    update.run();
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.nlp.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个端点（按语言区分）的延迟统计
+ *
+ * responseTime 从计划发送时间算起，包含请求在客户端排队的时间，不受协调遗漏(coordinated omission)影响；
+ * serviceTime 从实际发送时间算起，两者差距越大说明服务端越接近饱和。
+ */
+public class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final AtomicLong success = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final Map<String, AtomicLong> errorTypes = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次成功请求
+     */
+    public void recordSuccess(long responseNanos, long serviceNanos) {
+        responseTime.recordValue(toMicros(responseNanos));
+        serviceTime.recordValue(toMicros(serviceNanos));
+        success.incrementAndGet();
+    }
+
+    /**
+     * 记录一次失败请求（HTTP非2xx、超时、客户端过载等）
+     */
+    public void recordError(String type, long responseNanos) {
+        if (responseNanos >= 0) {
+            responseTime.recordValue(toMicros(responseNanos));
+        }
+        errors.incrementAndGet();
+        errorTypes.computeIfAbsent(type, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    public Histogram getResponseTime() {
+        return responseTime;
+    }
+
+    public Histogram getServiceTime() {
+        return serviceTime;
+    }
+
+    public long getSuccess() {
+        return success.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public Map<String, AtomicLong> getErrorTypes() {
+        return errorTypes;
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, nanos / 1000));
+    }
+}
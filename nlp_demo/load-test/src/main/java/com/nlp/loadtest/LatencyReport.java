@@ -0,0 +1,138 @@
+package com.nlp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * 压测报告
+ *
+ * 报告为JSON文件，除各端点的分位数外还保存压缩后的HdrHistogram，便于之后合并或精确对比两次压测。
+ */
+public class LatencyReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final ObjectMapper mapper;
+
+    public LatencyReport(ObjectMapper mapper) {
+        this.mapper = mapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * 生成报告并写入文件
+     */
+    public ObjectNode write(LoadTestConfig config, OpenLoopDriver driver, Path file) throws IOException {
+        ObjectNode report = mapper.createObjectNode();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("target", config.target);
+        report.put("rate", config.rate);
+        report.put("warmupSeconds", config.warmup.toSeconds());
+        report.put("durationSeconds", config.duration.toSeconds());
+        report.put("input", config.input == null ? "synthetic" : config.input);
+        report.put("scheduled", driver.getScheduled());
+
+        EndpointStats total = driver.getTotal();
+        long completed = total.getSuccess() + total.getErrors();
+        report.put("achievedRate", completed / driver.getMeasuredSeconds());
+        report.set("total", toJson(total));
+
+        ObjectNode endpoints = report.putObject("endpoints");
+        new TreeMap<>(driver.getStats()).forEach((key, stats) -> endpoints.set(key, toJson(stats)));
+
+        mapper.writeValue(file.toFile(), report);
+        return report;
+    }
+
+    /**
+     * 在控制台打印报告摘要
+     */
+    public void print(JsonNode report, PrintStream out) {
+        out.printf("%-40s %8s %8s %10s %10s %10s %10s%n", "endpoint [language]", "count", "errors",
+                "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        printRow(out, "TOTAL", report.get("total"));
+        report.get("endpoints").fields().forEachRemaining(entry -> printRow(out, entry.getKey(), entry.getValue()));
+        out.printf("目标速率 %.1f req/s，实际完成速率 %.1f req/s%n",
+                report.get("rate").asDouble(), report.get("achievedRate").asDouble());
+    }
+
+    /**
+     * 对比两份报告的响应时间分位数，返回回归超过阈值（百分比）的条目
+     */
+    public List<String> compare(JsonNode baseline, JsonNode candidate, double maxRegressionPercent, PrintStream out) {
+        List<String> regressions = new ArrayList<>();
+        out.printf("%-40s %10s %12s %12s %9s%n", "endpoint [language]", "percentile", "baseline(ms)", "candidate(ms)", "change");
+
+        Map<String, JsonNode> rows = new TreeMap<>();
+        rows.put("TOTAL", candidate.get("total"));
+        candidate.get("endpoints").fields().forEachRemaining(e -> rows.put(e.getKey(), e.getValue()));
+
+        for (Map.Entry<String, JsonNode> row : rows.entrySet()) {
+            JsonNode base = "TOTAL".equals(row.getKey())
+                    ? baseline.get("total")
+                    : baseline.path("endpoints").get(row.getKey());
+            if (base == null) {
+                out.printf("%-40s 基线报告中不存在%n", row.getKey());
+                continue;
+            }
+            for (String percentile : List.of("p50", "p99", "p99.9")) {
+                double before = base.path("responseTime").path(percentile).asDouble();
+                double after = row.getValue().path("responseTime").path(percentile).asDouble();
+                double change = before > 0 ? (after - before) / before * 100 : 0;
+                out.printf("%-40s %10s %12.2f %12.2f %8.1f%%%n", row.getKey(), percentile, before, after, change);
+                if (change > maxRegressionPercent) {
+                    regressions.add(row.getKey() + " " + percentile);
+                }
+            }
+        }
+        return regressions;
+    }
+
+    private ObjectNode toJson(EndpointStats stats) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("count", stats.getSuccess() + stats.getErrors());
+        node.put("success", stats.getSuccess());
+        node.put("errors", stats.getErrors());
+        ObjectNode errorTypes = node.putObject("errorTypes");
+        new TreeMap<>(stats.getErrorTypes()).forEach((type, count) -> errorTypes.put(type, count.get()));
+        node.set("responseTime", histogramToJson(stats.getResponseTime()));
+        node.set("serviceTime", histogramToJson(stats.getServiceTime()));
+        return node;
+    }
+
+    private ObjectNode histogramToJson(Histogram histogram) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("mean", histogram.getMean() / 1000.0);
+        for (double percentile : PERCENTILES) {
+            node.put("p" + formatPercentile(percentile), histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        node.put("max", histogram.getMaxValue() / 1000.0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        node.put("histogram", Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+        return node;
+    }
+
+    private void printRow(PrintStream out, String key, JsonNode stats) {
+        JsonNode responseTime = stats.get("responseTime");
+        out.printf("%-40s %8d %8d %10.2f %10.2f %10.2f %10.2f%n", key,
+                stats.get("count").asLong(), stats.get("errors").asLong(),
+                responseTime.get("p50").asDouble(), responseTime.get("p99").asDouble(),
+                responseTime.get("p99.9").asDouble(), responseTime.get("max").asDouble());
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.floor(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,113 @@
+package com.nlp.loadtest;
+
+import java.time.Duration;
+
+/**
+ * 压测参数
+ */
+public class LoadTestConfig {
+
+    /**
+     * 目标服务地址
+     */
+    String target = "http://localhost:8080";
+
+    /**
+     * 固定到达速率（请求/秒）
+     */
+    double rate = 20;
+
+    /**
+     * 预热时长，预热期间的请求不计入报告
+     */
+    Duration warmup = Duration.ofSeconds(10);
+
+    /**
+     * 正式压测时长
+     */
+    Duration duration = Duration.ofSeconds(60);
+
+    /**
+     * 单个请求超时时间
+     */
+    Duration timeout = Duration.ofSeconds(30);
+
+    /**
+     * 最多同时在途的请求数，超出后新请求直接记为失败而不是等待，保持开环特性
+     */
+    int maxInFlight = 2000;
+
+    /**
+     * 录制的请求文件（JSON Lines），为空时使用内置的合成请求
+     */
+    String input;
+
+    /**
+     * 报告输出文件
+     */
+    String report = "load-test-report.json";
+
+    /**
+     * 随机种子，固定种子使合成请求序列可复现
+     */
+    long seed = 42;
+
+    /**
+     * 解析命令行参数，格式为 --name=value 或 --name value
+     */
+    static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+            String name;
+            String value;
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                name = arg.substring(2, eq);
+                value = arg.substring(eq + 1);
+            } else {
+                name = arg.substring(2);
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("参数缺少取值: " + arg);
+                }
+                value = args[++i];
+            }
+
+            switch (name) {
+                case "target" -> config.target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "rate" -> config.rate = Double.parseDouble(value);
+                case "warmup" -> config.warmup = parseDuration(value);
+                case "duration" -> config.duration = parseDuration(value);
+                case "timeout" -> config.timeout = parseDuration(value);
+                case "max-in-flight" -> config.maxInFlight = Integer.parseInt(value);
+                case "input" -> config.input = value;
+                case "report" -> config.report = value;
+                case "seed" -> config.seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("未知参数: --" + name);
+            }
+        }
+        if (config.rate <= 0) {
+            throw new IllegalArgumentException("rate必须大于0");
+        }
+        return config;
+    }
+
+    /**
+     * 解析时长，支持 500ms、30s、5m，纯数字按秒处理
+     */
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
@@ -0,0 +1,66 @@
+package com.nlp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * NLP服务开环压测入口
+ *
+ * 压测：java -jar nlp-load-test.jar --target=http://localhost:8080 --rate=50 --duration=60s [--input=mix.jsonl]
+ * 对比：java -jar nlp-load-test.jar compare baseline.json candidate.json [--max-regression=10]
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        LatencyReport report = new LatencyReport(mapper);
+
+        if (args.length > 0 && "compare".equals(args[0])) {
+            System.exit(compare(args, mapper, report));
+        }
+
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        RequestMix mix = config.input == null
+                ? RequestMix.synthetic(config.seed, mapper)
+                : RequestMix.load(Paths.get(config.input), config.seed, mapper);
+
+        System.out.printf("开始压测 %s，速率 %.1f req/s，预热 %ds，持续 %ds%n", config.target, config.rate,
+                config.warmup.toSeconds(), config.duration.toSeconds());
+
+        OpenLoopDriver driver = new OpenLoopDriver(config, mix);
+        driver.run();
+
+        Path reportFile = Paths.get(config.report);
+        JsonNode result = report.write(config, driver, reportFile);
+        report.print(result, System.out);
+        System.out.println("报告已写入: " + reportFile.toAbsolutePath());
+        System.exit(0);
+    }
+
+    private static int compare(String[] args, ObjectMapper mapper, LatencyReport report) throws Exception {
+        if (args.length < 3) {
+            System.err.println("用法: compare <baseline.json> <candidate.json> [--max-regression=10]");
+            return 2;
+        }
+        double maxRegression = 10;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].startsWith("--max-regression=")) {
+                maxRegression = Double.parseDouble(args[i].substring("--max-regression=".length()));
+            }
+        }
+
+        JsonNode baseline = mapper.readTree(Paths.get(args[1]).toFile());
+        JsonNode candidate = mapper.readTree(Paths.get(args[2]).toFile());
+        List<String> regressions = report.compare(baseline, candidate, maxRegression, System.out);
+        if (regressions.isEmpty()) {
+            System.out.println("未发现超过 " + maxRegression + "% 的延迟回归");
+            return 0;
+        }
+        System.out.println("发现延迟回归: " + regressions);
+        return 1;
+    }
+}
@@ -0,0 +1,136 @@
+package com.nlp.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开环压测驱动
+ *
+ * 请求按固定到达速率调度，第i个请求的计划发送时间为 start + i / rate，与之前的请求是否完成无关；
+ * 延迟从计划发送时间算起，服务端变慢时客户端不会跟着降速，避免协调遗漏掩盖尾延迟。
+ */
+public class OpenLoopDriver {
+
+    private final LoadTestConfig config;
+    private final RequestMix mix;
+    private final HttpClient client;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final EndpointStats total = new EndpointStats();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private long scheduled;
+    private long measuredStartNanos;
+    private long measuredEndNanos;
+
+    public OpenLoopDriver(LoadTestConfig config, RequestMix mix) {
+        this.config = config;
+        this.mix = mix;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(config.timeout)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    /**
+     * 执行压测，阻塞直到所有请求完成或超时
+     */
+    public void run() throws InterruptedException {
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate;
+        long start = System.nanoTime();
+        long warmupEnd = start + config.warmup.toNanos();
+        long end = warmupEnd + config.duration.toNanos();
+        measuredStartNanos = warmupEnd;
+        measuredEndNanos = end;
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(mix.next(), intended, intended >= warmupEnd);
+            scheduled++;
+        }
+
+        // 等待在途请求完成
+        long drainDeadline = System.nanoTime() + config.timeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void send(RequestMix.Template template, long intended, boolean measured) {
+        EndpointStats endpointStats = measured
+                ? stats.computeIfAbsent(template.key(), k -> new EndpointStats())
+                : null;
+
+        if (inFlight.get() >= config.maxInFlight) {
+            // 客户端在途请求过多，直接记为失败，不阻塞调度
+            if (measured) {
+                endpointStats.recordError("client-overload", -1);
+                total.recordError("client-overload", -1);
+            }
+            return;
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(config.target + template.endpoint()))
+                .timeout(config.timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(template.body()))
+                .build();
+
+        inFlight.incrementAndGet();
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long now = System.nanoTime();
+                    inFlight.decrementAndGet();
+                    if (!measured) {
+                        return;
+                    }
+                    if (error != null) {
+                        String type = error.getCause() instanceof HttpTimeoutException || error instanceof HttpTimeoutException
+                                ? "timeout" : "io-error";
+                        endpointStats.recordError(type, now - intended);
+                        total.recordError(type, now - intended);
+                    } else if (response.statusCode() / 100 != 2) {
+                        String type = "http-" + response.statusCode();
+                        endpointStats.recordError(type, now - intended);
+                        total.recordError(type, now - intended);
+                    } else {
+                        endpointStats.recordSuccess(now - intended, now - sent);
+                        total.recordSuccess(now - intended, now - sent);
+                    }
+                });
+    }
+
+    public Map<String, EndpointStats> getStats() {
+        return stats;
+    }
+
+    public EndpointStats getTotal() {
+        return total;
+    }
+
+    public long getScheduled() {
+        return scheduled;
+    }
+
+    /**
+     * 正式压测阶段的时长（秒）
+     */
+    public double getMeasuredSeconds() {
+        return (measuredEndNanos - measuredStartNanos) / 1e9;
+    }
+}
@@ -0,0 +1,122 @@
+package com.nlp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 请求组合
+ *
+ * 录制文件每行一个请求：{"endpoint": "/api/nlp/process", "language": "en", "weight": 1, "body": {...}}，
+ * language 和 weight 可省略。按权重随机抽取，固定随机种子时请求序列可复现。
+ */
+public class RequestMix {
+
+    private static final String[][] SYNTHETIC_TEXTS = {
+            {"en", "I can't believe it's raining today! 😊 Apple Inc. is located in California."},
+            {"en", "Barack Obama was born in Hawaii and became the President of the United States."},
+            {"en", "I have a speling mistake here, plz fix it asap. btw thx for the help!"},
+            {"en", "Natural Language Processing is amazing!"},
+            {"zh", "今天天气真不错！😊 我在北京大学学习自然语言处理。"},
+            {"zh", "马云在杭州创办了阿里巴巴集团。"},
+            {"zh", "我爱自然语言处理"},
+    };
+
+    private static final String[][] SYNTHETIC_ENDPOINTS = {
+            // 端点, 权重
+            {"/api/nlp/process", "4"},
+            {"/api/nlp/tokenize", "3"},
+            {"/api/nlp/spell-check", "1"},
+            {"/api/nlp/ner", "1"},
+            {"/api/nlp/emoji", "1"},
+    };
+
+    private final List<Template> templates;
+    private final double[] cumulativeWeights;
+    private final Random random;
+
+    private RequestMix(List<Template> templates, long seed) {
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("请求组合不能为空");
+        }
+        this.templates = templates;
+        this.cumulativeWeights = new double[templates.size()];
+        double sum = 0;
+        for (int i = 0; i < templates.size(); i++) {
+            sum += templates.get(i).weight();
+            cumulativeWeights[i] = sum;
+        }
+        this.random = new Random(seed);
+    }
+
+    /**
+     * 从录制文件加载
+     */
+    public static RequestMix load(Path file, long seed, ObjectMapper mapper) throws IOException {
+        List<Template> templates = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = mapper.readTree(line);
+            JsonNode body = node.path("body");
+            String language = node.hasNonNull("language")
+                    ? node.get("language").asText()
+                    : body.path("language").asText("auto");
+            templates.add(new Template(node.path("endpoint").asText("/api/nlp/process"), language,
+                    node.path("weight").asDouble(1.0), mapper.writeValueAsString(body)));
+        }
+        return new RequestMix(templates, seed);
+    }
+
+    /**
+     * 内置的合成请求组合：各端点按权重与中英文样例文本交叉组合
+     */
+    public static RequestMix synthetic(long seed, ObjectMapper mapper) throws IOException {
+        List<Template> templates = new ArrayList<>();
+        for (String[] endpoint : SYNTHETIC_ENDPOINTS) {
+            for (String[] text : SYNTHETIC_TEXTS) {
+                ObjectNode body = mapper.createObjectNode();
+                body.put("keyword", text[1]);
+                body.put("language", text[0]);
+                templates.add(new Template(endpoint[0], text[0], Double.parseDouble(endpoint[1]),
+                        mapper.writeValueAsString(body)));
+            }
+        }
+        return new RequestMix(templates, seed);
+    }
+
+    /**
+     * 抽取下一个请求（只在调度线程中调用）
+     */
+    public Template next() {
+        double point = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return templates.get(i);
+            }
+        }
+        return templates.get(templates.size() - 1);
+    }
+
+    /**
+     * 请求模板
+     */
+    public record Template(String endpoint, String language, double weight, String body) {
+
+        /**
+         * 报告中的分组键
+         */
+        public String key() {
+            return endpoint + " [" + language + "]";
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.nlp;
 
+import com.nlp.cli.BatchFileRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 /**
  * NLP工具应用程序主类
@@ -10,7 +12,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class NlpDemoApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(NlpDemoApplication.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(NlpDemoApplication.class, args);
+        if (context.getBeanNamesForType(BatchFileRunner.class).length > 0) {
+            // 批量文件处理模式（见BatchModeEnvironmentPostProcessor）：不启动Web服务器，处理完成后以处理结果作为退出码退出
+            System.exit(SpringApplication.exit(context));
+        }
         System.out.println("\n===========================================");
         System.out.println("NLP工具服务启动成功！");
         System.out.println("访问地址: http://localhost:8080");
@@ -18,4 +24,3 @@ public class NlpDemoApplication {
         System.out.println("===========================================\n");
     }
 }
-
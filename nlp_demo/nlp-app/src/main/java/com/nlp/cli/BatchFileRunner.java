@@ -0,0 +1,336 @@
+package com.nlp.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlp.config.NlpProperties;
+import com.nlp.model.JobResultPage;
+import com.nlp.model.NlpRequest;
+import com.nlp.service.NlpService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 批量文件处理（命令行模式）
+ *
+ * 指定 nlp.cli.input 时启用（命令行参数、环境变量或配置文件均可），不启动Web服务器，
+ * 直接调用 {@link NlpService} 处理输入文件后退出。
+ * 输入文件（UTF-8，每行一条文本或一个JSON格式的NlpRequest）以内存映射方式读取，按chunkSizeMb切分为若干块，
+ * 块边界对齐到换行符，各块在线程池中并行处理。每块的结果先写入 {output}.parts 目录下的临时文件，
+ * 完成后改名，作为该块的检查点；中断后以相同参数重新运行时跳过已完成的块。全部完成后按顺序合并为输出文件。
+ */
+@Component
+@ConditionalOnProperty(prefix = "nlp.cli", name = "input")
+public class BatchFileRunner implements CommandLineRunner, ExitCodeGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchFileRunner.class);
+
+    private static final String MANIFEST = "manifest.properties";
+
+    private final NlpService nlpService;
+    private final ObjectMapper objectMapper;
+    private final NlpProperties.Cli config;
+    private final int maxTextLength;
+    private int exitCode;
+
+    public BatchFileRunner(NlpService nlpService, ObjectMapper objectMapper, NlpProperties properties) {
+        this.nlpService = nlpService;
+        this.objectMapper = objectMapper;
+        this.config = properties.getCli();
+        this.maxTextLength = properties.getMaxTextLength();
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Path input = Paths.get(config.getInput());
+        Path output = Paths.get(config.getOutput().isBlank() ? config.getInput() + ".out.jsonl" : config.getOutput());
+        Path partsDir = Paths.get(output + ".parts");
+        boolean jsonl = isJsonl(input);
+        long chunkSize = config.getChunkSizeMb() * 1024 * 1024;
+        if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("nlp.cli.chunk-size-mb 必须在1到2047之间");
+        }
+
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            List<Chunk> chunks = plan(channel, chunkSize);
+            prepareCheckpoints(partsDir, input, channel.size(), jsonl);
+
+            int threads = config.getThreads() > 0 ? config.getThreads() : Runtime.getRuntime().availableProcessors();
+            AtomicInteger threadIndex = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "nlp-cli-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            AtomicLong processed = new AtomicLong();
+            AtomicLong failed = new AtomicLong();
+            int skipped = 0;
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (Chunk chunk : chunks) {
+                    if (Files.exists(partFile(partsDir, chunk))) {
+                        skipped++;
+                        continue;
+                    }
+                    futures.add(executor.submit(() -> {
+                        processChunk(channel, chunk, jsonl, partsDir, processed, failed);
+                        return null;
+                    }));
+                }
+                log.info("批量处理开始: {}，共 {} 块，{} 块已在之前的运行中完成，{} 个线程",
+                        input, chunks.size(), skipped, threads);
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                exitCode = 1;
+                log.error("批量处理中断，已完成的块会在下次运行时跳过: {}", e.getCause().getMessage(), e.getCause());
+                return;
+            } finally {
+                executor.shutdownNow();
+            }
+
+            merge(chunks, partsDir, output);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            log.info("批量处理完成: {} -> {}，本次处理 {} 条（失败 {} 条），耗时 {} 秒",
+                    input, output, processed.get(), failed.get(), String.format("%.1f", seconds));
+        }
+    }
+
+    /**
+     * 按chunkSize切分文件，每块的结束位置向后对齐到换行符之后，并统计每块的行数以得到各块第一行的行号
+     */
+    private List<Chunk> plan(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<Chunk> chunks = new ArrayList<>();
+        long start = 0;
+        long firstLine = 0;
+        while (start < size) {
+            long end = Math.min(start + chunkSize, size);
+            if (end < size) {
+                end = nextLineStart(channel, end);
+            }
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IllegalStateException("单行超过2GB，无法处理: 偏移 " + start);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            long lines = 0;
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    lines++;
+                }
+            }
+            if (end == size && buffer.limit() > 0 && buffer.get(buffer.limit() - 1) != '\n') {
+                lines++;
+            }
+            chunks.add(new Chunk(chunks.size(), start, end, firstLine));
+            firstLine += lines;
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * 从position开始查找下一个换行符，返回其后一个字节的位置；没有换行符时返回文件末尾
+     */
+    private long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * 准备检查点目录；输入文件或切分参数与上次运行不一致时丢弃之前的结果
+     */
+    private void prepareCheckpoints(Path partsDir, Path input, long size, boolean jsonl) throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty("input", input.toAbsolutePath().toString());
+        manifest.setProperty("size", String.valueOf(size));
+        manifest.setProperty("lastModified", String.valueOf(Files.getLastModifiedTime(input).toMillis()));
+        manifest.setProperty("chunkSizeMb", String.valueOf(config.getChunkSizeMb()));
+        manifest.setProperty("format", jsonl ? "jsonl" : "text");
+        manifest.setProperty("language", config.getLanguage());
+
+        Path manifestFile = partsDir.resolve(MANIFEST);
+        if (Files.exists(manifestFile)) {
+            Properties previous = new Properties();
+            try (var reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+                previous.load(reader);
+            }
+            if (previous.equals(manifest)) {
+                return;
+            }
+            log.warn("输入文件或参数与上次运行不一致，丢弃之前的检查点: {}", partsDir);
+        }
+        deleteDirectory(partsDir);
+        Files.createDirectories(partsDir);
+        try (var writer = Files.newBufferedWriter(manifestFile, StandardCharsets.UTF_8)) {
+            manifest.store(writer, null);
+        }
+    }
+
+    /**
+     * 处理一块：逐行解码和处理，结果写入临时文件，完成后改名
+     */
+    private void processChunk(FileChannel channel, Chunk chunk, boolean jsonl, Path partsDir,
+                              AtomicLong processed, AtomicLong failed) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+        Path part = partFile(partsDir, chunk);
+        Path temp = Paths.get(part + ".tmp");
+        long lineNumber = chunk.firstLine;
+        int count = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+            int lineStart = 0;
+            int limit = buffer.limit();
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                String line = decode(buffer, lineStart, lineEnd, chunk.start == 0 && lineStart == 0);
+                if (!line.isBlank()) {
+                    JobResultPage.Item item = processLine(line, jsonl, lineNumber);
+                    if (item.getError() != null) {
+                        failed.incrementAndGet();
+                    }
+                    out.write(objectMapper.writeValueAsBytes(item));
+                    out.write('\n');
+                    count++;
+                }
+                lineNumber++;
+                lineStart = lineEnd + 1;
+            }
+        }
+        Files.move(temp, part, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        processed.addAndGet(count);
+        log.info("第 {} 块完成: {} 条", chunk.index, count);
+    }
+
+    private JobResultPage.Item processLine(String line, boolean jsonl, long lineNumber) {
+        JobResultPage.Item.ItemBuilder item = JobResultPage.Item.builder();
+        try {
+            // 行号超出int范围时只有该行失败
+            item.index(Math.toIntExact(lineNumber));
+            NlpRequest request;
+            if (jsonl) {
+                request = objectMapper.readValue(line, NlpRequest.class);
+            } else {
+                request = new NlpRequest();
+                request.setKeyword(line);
+                request.setLanguage(config.getLanguage());
+            }
+            if (request.getKeyword() == null || request.getKeyword().isBlank()) {
+                throw new IllegalArgumentException("关键词不能为空");
+            }
+            if (request.getKeyword().length() > maxTextLength) {
+                throw new IllegalArgumentException("文本长度不能超过" + maxTextLength + "字符");
+            }
+            item.response(nlpService.process(request));
+        } catch (Exception e) {
+            item.error(e.getMessage());
+        }
+        return item.build();
+    }
+
+    private String decode(MappedByteBuffer buffer, int from, int to, boolean fileStart) {
+        int end = to > from && buffer.get(to - 1) == '\r' ? to - 1 : to;
+        int start = from;
+        // 跳过文件开头的UTF-8 BOM
+        if (fileStart && end - start >= 3 && buffer.get(start) == (byte) 0xEF
+                && buffer.get(start + 1) == (byte) 0xBB && buffer.get(start + 2) == (byte) 0xBF) {
+            start += 3;
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 按块的顺序合并结果，完成后删除检查点目录
+     */
+    private void merge(List<Chunk> chunks, Path partsDir, Path output) throws IOException {
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Chunk chunk : chunks) {
+                try (FileChannel in = FileChannel.open(partFile(partsDir, chunk), StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+        deleteDirectory(partsDir);
+    }
+
+    private Path partFile(Path partsDir, Chunk chunk) {
+        return partsDir.resolve(String.format("chunk-%06d.jsonl", chunk.index));
+    }
+
+    private boolean isJsonl(Path input) {
+        String format = config.getFormat();
+        if ("auto".equalsIgnoreCase(format)) {
+            String name = input.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".jsonl") || name.endsWith(".ndjson");
+        }
+        return "jsonl".equalsIgnoreCase(format);
+    }
+
+    private void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * 文件块 [start, end)，firstLine为块中第一行的行号（从0开始）
+     */
+    private record Chunk(int index, long start, long end, long firstLine) {
+    }
+}
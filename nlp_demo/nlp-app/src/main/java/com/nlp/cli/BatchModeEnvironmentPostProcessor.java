@@ -0,0 +1,41 @@
+package com.nlp.cli;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * 按解析后的配置判断是否为批量文件处理模式
+ *
+ * nlp.cli.input 可以来自命令行参数、系统属性、环境变量（NLP_CLI_INPUT）或配置文件，
+ * 在所有配置加载完成后检查，指定时不启动Web服务器，与 {@link BatchFileRunner} 的启用条件一致。
+ */
+public class BatchModeEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    static final String INPUT_PROPERTY = "nlp.cli.input";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (isBatchMode(environment)) {
+            environment.getPropertySources().addFirst(new MapPropertySource("nlpBatchMode",
+                    Map.of("spring.main.web-application-type", "none")));
+        }
+    }
+
+    /**
+     * 在配置文件加载之后执行
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    static boolean isBatchMode(ConfigurableEnvironment environment) {
+        String input = environment.getProperty(INPUT_PROPERTY);
+        return input != null && !"false".equalsIgnoreCase(input);
+    }
+}
@@ -0,0 +1,91 @@
+package com.nlp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlp.NlpEngine;
+import com.nlp.cache.AnnotationCache;
+import com.nlp.pipeline.LaneScheduler;
+import com.nlp.pipeline.ModelRegistry;
+import com.nlp.service.BatchService;
+import com.nlp.service.DedupService;
+import com.nlp.service.JobService;
+import com.nlp.service.NlpService;
+import com.nlp.service.SlowRequestSampler;
+import com.nlp.service.SpellCheckService;
+import com.nlp.service.TrendTracker;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * NLP配置类
+ *
+ * 处理逻辑都在 nlp-core 模块的 {@link NlpEngine} 中，这里只负责绑定配置、创建引擎，
+ * 并把引擎内的服务注册为Bean供控制器注入。各服务的生命周期由引擎统一管理，不单独注册销毁方法。
+ */
+@Configuration
+public class NlpConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "nlp")
+    public NlpProperties nlpProperties() {
+        return new NlpProperties();
+    }
+
+    @Bean(destroyMethod = "close")
+    public NlpEngine nlpEngine(NlpProperties nlpProperties, ObjectMapper objectMapper) {
+        return NlpEngine.builder()
+                .properties(nlpProperties)
+                .objectMapper(objectMapper)
+                .build();
+    }
+
+    @Bean(name = "modelRegistry", destroyMethod = "")
+    public ModelRegistry modelRegistry(NlpEngine nlpEngine) {
+        return nlpEngine.getModelRegistry();
+    }
+
+    @Bean(destroyMethod = "")
+    public LaneScheduler laneScheduler(NlpEngine nlpEngine) {
+        return nlpEngine.getLaneScheduler();
+    }
+
+    @Bean(destroyMethod = "")
+    public AnnotationCache annotationCache(NlpEngine nlpEngine) {
+        return nlpEngine.getAnnotationCache();
+    }
+
+    @Bean(destroyMethod = "")
+    public SlowRequestSampler slowRequestSampler(NlpEngine nlpEngine) {
+        return nlpEngine.getSlowRequestSampler();
+    }
+
+    @Bean(destroyMethod = "")
+    public TrendTracker trendTracker(NlpEngine nlpEngine) {
+        return nlpEngine.getTrendTracker();
+    }
+
+    @Bean(destroyMethod = "")
+    public SpellCheckService spellCheckService(NlpEngine nlpEngine) {
+        return nlpEngine.getSpellCheckService();
+    }
+
+    @Bean(destroyMethod = "")
+    public NlpService nlpService(NlpEngine nlpEngine) {
+        return nlpEngine.getNlpService();
+    }
+
+    @Bean(destroyMethod = "")
+    public DedupService dedupService(NlpEngine nlpEngine) {
+        return nlpEngine.getDedupService();
+    }
+
+    @Bean(destroyMethod = "")
+    public BatchService batchService(NlpEngine nlpEngine) {
+        return nlpEngine.getBatchService();
+    }
+
+    @Bean(destroyMethod = "")
+    public JobService jobService(NlpEngine nlpEngine) {
+        return nlpEngine.getJobService();
+    }
+}
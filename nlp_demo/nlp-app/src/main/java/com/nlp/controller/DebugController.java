@@ -0,0 +1,30 @@
+package com.nlp.controller;
+
+import com.nlp.service.SlowRequestSampler;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 诊断信息REST控制器
+ */
+@RestController
+@RequestMapping("/api/nlp/debug")
+@CrossOrigin(origins = "*")
+public class DebugController {
+
+    private final SlowRequestSampler slowRequestSampler;
+
+    public DebugController(SlowRequestSampler slowRequestSampler) {
+        this.slowRequestSampler = slowRequestSampler;
+    }
+
+    /**
+     * 最近的慢请求（输入指纹、长度、语言、启用的功能和各阶段耗时），按时间从新到旧排列
+     */
+    @GetMapping("/slow")
+    public ResponseEntity<Map<String, Object>> slowRequests(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(slowRequestSampler.snapshot(Math.max(1, limit)));
+    }
+}
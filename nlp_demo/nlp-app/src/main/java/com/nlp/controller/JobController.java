@@ -0,0 +1,85 @@
+package com.nlp.controller;
+
+import com.nlp.model.JobInfo;
+import com.nlp.model.JobResultPage;
+import com.nlp.model.JobSubmitRequest;
+import com.nlp.model.NlpRequest;
+import com.nlp.ratelimit.RateLimiter;
+import com.nlp.service.JobService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 异步任务REST控制器
+ */
+@RestController
+@RequestMapping("/api/nlp/jobs")
+@CrossOrigin(origins = "*")
+public class JobController {
+
+    private final JobService jobService;
+    private final RateLimiter rateLimiter;
+
+    public JobController(JobService jobService, RateLimiter rateLimiter) {
+        this.jobService = jobService;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * 提交任务
+     */
+    @PostMapping
+    public ResponseEntity<JobInfo> submit(@Valid @RequestBody JobSubmitRequest request, HttpServletRequest httpRequest) {
+        RateLimiter.Permit permit = rateLimiter.acquire(httpRequest, cost(request));
+        JobInfo info = jobService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).headers(permit.headers()).body(info);
+    }
+
+    /**
+     * 查询任务状态
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<JobInfo> status(@PathVariable String jobId) {
+        return ResponseEntity.ok(jobService.getStatus(jobId));
+    }
+
+    /**
+     * 分页获取任务结果
+     */
+    @GetMapping("/{jobId}/results")
+    public ResponseEntity<JobResultPage> results(@PathVariable String jobId,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(jobService.getResults(jobId, page, size));
+    }
+
+    /**
+     * 取消任务
+     */
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<JobInfo> cancel(@PathVariable String jobId) {
+        return ResponseEntity.ok(jobService.cancel(jobId));
+    }
+
+    /**
+     * 任务的成本为各子请求成本之和，长文档按一个全功能请求计算（成本与长度成正比，与切分方式无关）
+     */
+    private double cost(JobSubmitRequest request) {
+        List<NlpRequest> requests = new ArrayList<>();
+        if (request.getRequests() != null) {
+            requests.addAll(request.getRequests());
+        }
+        if (request.getDocument() != null) {
+            NlpRequest document = new NlpRequest();
+            document.setKeyword(request.getDocument());
+            requests.add(document);
+        }
+        return rateLimiter.cost(requests);
+    }
+}
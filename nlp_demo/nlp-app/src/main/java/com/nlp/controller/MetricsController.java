@@ -0,0 +1,87 @@
+package com.nlp.controller;
+
+import com.nlp.cache.AnnotationCache;
+import com.nlp.pipeline.LaneScheduler;
+import com.nlp.pipeline.ModelRegistry;
+import com.nlp.ratelimit.RateLimiter;
+import com.nlp.service.SpellCheckService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 运行时指标REST控制器
+ */
+@RestController
+@RequestMapping("/api/nlp/metrics")
+@CrossOrigin(origins = "*")
+public class MetricsController {
+
+    private final ModelRegistry modelRegistry;
+    private final SpellCheckService spellCheckService;
+    private final AnnotationCache annotationCache;
+    private final RateLimiter rateLimiter;
+    private final LaneScheduler laneScheduler;
+
+    public MetricsController(@Qualifier("modelRegistry") ModelRegistry modelRegistry,
+                             SpellCheckService spellCheckService,
+                             AnnotationCache annotationCache,
+                             RateLimiter rateLimiter,
+                             LaneScheduler laneScheduler) {
+        this.modelRegistry = modelRegistry;
+        this.spellCheckService = spellCheckService;
+        this.annotationCache = annotationCache;
+        this.rateLimiter = rateLimiter;
+        this.laneScheduler = laneScheduler;
+    }
+
+    /**
+     * CoreNLP管道池指标（实例数、借用等待延迟等），只包含当前常驻的语言
+     */
+    @GetMapping("/pipelines")
+    public ResponseEntity<Map<String, Object>> pipelines() {
+        return ResponseEntity.ok(modelRegistry.pipelineMetrics());
+    }
+
+    /**
+     * 语言模型注册表指标（常驻模型、加载次数、加载延迟、淘汰次数等）
+     */
+    @GetMapping("/models")
+    public ResponseEntity<Map<String, Object>> models() {
+        return ResponseEntity.ok(modelRegistry.metrics());
+    }
+
+    /**
+     * 拼写检查指标（各规则配置的检查延迟、采样得到的各规则耗时排行）
+     */
+    @GetMapping("/spell-check")
+    public ResponseEntity<Map<String, Object>> spellCheck(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(spellCheckService.metrics(Math.max(1, limit)));
+    }
+
+    /**
+     * 标注结果缓存指标（内存/磁盘命中次数、磁盘段数和占用）
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> cache() {
+        return ResponseEntity.ok(annotationCache.metrics());
+    }
+
+    /**
+     * 限流指标（各客户端的配额、剩余令牌、放行和拒绝的请求数及成本），用于调整配额
+     */
+    @GetMapping("/rate-limit")
+    public ResponseEntity<Map<String, Object>> rateLimit(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(rateLimiter.metrics(Math.max(1, limit)));
+    }
+
+    /**
+     * 请求类别调度指标（各队列的积压、运行数、拒绝数和排队延迟）
+     */
+    @GetMapping("/lanes")
+    public ResponseEntity<Map<String, Object>> lanes() {
+        return ResponseEntity.ok(laneScheduler.metrics());
+    }
+}
@@ -0,0 +1,339 @@
+package com.nlp.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlp.config.NlpProperties;
+import com.nlp.model.DedupResult;
+import com.nlp.model.NlpBatchRequest;
+import com.nlp.model.NlpBatchResponse;
+import com.nlp.model.NlpRequest;
+import com.nlp.model.NlpResponse;
+import com.nlp.pipeline.Deadline;
+import com.nlp.pipeline.Lane;
+import com.nlp.pipeline.LaneScheduler;
+import com.nlp.ratelimit.RateLimiter;
+import com.nlp.service.BatchService;
+import com.nlp.service.DedupService;
+import com.nlp.service.NlpService;
+import com.nlp.service.SpellCheckService;
+import com.nlp.service.TrendTracker;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * NLP REST控制器
+ *
+ * 请求按类别排队：批量接口默认为批量请求，其余接口默认为交互请求，可通过请求头（默认 X-NLP-Lane）指定；
+ * 处理时限可通过请求头（默认 X-NLP-Timeout-Ms）或请求体的timeoutMs指定，超过时限仍未得到结果时返回504
+ */
+@RestController
+@RequestMapping("/api/nlp")
+@CrossOrigin(origins = "*")
+public class NlpController {
+
+    private final NlpService nlpService;
+    private final DedupService dedupService;
+    private final BatchService batchService;
+    private final SpellCheckService spellCheckService;
+    private final RateLimiter rateLimiter;
+    private final LaneScheduler laneScheduler;
+    private final TrendTracker trendTracker;
+    private final String laneHeader;
+    private final String timeoutHeader;
+    private final ObjectMapper streamMapper;
+    private final Duration streamTimeout;
+
+    public NlpController(NlpService nlpService, DedupService dedupService, BatchService batchService,
+                         SpellCheckService spellCheckService, RateLimiter rateLimiter,
+                         LaneScheduler laneScheduler, TrendTracker trendTracker,
+                         ObjectMapper objectMapper, NlpProperties nlpProperties) {
+        this.nlpService = nlpService;
+        this.dedupService = dedupService;
+        this.batchService = batchService;
+        this.spellCheckService = spellCheckService;
+        this.rateLimiter = rateLimiter;
+        this.laneScheduler = laneScheduler;
+        this.trendTracker = trendTracker;
+        this.laneHeader = nlpProperties.getLanes().getHeader();
+        this.timeoutHeader = nlpProperties.getRequestTimeout().getHeader();
+        // 分阶段推送的结果只包含本阶段的字段，省略其余为null的字段
+        this.streamMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.streamTimeout = nlpProperties.getStreamTimeout();
+    }
+
+    /**
+     * NLP处理接口
+     */
+    @PostMapping("/process")
+    public ResponseEntity<NlpResponse> process(@Valid @RequestBody NlpRequest request, HttpServletRequest httpRequest) {
+        Lane lane = lane(httpRequest, Lane.INTERACTIVE);
+        Deadline deadline = deadline(httpRequest, request.getTimeoutMs());
+        RateLimiter.Permit permit = rateLimiter.acquire(httpRequest, rateLimiter.cost(request));
+        NlpResponse response = laneScheduler.call(lane, deadline, () -> nlpService.process(request, deadline));
+        return ResponseEntity.ok().headers(permit.headers()).body(response);
+    }
+
+    /**
+     * NLP处理接口（Server-Sent Events），每个阶段完成后立即推送该阶段的结果：
+     * language、tokens、emoji、normalization 先到，ner 和 spellCheck 并行处理、完成即推送，最后推送 done
+     */
+    @PostMapping(value = "/process/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> processStream(@Valid @RequestBody NlpRequest request, HttpServletRequest httpRequest) {
+        Lane lane = lane(httpRequest, Lane.INTERACTIVE);
+        Deadline deadline = deadline(httpRequest, request.getTimeoutMs());
+        RateLimiter.Permit permit = rateLimiter.acquire(httpRequest, rateLimiter.cost(request));
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        SseStageListener listener = new SseStageListener(emitter, streamMapper, deadline);
+        laneScheduler.run(lane, deadline, () -> nlpService.processStages(request, lane, deadline, listener));
+        return ResponseEntity.ok().headers(permit.headers()).body(emitter);
+    }
+
+    /**
+     * 快速分词接口
+     */
+    @PostMapping("/tokenize")
+    public ResponseEntity<Map<String, Object>> tokenize(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
+        NlpRequest nlpRequest = new NlpRequest();
+        nlpRequest.setKeyword(request.get("keyword"));
+        nlpRequest.setLanguage(request.getOrDefault("language", "auto"));
+        nlpRequest.setEnableAll(false);
+        nlpRequest.setEnableTokenization(true);
+        
+        Lane lane = lane(httpRequest, Lane.INTERACTIVE);
+        Deadline deadline = deadline(httpRequest, null);
+        RateLimiter.Permit permit = rateLimiter.acquire(httpRequest, rateLimiter.cost(nlpRequest));
+        NlpResponse response = laneScheduler.call(lane, deadline, () -> nlpService.process(nlpRequest, deadline));
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("tokens", response.getTokens());
+        result.put("tokenDetails", response.getTokenDetails());
+        
+        return ResponseEntity.ok().headers(permit.headers()).body(result);
+    }
+
+    /**
+     * 快速纠错接口
+     */
+    @PostMapping("/spell-check")
+    public ResponseEntity<NlpResponse.SpellCheckResult> spellCheck(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
+        NlpRequest nlpRequest = new NlpRequest();
+        nlpRequest.setKeyword(request.get("keyword"));
+        nlpRequest.setLanguage(request.getOrDefault("language", "auto"));
+        nlpRequest.setEnableAll(false);
+        nlpRequest.setEnableSpellCheck(true);
+        nlpRequest.setSpellCheckProfile(request.get("profile"));
+        
+        Lane lane = lane(httpRequest, Lane.INTERACTIVE);
+        Deadline deadline = deadline(httpRequest, null);
+        RateLimiter.Permit permit = rateLimiter.acquire(httpRequest, rateLimiter.cost(nlpRequest));
+        NlpResponse response = laneScheduler.call(lane, deadline, () -> nlpService.process(nlpRequest, deadline));
+        return ResponseEntity.ok().headers(permit.headers()).body(response.getSpellCheck());
+    }
+
+    /**
+     * 拼写检查规则配置列表
+     */
+    @GetMapping("/spell-check/profiles")
+    public ResponseEntity<Map<String, Object>> spellCheckProfiles() {
+        return ResponseEntity.ok(spellCheckService.listProfiles());
+    }
+
+    /**
+     * 立即重新加载拼写检查规则配置
+     */
+    @PostMapping("/spell-check/profiles/reload")
+    public ResponseEntity<Map<String, Object>> reloadSpellCheckProfiles() {
+        return ResponseEntity.ok(spellCheckService.reload());
+    }
+
+    /**
+     * 命名实体识别接口
+     */
+    @PostMapping("/ner")
+    public ResponseEntity<Map<String, Object>> ner(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
+        NlpRequest nlpRequest = new NlpRequest();
+        nlpRequest.setKeyword(request.get("keyword"));
+        nlpRequest.setLanguage(request.getOrDefault("language", "auto"));
+        nlpRequest.setEnableAll(false);
+        nlpRequest.setEnableNer(true);
+        
+        Lane lane = lane(httpRequest, Lane.INTERACTIVE);
+        Deadline deadline = deadline(httpRequest, null);
+        RateLimiter.Permit permit = rateLimiter.acquire(httpRequest, rateLimiter.cost(nlpRequest));
+        NlpResponse response = laneScheduler.call(lane, deadline, () -> nlpService.process(nlpRequest, deadline));
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("namedEntities", response.getNamedEntities());
+        
+        return ResponseEntity.ok().headers(permit.headers()).body(result);
+    }
+
+    /**
+     * 表情符号处理接口
+     */
+    @PostMapping("/emoji")
+    public ResponseEntity<NlpResponse.EmojiResult> processEmoji(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
+        NlpRequest nlpRequest = new NlpRequest();
+        nlpRequest.setKeyword(request.get("keyword"));
+        nlpRequest.setEnableAll(false);
+        nlpRequest.setEnableEmojiProcessing(true);
+        
+        Lane lane = lane(httpRequest, Lane.INTERACTIVE);
+        Deadline deadline = deadline(httpRequest, null);
+        RateLimiter.Permit permit = rateLimiter.acquire(httpRequest, rateLimiter.cost(nlpRequest));
+        NlpResponse response = laneScheduler.call(lane, deadline, () -> nlpService.process(nlpRequest, deadline));
+        return ResponseEntity.ok().headers(permit.headers()).body(response.getEmojiResult());
+    }
+
+    /**
+     * 近重复检测接口
+     */
+    @PostMapping("/dedup")
+    public ResponseEntity<DedupResult> dedup(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
+        String keyword = request.get("keyword");
+        if (keyword == null || keyword.isBlank()) {
+            throw new IllegalArgumentException("关键词不能为空");
+        }
+        boolean addToIndex = Boolean.parseBoolean(request.getOrDefault("addToIndex", "true"));
+
+        // 近重复检测只需要分词，按只分词的请求计算成本
+        NlpRequest costRequest = new NlpRequest();
+        costRequest.setKeyword(keyword);
+        costRequest.setEnableAll(false);
+        costRequest.setEnableTokenization(true);
+        Lane lane = lane(httpRequest, Lane.INTERACTIVE);
+        RateLimiter.Permit permit = rateLimiter.acquire(httpRequest, rateLimiter.cost(costRequest));
+
+        String language = request.getOrDefault("language", "auto");
+        DedupResult result = laneScheduler.call(lane, () -> dedupService.check(keyword, language, addToIndex));
+        return ResponseEntity.ok().headers(permit.headers()).body(result);
+    }
+
+    /**
+     * 批量处理接口（支持近重复文本去重）
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<NlpBatchResponse> batch(@Valid @RequestBody NlpBatchRequest request, HttpServletRequest httpRequest) {
+        Lane lane = lane(httpRequest, Lane.BULK);
+        Deadline deadline = deadline(httpRequest, null);
+        RateLimiter.Permit permit = rateLimiter.acquire(httpRequest, rateLimiter.cost(request.getRequests()));
+        NlpBatchResponse response = batchService.process(request, lane, deadline);
+        return ResponseEntity.ok().headers(permit.headers()).body(response);
+    }
+
+    /**
+     * 热门词接口：最近一段时间内出现次数最多（top）和相对更早时间上升最明显（trending）的关键词或命名实体
+     */
+    @GetMapping("/trends")
+    public ResponseEntity<Map<String, Object>> trends(@RequestParam(defaultValue = "keyword") String kind,
+                                                      @RequestParam(defaultValue = "15") int minutes,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        Map<String, Object> result = trendTracker.query(TrendTracker.Kind.parse(kind),
+                Duration.ofMinutes(Math.max(1, minutes)), Math.max(1, limit));
+        result.put("tracker", trendTracker.metrics());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 健康检查接口
+     */
+    @GetMapping("/health")
+    public ResponseEntity<Map<String, String>> health() {
+        Map<String, String> status = new HashMap<>();
+        status.put("status", "UP");
+        status.put("service", "NLP Service");
+        status.put("version", "1.0.0");
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * API帮助文档
+     */
+    @GetMapping("/help")
+    public ResponseEntity<Map<String, Object>> help() {
+        Map<String, Object> helpInfo = new HashMap<>();
+        helpInfo.put("service", "NLP工具服务");
+        helpInfo.put("version", "1.0.0");
+        
+        Map<String, String> endpoints = new HashMap<>();
+        endpoints.put("POST /api/nlp/process", "完整的NLP处理（所有功能）");
+        endpoints.put("POST /api/nlp/process/stream", "完整的NLP处理，按阶段以Server-Sent Events推送结果");
+        endpoints.put("POST /api/nlp/tokenize", "分词");
+        endpoints.put("POST /api/nlp/spell-check", "拼写纠错");
+        endpoints.put("GET /api/nlp/spell-check/profiles", "拼写检查规则配置列表");
+        endpoints.put("POST /api/nlp/spell-check/profiles/reload", "重新加载拼写检查规则配置");
+        endpoints.put("POST /api/nlp/ner", "命名实体识别");
+        endpoints.put("POST /api/nlp/emoji", "表情符号处理");
+        endpoints.put("POST /api/nlp/dedup", "近重复检测");
+        endpoints.put("POST /api/nlp/batch", "批量处理（支持近重复去重）");
+        endpoints.put("GET /api/nlp/trends", "最近一段时间的热门关键词和命名实体");
+        endpoints.put("POST /api/nlp/jobs", "提交异步任务");
+        endpoints.put("GET /api/nlp/jobs/{jobId}", "查询异步任务状态");
+        endpoints.put("GET /api/nlp/jobs/{jobId}/results", "分页获取异步任务结果");
+        endpoints.put("DELETE /api/nlp/jobs/{jobId}", "取消异步任务");
+        endpoints.put("GET /api/nlp/metrics/pipelines", "CoreNLP管道池指标");
+        endpoints.put("GET /api/nlp/metrics/models", "语言模型注册表指标");
+        endpoints.put("GET /api/nlp/metrics/spell-check", "拼写检查延迟及各规则耗时");
+        endpoints.put("GET /api/nlp/metrics/cache", "标注结果缓存命中率及磁盘占用");
+        endpoints.put("GET /api/nlp/metrics/rate-limit", "各客户端的限流配额和消耗");
+        endpoints.put("GET /api/nlp/metrics/lanes", "交互/批量请求队列的积压和排队延迟");
+        endpoints.put("GET /api/nlp/debug/slow", "最近的慢请求及各阶段耗时");
+        endpoints.put("GET /api/nlp/health", "健康检查");
+        endpoints.put("GET /api/nlp/help", "帮助文档");
+        
+        helpInfo.put("endpoints", endpoints);
+        
+        Map<String, Object> exampleRequest = new HashMap<>();
+        exampleRequest.put("keyword", "I can't believe it's raining today! 😊 Apple Inc. is located in California.");
+        exampleRequest.put("language", "auto");
+        exampleRequest.put("enableAll", true);
+        
+        helpInfo.put("exampleRequest", exampleRequest);
+        
+        Map<String, String> features = new HashMap<>();
+        features.put("tokenization", "分词（中英文）");
+        features.put("spellCheck", "拼写纠错");
+        features.put("normalization", "大小写归一化");
+        features.put("abbreviationExpansion", "缩写还原");
+        features.put("emojiProcessing", "表情符号处理");
+        features.put("ner", "命名实体识别");
+        
+        helpInfo.put("features", features);
+        
+        return ResponseEntity.ok(helpInfo);
+    }
+
+    /**
+     * 请求类别：请求头指定时以请求头为准，否则使用接口的默认类别
+     */
+    private Lane lane(HttpServletRequest httpRequest, Lane defaultLane) {
+        return Lane.parse(httpRequest.getHeader(laneHeader), defaultLane);
+    }
+
+    /**
+     * 处理时限：请求头和请求体都指定时取较小值，都未指定时使用默认配置
+     */
+    private Deadline deadline(HttpServletRequest httpRequest, Long requestTimeoutMs) {
+        String header = httpRequest.getHeader(timeoutHeader);
+        Long headerTimeoutMs = null;
+        if (header != null && !header.isBlank()) {
+            try {
+                headerTimeoutMs = Long.parseLong(header.trim());
+            } catch (NumberFormatException e) {
+                headerTimeoutMs = -1L;
+            }
+            if (headerTimeoutMs <= 0) {
+                throw new IllegalArgumentException(timeoutHeader + " 必须是大于0的毫秒数: " + header);
+            }
+        }
+        return nlpService.deadline(requestTimeoutMs, headerTimeoutMs);
+    }
+}
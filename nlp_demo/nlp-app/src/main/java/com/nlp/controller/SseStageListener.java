@@ -0,0 +1,78 @@
+package com.nlp.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlp.model.NlpResponse;
+import com.nlp.pipeline.Deadline;
+import com.nlp.service.NlpService;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 把分阶段处理的结果写成Server-Sent Events，事件名为阶段名，数据为该阶段的JSON结果
+ *
+ * 客户端断开或流超时时取消请求的deadline，尚未开始的阶段不再执行
+ */
+class SseStageListener implements NlpService.StageListener {
+
+    private final SseEmitter emitter;
+    private final ObjectMapper objectMapper;
+    private final Deadline deadline;
+    private volatile boolean closed;
+
+    SseStageListener(SseEmitter emitter, ObjectMapper objectMapper, Deadline deadline) {
+        this.emitter = emitter;
+        this.objectMapper = objectMapper;
+        this.deadline = deadline;
+        emitter.onCompletion(() -> closed = true);
+        emitter.onTimeout(this::abandon);
+        emitter.onError(e -> abandon());
+    }
+
+    @Override
+    public void onStage(String stage, NlpResponse result) {
+        send(stage, result);
+    }
+
+    @Override
+    public void onError(String stage, Exception error) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("status", "error");
+        data.put("stage", stage);
+        data.put("message", error.getMessage());
+        send("error", data);
+    }
+
+    @Override
+    public void onComplete(NlpResponse summary) {
+        send("done", summary);
+        if (!closed) {
+            emitter.complete();
+        }
+    }
+
+    private void send(String event, Object data) {
+        if (closed) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(event)
+                    .data(objectMapper.writeValueAsString(data), MediaType.APPLICATION_JSON));
+        } catch (JsonProcessingException e) {
+            emitter.completeWithError(e);
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开，后续阶段的结果直接丢弃
+            abandon();
+        }
+    }
+
+    private void abandon() {
+        closed = true;
+        deadline.cancel();
+    }
+}
@@ -0,0 +1,38 @@
+package com.nlp.exception;
+
+import lombok.Getter;
+
+/**
+ * 客户端的令牌不足以支付本次请求的成本时抛出
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    /**
+     * 桶容量
+     */
+    private final long limit;
+
+    /**
+     * 剩余令牌数
+     */
+    private final long remaining;
+
+    /**
+     * 本次请求的成本
+     */
+    private final double cost;
+
+    /**
+     * 建议的重试等待时间（秒）
+     */
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long limit, long remaining, double cost, long retryAfterSeconds) {
+        super(message);
+        this.limit = limit;
+        this.remaining = remaining;
+        this.cost = cost;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,237 @@
+package com.nlp.ratelimit;
+
+import com.nlp.config.NlpProperties;
+import com.nlp.exception.RateLimitExceededException;
+import com.nlp.model.NlpRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按客户端限流
+ *
+ * 客户端由请求头中的API Key识别，未携带或携带了未配置的Key时按客户端IP识别，避免随意构造Key绕过限流。
+ * 每个客户端一个 {@link TokenBucket}，请求按文本长度和启用的功能估算成本，长文本、全功能的请求消耗的令牌更多，
+ * 单个客户端的大请求不会挤占其他客户端的处理能力。
+ * 按IP识别的客户端数达到上限且没有可丢弃的空闲客户端时，新客户端共用一个按默认配额的令牌桶，内存占用有上界。
+ */
+@Component
+public class RateLimiter {
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String COST_HEADER = "X-RateLimit-Cost";
+
+    private final NlpProperties.RateLimit config;
+    private final ConcurrentHashMap<String, Client> clients = new ConcurrentHashMap<>();
+    private final Client overflow;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimiter(NlpProperties properties) {
+        this.config = properties.getRateLimit();
+        NlpProperties.RateLimit.Quota quota = config.getDefaultQuota();
+        this.overflow = new Client("overflow", quota.getCapacity(), quota.getRefillPerSecond(), false,
+                System.nanoTime());
+    }
+
+    /**
+     * 估算一个请求的成本
+     */
+    public double cost(NlpRequest request) {
+        NlpProperties.RateLimit.Cost weights = config.getCost();
+        Boolean enableAll = request.getEnableAll();
+        double weight = 0;
+        if (shouldEnable(enableAll, request.getEnableTokenization())) {
+            weight += weights.getTokenization();
+        }
+        if (shouldEnable(enableAll, request.getEnableNer())) {
+            weight += weights.getNer();
+        }
+        if (shouldEnable(enableAll, request.getEnableSpellCheck())) {
+            weight += weights.getSpellCheck();
+        }
+        if (shouldEnable(enableAll, request.getEnableNormalization())) {
+            weight += weights.getNormalization();
+        }
+        if (shouldEnable(enableAll, request.getEnableAbbreviationExpansion())) {
+            weight += weights.getAbbreviationExpansion();
+        }
+        if (shouldEnable(enableAll, request.getEnableEmojiProcessing())) {
+            weight += weights.getEmoji();
+        }
+        int length = request.getKeyword() != null ? request.getKeyword().length() : 0;
+        return weights.getBase() + (double) length / Math.max(1, weights.getUnitChars()) * weight;
+    }
+
+    /**
+     * 估算多个请求的总成本
+     */
+    public double cost(Collection<NlpRequest> requests) {
+        double total = 0;
+        for (NlpRequest request : requests) {
+            total += cost(request);
+        }
+        return total;
+    }
+
+    /**
+     * 为请求所属的客户端扣除cost个令牌
+     *
+     * @return 剩余额度，用于设置响应头
+     * @throws RateLimitExceededException 令牌不足
+     */
+    public Permit acquire(HttpServletRequest httpRequest, double cost) {
+        if (!config.isEnabled()) {
+            return Permit.UNLIMITED;
+        }
+        long now = System.nanoTime();
+        Client client = client(httpRequest, now);
+        TokenBucket.Result result = client.bucket.tryAcquire(cost, now);
+        long limit = (long) client.bucket.getCapacity();
+        if (!result.acquired()) {
+            client.rejected.increment();
+            client.rejectedCost.add(cost);
+            rejected.increment();
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(result.retryAfterNanos() + 999_999_999L));
+            throw new RateLimitExceededException("请求过于频繁，请在" + retryAfter + "秒后重试",
+                    limit, (long) result.remaining(), round(cost), retryAfter);
+        }
+        client.allowed.increment();
+        client.consumedCost.add(cost);
+        allowed.increment();
+        return new Permit(limit, (long) result.remaining(), cost);
+    }
+
+    /**
+     * 限流指标，按消耗的令牌数从多到少列出各客户端
+     */
+    public Map<String, Object> metrics(int limit) {
+        long now = System.nanoTime();
+        List<Client> snapshot = new ArrayList<>(clients.values());
+        if (overflow.allowed.sum() + overflow.rejected.sum() > 0) {
+            snapshot.add(overflow);
+        }
+        snapshot.sort(Comparator.comparingDouble((Client client) -> client.consumedCost.sum()).reversed());
+
+        List<Map<String, Object>> clientMetrics = new ArrayList<>();
+        for (Client client : snapshot.subList(0, Math.min(limit, snapshot.size()))) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("client", client.name);
+            item.put("capacity", client.bucket.getCapacity());
+            item.put("refillPerSecond", client.bucket.getRefillPerSecond());
+            item.put("available", round(client.bucket.available(now)));
+            item.put("allowed", client.allowed.sum());
+            item.put("rejected", client.rejected.sum());
+            item.put("consumedCost", round(client.consumedCost.sum()));
+            item.put("rejectedCost", round(client.rejectedCost.sum()));
+            clientMetrics.add(item);
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", config.isEnabled());
+        metrics.put("allowed", allowed.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("trackedClients", clients.size());
+        metrics.put("clients", clientMetrics);
+        return metrics;
+    }
+
+    private Client client(HttpServletRequest httpRequest, long now) {
+        String apiKey = httpRequest.getHeader(config.getApiKeyHeader());
+        NlpProperties.RateLimit.Quota quota = apiKey != null ? config.getClients().get(apiKey) : null;
+        String id;
+        String name;
+        if (quota != null) {
+            id = "key:" + apiKey;
+            name = "key:" + mask(apiKey);
+        } else {
+            quota = config.getDefaultQuota();
+            id = "ip:" + httpRequest.getRemoteAddr();
+            name = id;
+        }
+
+        Client client = clients.get(id);
+        if (client == null) {
+            if (clients.size() >= config.getMaxClients()) {
+                evictIdle(now);
+                // 配置了API Key的客户端数量由配置决定，总是单独计数
+                if (clients.size() >= config.getMaxClients() && !id.startsWith("key:")) {
+                    return overflow;
+                }
+            }
+            NlpProperties.RateLimit.Quota clientQuota = quota;
+            client = clients.computeIfAbsent(id, key -> new Client(name, clientQuota.getCapacity(),
+                    clientQuota.getRefillPerSecond(), key.startsWith("key:"), now));
+        }
+        return client;
+    }
+
+    /**
+     * 丢弃令牌已恢复满的按IP识别的客户端，配置了API Key的客户端一直保留，以便统计其消耗
+     */
+    private void evictIdle(long now) {
+        clients.entrySet().removeIf(entry -> !entry.getValue().configured && entry.getValue().bucket.isFull(now));
+    }
+
+    private static String mask(String apiKey) {
+        return apiKey.length() <= 4 ? "****" : apiKey.substring(0, 4) + "****";
+    }
+
+    private static boolean shouldEnable(Boolean enableAll, Boolean specificEnable) {
+        if (enableAll != null && enableAll) {
+            return true;
+        }
+        return specificEnable != null && specificEnable;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * 一次成功扣除令牌后的剩余额度
+     */
+    public record Permit(long limit, long remaining, double cost) {
+
+        /**
+         * 未启用限流时的额度，不输出响应头
+         */
+        public static final Permit UNLIMITED = new Permit(-1, -1, 0);
+
+        public HttpHeaders headers() {
+            HttpHeaders headers = new HttpHeaders();
+            if (limit < 0) {
+                return headers;
+            }
+            headers.set(LIMIT_HEADER, Long.toString(limit));
+            headers.set(REMAINING_HEADER, Long.toString(remaining));
+            headers.set(COST_HEADER, Double.toString(round(cost)));
+            return headers;
+        }
+    }
+
+    private static final class Client {
+
+        private final String name;
+        private final TokenBucket bucket;
+        private final boolean configured;
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final DoubleAdder consumedCost = new DoubleAdder();
+        private final DoubleAdder rejectedCost = new DoubleAdder();
+
+        private Client(String name, double capacity, double refillPerSecond, boolean configured, long now) {
+            this.name = name;
+            this.bucket = new TokenBucket(capacity, refillPerSecond, now);
+            this.configured = configured;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.nlp.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ *
+ * 状态只有一个原子长整数：令牌恢复到桶容量的时刻（纳秒）。取令牌时把该时刻向后推移 cost/refillPerSecond，
+ * 推移后距当前时刻超过整桶恢复时间即为令牌不足；更新通过CAS完成，并发请求之间不加锁。
+ * 成本超过桶容量的请求只在满桶时通过，并按实际成本扣除，令牌变为负数，恢复前的请求都会被拒绝。
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final double capacity;
+    private final double refillPerSecond;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double capacity, double refillPerSecond, long nowNanos) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("令牌桶容量和恢复速率必须大于0");
+        }
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.capacityNanos = toNanos(capacity);
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 尝试取出cost个令牌；满桶时任何请求都能通过，cost超过桶容量时令牌变为负数
+     *
+     * @return 取令牌的结果，不足时不扣减令牌
+     */
+    public Result tryAcquire(double cost, long nowNanos) {
+        long costNanos = toNanos(cost);
+        while (true) {
+            long current = fullAt.get();
+            long base = Math.max(current, nowNanos);
+            long next = base + costNanos;
+            long debt = next - nowNanos;
+            if (debt > capacityNanos && current > nowNanos) {
+                // 成本超过桶容量时等到满桶即可通过
+                long retryAfter = Math.min(debt - capacityNanos, base - nowNanos);
+                return new Result(false, toTokens(capacityNanos - (base - nowNanos)), retryAfter);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return new Result(true, toTokens(capacityNanos - debt), 0);
+            }
+        }
+    }
+
+    /**
+     * 当前剩余令牌数
+     */
+    public double available(long nowNanos) {
+        return toTokens(capacityNanos - Math.max(0, fullAt.get() - nowNanos));
+    }
+
+    /**
+     * 令牌是否已恢复满，满桶与新建的桶等价，可以丢弃
+     */
+    public boolean isFull(long nowNanos) {
+        return fullAt.get() <= nowNanos;
+    }
+
+    public double getCapacity() {
+        return capacity;
+    }
+
+    public double getRefillPerSecond() {
+        return refillPerSecond;
+    }
+
+    private long toNanos(double tokens) {
+        return (long) Math.ceil(tokens / refillPerSecond * NANOS_PER_SECOND);
+    }
+
+    private double toTokens(long nanos) {
+        return Math.max(0, nanos / NANOS_PER_SECOND * refillPerSecond);
+    }
+
+    /**
+     * 取令牌的结果
+     *
+     * @param acquired        是否取到
+     * @param remaining       取令牌后剩余的令牌数
+     * @param retryAfterNanos 未取到时，令牌恢复到足够数量还需要的时间
+     */
+    public record Result(boolean acquired, double remaining, long retryAfterNanos) {
+    }
+}
@@ -0,0 +1,298 @@
+package com.nlp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlp.cache.AnnotationCache;
+import com.nlp.config.NlpProperties;
+import com.nlp.model.DedupResult;
+import com.nlp.model.NlpBatchRequest;
+import com.nlp.model.NlpBatchResponse;
+import com.nlp.model.NlpRequest;
+import com.nlp.model.NlpResponse;
+import com.nlp.pipeline.Deadline;
+import com.nlp.pipeline.Lane;
+import com.nlp.pipeline.LaneScheduler;
+import com.nlp.pipeline.ModelRegistry;
+import com.nlp.service.BatchService;
+import com.nlp.service.DedupService;
+import com.nlp.service.JobService;
+import com.nlp.service.NlpService;
+import com.nlp.service.SlowRequestSampler;
+import com.nlp.service.SpellCheckService;
+import com.nlp.service.TrendTracker;
+import com.nlp.spell.ChineseSpellChecker;
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 可嵌入的NLP引擎
+ *
+ * 不依赖Spring，按配置创建模型注册表、调度器、线程池、缓存和各个服务，供其他JVM服务在进程内直接调用，
+ * 请求和结果都是普通Java对象，不经过序列化。所有方法线程安全，可以在多个线程间共享同一个实例。
+ * 使用完毕后调用 {@link #close()} 停止后台线程并关闭磁盘缓存：
+ * <pre>
+ * try (NlpEngine engine = NlpEngine.create(new NlpProperties())) {
+ *     NlpResponse response = engine.process(request);
+ * }
+ * </pre>
+ */
+public class NlpEngine implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(NlpEngine.class);
+
+    private final NlpProperties properties;
+    private final ModelRegistry modelRegistry;
+    private final ExecutorService taskExecutor;
+    private final LaneScheduler laneScheduler;
+    private final AnnotationCache annotationCache;
+    private final SlowRequestSampler slowRequestSampler;
+    private final TrendTracker trendTracker;
+    private final SpellCheckService spellCheckService;
+    private final ChineseSpellChecker chineseSpellChecker;
+    private final NlpService nlpService;
+    private final DedupService dedupService;
+    private final BatchService batchService;
+    private final JobService jobService;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private NlpEngine(NlpProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.modelRegistry = modelRegistry(properties);
+        this.taskExecutor = taskExecutor();
+        this.laneScheduler = new LaneScheduler(properties.getLanes());
+        this.annotationCache = new AnnotationCache(properties, objectMapper);
+        this.slowRequestSampler = new SlowRequestSampler(properties);
+        this.trendTracker = new TrendTracker(properties);
+        this.spellCheckService = new SpellCheckService(objectMapper, properties, taskExecutor);
+        this.chineseSpellChecker = new ChineseSpellChecker(properties);
+        this.nlpService = new NlpService(modelRegistry, englishTokenizer(), taskExecutor, laneScheduler, spellCheckService,
+                chineseSpellChecker, annotationCache, slowRequestSampler, trendTracker, properties);
+        this.dedupService = new DedupService(nlpService, properties);
+        this.batchService = new BatchService(nlpService, laneScheduler, dedupService, properties);
+        this.jobService = new JobService(nlpService, laneScheduler, objectMapper, properties);
+    }
+
+    /**
+     * 按配置创建引擎，使用默认的ObjectMapper
+     */
+    public static NlpEngine create(NlpProperties properties) {
+        return builder().properties(properties).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 处理单条文本（交互请求）
+     */
+    public NlpResponse process(NlpRequest request) {
+        return process(request, Lane.INTERACTIVE);
+    }
+
+    /**
+     * 在指定类别的队列中排队处理单条文本，处理时限取自请求的timeoutMs或默认配置
+     */
+    public NlpResponse process(NlpRequest request, Lane lane) {
+        return process(request, lane, nlpService.deadline(request.getTimeoutMs(), null));
+    }
+
+    /**
+     * 在截止时间内处理单条文本；调用方放弃时可取消deadline，尚未开始的阶段不再执行
+     */
+    public NlpResponse process(NlpRequest request, Lane lane, Deadline deadline) {
+        return laneScheduler.call(lane, deadline, () -> nlpService.process(request, deadline));
+    }
+
+    /**
+     * 分阶段处理单条文本，每个阶段完成后立即回调
+     */
+    public void processStages(NlpRequest request, NlpService.StageListener listener) {
+        Deadline deadline = nlpService.deadline(request.getTimeoutMs(), null);
+        laneScheduler.run(Lane.INTERACTIVE, deadline, () -> nlpService.processStages(request, Lane.INTERACTIVE, deadline, listener));
+    }
+
+    /**
+     * 批量处理（批量请求）
+     */
+    public NlpBatchResponse batch(NlpBatchRequest request) {
+        return batchService.process(request);
+    }
+
+    /**
+     * 近重复检测
+     */
+    public DedupResult dedup(String text, String language, boolean addToIndex) {
+        return laneScheduler.call(Lane.INTERACTIVE, () -> dedupService.check(text, language, addToIndex));
+    }
+
+    public NlpProperties getProperties() {
+        return properties;
+    }
+
+    public ModelRegistry getModelRegistry() {
+        return modelRegistry;
+    }
+
+    public LaneScheduler getLaneScheduler() {
+        return laneScheduler;
+    }
+
+    public AnnotationCache getAnnotationCache() {
+        return annotationCache;
+    }
+
+    public SlowRequestSampler getSlowRequestSampler() {
+        return slowRequestSampler;
+    }
+
+    public TrendTracker getTrendTracker() {
+        return trendTracker;
+    }
+
+    public SpellCheckService getSpellCheckService() {
+        return spellCheckService;
+    }
+
+    public NlpService getNlpService() {
+        return nlpService;
+    }
+
+    public DedupService getDedupService() {
+        return dedupService;
+    }
+
+    public BatchService getBatchService() {
+        return batchService;
+    }
+
+    public JobService getJobService() {
+        return jobService;
+    }
+
+    /**
+     * 停止后台任务和线程池并关闭磁盘缓存，重复调用无效果
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        jobService.shutdown();
+        laneScheduler.close();
+        spellCheckService.shutdown();
+        trendTracker.close();
+        taskExecutor.shutdown();
+        try {
+            if (!taskExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                taskExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            taskExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        try {
+            annotationCache.close();
+        } catch (IOException e) {
+            log.warn("关闭标注缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 语言模型注册表
+     * 各语言的CoreNLP管道池和LanguageTool实例按需加载，超出内存预算时卸载最近最少使用的语言
+     */
+    private static ModelRegistry modelRegistry(NlpProperties properties) {
+        NlpProperties.Models config = properties.getModels();
+        if (config.getLanguages().isEmpty()) {
+            config.getLanguages().putAll(defaultLanguageModels());
+        }
+        ModelRegistry registry = new ModelRegistry(config, properties.getPipelinePool());
+        registry.preload(config.getPreload());
+        return registry;
+    }
+
+    /**
+     * Stanford CoreNLP - 英文分词（仅tokenize，用于只需要分词结果的场景）
+     */
+    private static StanfordCoreNLP englishTokenizer() {
+        Properties props = new Properties();
+        props.setProperty("annotators", "tokenize");
+        props.setProperty("tokenize.language", "en");
+        return new StanfordCoreNLP(props);
+    }
+
+    /**
+     * NLP任务线程池，用于同一请求内可并行的处理（如混排文本的中英文段）
+     */
+    private static ExecutorService taskExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "nlp-task-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 内置的语言模型配置：英文使用CoreNLP完整管道和LanguageTool，中文分词和NER由HanLP完成，只加载LanguageTool
+     */
+    private static Map<String, NlpProperties.LanguageModel> defaultLanguageModels() {
+        NlpProperties.LanguageModel english = new NlpProperties.LanguageModel();
+        english.setEstimatedMb(1500);
+        english.setLanguageTool("en-US");
+        english.getCorenlp().put("annotators", "tokenize,ssplit,pos,lemma,ner");
+        english.getCorenlp().put("tokenize.language", "en");
+        english.getCorenlp().put("ner.useSUTime", "false");
+
+        NlpProperties.LanguageModel chinese = new NlpProperties.LanguageModel();
+        chinese.setEstimatedMb(200);
+        chinese.setLanguageTool("zh-CN");
+
+        Map<String, NlpProperties.LanguageModel> models = new LinkedHashMap<>();
+        models.put("en", english);
+        models.put("zh", chinese);
+        return models;
+    }
+
+    /**
+     * 引擎构建器
+     */
+    public static class Builder {
+
+        private NlpProperties properties = new NlpProperties();
+        private ObjectMapper objectMapper;
+
+        private Builder() {
+        }
+
+        public Builder properties(NlpProperties properties) {
+            this.properties = Objects.requireNonNull(properties, "properties");
+            return this;
+        }
+
+        /**
+         * 缓存和任务结果序列化使用的ObjectMapper，未指定时创建一个注册了全部可发现模块的实例
+         */
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
+            return this;
+        }
+
+        public NlpEngine build() {
+            ObjectMapper mapper = objectMapper != null ? objectMapper : new ObjectMapper().findAndRegisterModules();
+            return new NlpEngine(properties, mapper);
+        }
+    }
+}
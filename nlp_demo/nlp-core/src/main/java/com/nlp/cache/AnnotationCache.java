@@ -0,0 +1,199 @@
+package com.nlp.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlp.config.NlpProperties;
+import com.nlp.jfr.CacheLookupEvent;
+import com.nlp.util.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 两级标注结果缓存
+ *
+ * 第一级是进程内的LRU缓存，保存已还原的对象；第二级是 {@link DiskCache}，保存序列化后的结果，重启后仍然有效。
+ * 键由命名空间和文本的128位哈希组成，每条记录带有生成它时的配置版本号，
+ * 调用方传入的版本号由模型配置、规则配置和依赖库版本计算得出，配置变化后旧记录自动失效。
+ */
+public class AnnotationCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AnnotationCache.class);
+
+    private static final long KEY_SEED = 0x5bd1e9955bd1e995L;
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final Map<MemoryKey, Object> memory;
+    private final DiskCache disk;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong decodeFailures = new AtomicLong();
+
+    public AnnotationCache(NlpProperties properties, ObjectMapper objectMapper) {
+        NlpProperties.Cache config = properties.getCache();
+        this.enabled = properties.isEnableCache();
+        this.objectMapper = objectMapper;
+
+        int maxEntries = config.getMemoryMaxEntries();
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MemoryKey, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        DiskCache diskCache = null;
+        if (enabled && config.getDisk().isEnabled()) {
+            NlpProperties.Cache.Disk diskConfig = config.getDisk();
+            try {
+                diskCache = new DiskCache(Paths.get(diskConfig.getDirectory()),
+                        Math.toIntExact(diskConfig.getSegmentSizeMb() * 1024 * 1024),
+                        diskConfig.getMaxSizeMb() * 1024 * 1024,
+                        diskConfig.getCompactionThreshold());
+            } catch (IOException | RuntimeException e) {
+                // 磁盘缓存不可用时只使用内存缓存，不影响服务启动
+                log.warn("磁盘缓存不可用，只使用内存缓存: {}", e.getMessage());
+            }
+        }
+        this.disk = diskCache;
+    }
+
+    public void close() throws IOException {
+        if (disk != null) {
+            disk.close();
+        }
+    }
+
+    /**
+     * 依次查找内存和磁盘缓存，都未命中时计算并写入两级缓存
+     *
+     * @param namespace 命名空间，区分不同类型的结果（同一文本的分词结果和拼写检查结果互不影响）
+     * @param text      输入文本
+     * @param version   生成结果所用配置的版本号
+     */
+    public <T> T getOrCompute(String namespace, String text, long version, Codec<T> codec, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        String keyText = namespace + '\u0000' + text;
+        DiskCache.Key key = new DiskCache.Key(Hashing.fnv1a64(keyText), Hashing.hash64(keyText, KEY_SEED));
+        MemoryKey memoryKey = new MemoryKey(key, version);
+
+        Object cached;
+        synchronized (memory) {
+            cached = memory.get(memoryKey);
+        }
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            commit(event, namespace, text, "memory");
+            @SuppressWarnings("unchecked")
+            T value = (T) cached;
+            return value;
+        }
+
+        if (disk != null) {
+            byte[] data = disk.get(key, version);
+            if (data != null) {
+                try {
+                    T value = codec.decode(text, data);
+                    diskHits.incrementAndGet();
+                    remember(memoryKey, value);
+                    commit(event, namespace, text, "disk");
+                    return value;
+                } catch (IOException | RuntimeException e) {
+                    decodeFailures.incrementAndGet();
+                    log.debug("缓存记录无法还原，重新计算: {}", e.getMessage());
+                }
+            }
+        }
+
+        misses.incrementAndGet();
+        commit(event, namespace, text, "miss");
+        T value = loader.get();
+        remember(memoryKey, value);
+        if (disk != null) {
+            try {
+                disk.put(key, version, codec.encode(value));
+            } catch (IOException | RuntimeException e) {
+                log.warn("写入磁盘缓存失败: {}", e.getMessage());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 使用JSON序列化的编解码器
+     */
+    public <T> Codec<T> jsonCodec(Class<T> type) {
+        return new Codec<>() {
+            @Override
+            public byte[] encode(T value) throws IOException {
+                return objectMapper.writeValueAsBytes(value);
+            }
+
+            @Override
+            public T decode(String text, byte[] data) throws IOException {
+                return objectMapper.readValue(data, type);
+            }
+        };
+    }
+
+    /**
+     * 缓存指标
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        synchronized (memory) {
+            metrics.put("memoryEntries", memory.size());
+        }
+        metrics.put("memoryHits", memoryHits.get());
+        metrics.put("diskHits", diskHits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("decodeFailures", decodeFailures.get());
+        metrics.put("disk", disk != null ? disk.metrics() : null);
+        return metrics;
+    }
+
+    private static void commit(CacheLookupEvent event, String namespace, String text, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.namespace = namespace;
+            event.textLength = text.length();
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    private void remember(MemoryKey key, Object value) {
+        synchronized (memory) {
+            memory.put(key, value);
+        }
+    }
+
+    /**
+     * 缓存值的序列化方式
+     */
+    public interface Codec<T> {
+
+        byte[] encode(T value) throws IOException;
+
+        /**
+         * 还原缓存值，text为对应的输入文本
+         */
+        T decode(String text, byte[] data) throws IOException;
+    }
+
+    private record MemoryKey(DiskCache.Key key, long version) {
+    }
+}
@@ -0,0 +1,348 @@
+package com.nlp.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射文件的日志结构磁盘缓存
+ *
+ * 数据按追加方式写入固定大小的段文件（segment-N.log），每条记录带CRC校验；键到记录位置的索引只保存在内存中，
+ * 启动时顺序扫描所有段重建，遇到校验失败（如进程在写入中途退出）即停止扫描该段。
+ * 同一个键再次写入或读取时发现版本过期，旧记录即成为无效数据。写满一个段后切换到新段，此时：
+ * - 有效数据比例低于compactionThreshold的旧段会被压缩：有效记录复制到当前段后删除旧段；
+ * - 所有段已写入的总字节数超过maxBytes时，从最旧的段开始删除。
+ */
+public class DiskCache implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(DiskCache.class);
+
+    private static final int MAGIC = 0x4E4C5043;
+    /**
+     * 记录头：magic(4) crc(4) keyHi(8) keyLo(8) version(8) length(4)，CRC覆盖magic和crc之后的全部内容
+     */
+    private static final int HEADER = 36;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxBytes;
+    private final double compactionThreshold;
+
+    private final Map<Key, Location> index = new HashMap<>();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long nextSegmentId;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private long evictedSegments;
+    private long compactedSegments;
+    private long recoveredEntries;
+
+    public DiskCache(Path directory, int segmentSize, long maxBytes, double compactionThreshold) throws IOException {
+        if (segmentSize <= HEADER || maxBytes < segmentSize) {
+            throw new IllegalArgumentException("磁盘缓存大小配置不合法: segmentSize=" + segmentSize + ", maxBytes=" + maxBytes);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxBytes = maxBytes;
+        this.compactionThreshold = compactionThreshold;
+
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> segmentId(path) >= 0)
+                    .sorted(Comparator.comparingLong(DiskCache::segmentId))
+                    .toList();
+        }
+        for (Path file : files) {
+            Segment segment = openSegment(segmentId(file), file);
+            recover(segment);
+            segments.addLast(segment);
+            nextSegmentId = segment.id + 1;
+        }
+        if (segments.isEmpty()) {
+            segments.addLast(newSegment());
+        }
+        log.info("磁盘缓存已加载: {}，{} 个段，{} 条记录", directory, segments.size(), index.size());
+    }
+
+    /**
+     * 读取指定键的数据，不存在或版本不一致时返回null
+     */
+    public byte[] get(Key key, long version) {
+        Location stale;
+        lock.readLock().lock();
+        try {
+            Location location = index.get(key);
+            if (location != null && location.version == version) {
+                byte[] payload = new byte[location.length];
+                location.segment.buffer.get(location.offset + HEADER, payload);
+                hits.incrementAndGet();
+                return payload;
+            }
+            misses.incrementAndGet();
+            if (location == null) {
+                return null;
+            }
+            stale = location;
+        } finally {
+            lock.readLock().unlock();
+        }
+        invalidate(key, stale);
+        return null;
+    }
+
+    /**
+     * 写入数据，覆盖同一个键的旧记录；超过单个段容量的数据不缓存
+     */
+    public void put(Key key, long version, byte[] payload) {
+        int size = HEADER + payload.length;
+        if (size > segmentSize) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (segments.getLast().remaining() < size) {
+                roll();
+            }
+            append(key, version, payload);
+            writes.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入磁盘缓存失败", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 缓存指标
+     */
+    public Map<String, Object> metrics() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("directory", directory.toString());
+            metrics.put("entries", index.size());
+            metrics.put("segments", segments.size());
+            metrics.put("usedBytes", usedBytes());
+            metrics.put("liveBytes", segments.stream().mapToLong(segment -> segment.liveBytes).sum());
+            metrics.put("maxBytes", maxBytes);
+            metrics.put("hits", hits.get());
+            metrics.put("misses", misses.get());
+            metrics.put("writes", writes.get());
+            metrics.put("evictedSegments", evictedSegments);
+            metrics.put("compactedSegments", compactedSegments);
+            metrics.put("recoveredEntries", recoveredEntries);
+            return metrics;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(Key key, long version, byte[] payload) {
+        Segment segment = segments.getLast();
+        int offset = segment.writePosition;
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putLong(offset + 8, key.hi());
+        buffer.putLong(offset + 16, key.lo());
+        buffer.putLong(offset + 24, version);
+        buffer.putInt(offset + 32, payload.length);
+        buffer.put(offset + HEADER, payload);
+        buffer.putInt(offset + 4, crc(buffer, offset, payload.length));
+        // magic最后写入，进程中途退出时未写完的记录不会被当作有效记录
+        buffer.putInt(offset, MAGIC);
+        segment.writePosition += HEADER + payload.length;
+        index(key, new Location(segment, offset, payload.length, version));
+    }
+
+    /**
+     * 版本过期的记录移出索引，所在段的有效数据随之减少，压缩时不再复制；期间已被覆盖时不做处理
+     */
+    private void invalidate(Key key, Location stale) {
+        lock.writeLock().lock();
+        try {
+            if (index.remove(key, stale)) {
+                stale.segment.liveBytes -= HEADER + stale.length;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Key key, Location location) {
+        Location previous = index.put(key, location);
+        if (previous != null) {
+            previous.segment.liveBytes -= HEADER + previous.length;
+        }
+        location.segment.liveBytes += HEADER + location.length;
+    }
+
+    /**
+     * 切换到新段，然后压缩有效数据比例低的旧段、删除超出容量的最旧段
+     */
+    private void roll() throws IOException {
+        segments.getLast().buffer.force();
+        segments.addLast(newSegment());
+
+        for (Segment segment : new ArrayList<>(segments)) {
+            if (segment == segments.getLast() || segment.writePosition == 0) {
+                continue;
+            }
+            double liveRatio = (double) segment.liveBytes / segment.writePosition;
+            if (liveRatio < compactionThreshold && segment.liveBytes <= segments.getLast().remaining()) {
+                compact(segment);
+            }
+        }
+        while (usedBytes() > maxBytes && segments.size() > 1) {
+            drop(segments.getFirst());
+            evictedSegments++;
+        }
+    }
+
+    private void compact(Segment segment) throws IOException {
+        List<Map.Entry<Key, Location>> live = new ArrayList<>();
+        for (Map.Entry<Key, Location> entry : index.entrySet()) {
+            if (entry.getValue().segment == segment) {
+                live.add(entry);
+            }
+        }
+        for (Map.Entry<Key, Location> entry : live) {
+            Location location = entry.getValue();
+            byte[] payload = new byte[location.length];
+            segment.buffer.get(location.offset + HEADER, payload);
+            append(entry.getKey(), location.version, payload);
+        }
+        drop(segment);
+        compactedSegments++;
+    }
+
+    private void drop(Segment segment) throws IOException {
+        index.values().removeIf(location -> location.segment == segment);
+        segments.remove(segment);
+        // 映射要等GC时才释放，先截断文件使磁盘空间立即归还；索引中已无指向该段的记录，不会再被读取
+        segment.channel.truncate(0);
+        segment.channel.close();
+        Files.deleteIfExists(segment.path);
+    }
+
+    /**
+     * 扫描段内的有效记录并加入索引
+     */
+    private void recover(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        int limit = buffer.capacity();
+        while (position + HEADER <= limit && buffer.getInt(position) == MAGIC) {
+            int length = buffer.getInt(position + 32);
+            if (length < 0 || position + HEADER + length > limit
+                    || buffer.getInt(position + 4) != crc(buffer, position, length)) {
+                log.warn("磁盘缓存段 {} 在偏移 {} 处校验失败，忽略之后的内容", segment.path, position);
+                break;
+            }
+            Key key = new Key(buffer.getLong(position + 8), buffer.getLong(position + 16));
+            index(key, new Location(segment, position, length, buffer.getLong(position + 24)));
+            recoveredEntries++;
+            position += HEADER + length;
+        }
+        segment.writePosition = position;
+    }
+
+    private int crc(MappedByteBuffer buffer, int offset, int payloadLength) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + 8, HEADER - 8 + payloadLength));
+        return (int) crc.getValue();
+    }
+
+    private long usedBytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.writePosition;
+        }
+        return total;
+    }
+
+    private Segment newSegment() throws IOException {
+        long id = nextSegmentId++;
+        return openSegment(id, directory.resolve(String.format("segment-%06d.log", id)));
+    }
+
+    private Segment openSegment(long id, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // 新建的段预留segmentSize（稀疏文件，只有写入的部分占用磁盘）
+        long size = Math.max(channel.size(), segmentSize);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new Segment(id, path, channel, buffer);
+    }
+
+    private static long segmentId(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith("segment-") || !name.endsWith(".log")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(8, name.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 128位缓存键
+     */
+    public record Key(long hi, long lo) {
+    }
+
+    private record Location(Segment segment, int offset, int length, long version) {
+    }
+
+    private static final class Segment {
+
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private long liveBytes;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+    }
+}
@@ -0,0 +1,669 @@
+package com.nlp.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NLP配置属性（对应 application.yml 中的 nlp 前缀）
+ */
+@Data
+public class NlpProperties {
+
+    /**
+     * 语言检测阈值
+     */
+    private double languageDetectionThreshold = 0.5;
+
+    /**
+     * 是否启用缓存
+     */
+    private boolean enableCache = true;
+
+    /**
+     * 最大文本长度
+     */
+    private int maxTextLength = 10000;
+
+    /**
+     * 分阶段推送（Server-Sent Events）的最长持续时间
+     */
+    private Duration streamTimeout = Duration.ofSeconds(60);
+
+    /**
+     * 近重复检测配置
+     */
+    private Dedup dedup = new Dedup();
+
+    /**
+     * 异步任务配置
+     */
+    private Job job = new Job();
+
+    /**
+     * CoreNLP管道池配置
+     */
+    private PipelinePool pipelinePool = new PipelinePool();
+
+    /**
+     * 语言模型注册表配置
+     */
+    private Models models = new Models();
+
+    /**
+     * 中英文混排处理配置
+     */
+    private MixedScript mixedScript = new MixedScript();
+
+    /**
+     * 拼写检查配置
+     */
+    private SpellCheck spellCheck = new SpellCheck();
+
+    /**
+     * 标注结果缓存配置（enableCache为false时整体关闭）
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * 慢请求采样配置
+     */
+    private SlowRequests slowRequests = new SlowRequests();
+
+    /**
+     * 批量文件处理（命令行模式）配置
+     */
+    private Cli cli = new Cli();
+
+    /**
+     * 按客户端限流配置
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * 请求类别（交互/批量）调度配置
+     */
+    private Lanes lanes = new Lanes();
+
+    /**
+     * 请求处理时限配置
+     */
+    private RequestTimeout requestTimeout = new RequestTimeout();
+
+    /**
+     * 热门词统计配置
+     */
+    private Trends trends = new Trends();
+
+    /**
+     * 近重复检测配置
+     */
+    @Data
+    public static class Dedup {
+
+        /**
+         * SimHash判定为近重复的最大汉明距离
+         */
+        private int simhashMaxDistance = 3;
+
+        /**
+         * MinHash LSH分桶数
+         */
+        private int minhashBands = 16;
+
+        /**
+         * MinHash LSH每个分桶的行数
+         */
+        private int minhashRows = 4;
+
+        /**
+         * MinHash shingle长度（按词计）
+         */
+        private int shingleSize = 2;
+
+        /**
+         * 判定为近重复的最小Jaccard相似度
+         */
+        private double jaccardThreshold = 0.8;
+
+        /**
+         * 索引最多保存的文档数，超出后淘汰最早加入的文档
+         */
+        private int maxEntries = 100000;
+
+        /**
+         * 单次查询最多返回的候选数
+         */
+        private int maxCandidates = 10;
+
+        /**
+         * 批量处理时是否将非重复文本加入全局索引
+         */
+        private boolean indexBatchItems = true;
+    }
+
+    /**
+     * 异步任务配置
+     */
+    @Data
+    public static class Job {
+
+        /**
+         * 任务工作线程数，0表示按CPU核数的1/4自动计算，避免挤占在线请求
+         */
+        private int workers = 0;
+
+        /**
+         * 最多排队（未开始）的任务数
+         */
+        private int maxQueuedJobs = 100;
+
+        /**
+         * 结果文件目录
+         */
+        private String storageDir = System.getProperty("java.io.tmpdir") + "/nlp-jobs";
+
+        /**
+         * 任务结束后结果的保留时长
+         */
+        private Duration retention = Duration.ofHours(1);
+
+        /**
+         * 分页查询单页最大条数
+         */
+        private int maxPageSize = 500;
+
+        /**
+         * 长文档最大长度
+         */
+        private int maxDocumentLength = 2_000_000;
+    }
+
+    /**
+     * CoreNLP管道池配置
+     */
+    @Data
+    public static class PipelinePool {
+
+        /**
+         * 最大实例数，0表示与CPU核数相同
+         */
+        private int maxSize = 0;
+
+        /**
+         * 启动时预先创建的实例数
+         */
+        private int minSize = 1;
+
+        /**
+         * 借用管道的最长等待时间
+         */
+        private Duration borrowTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 在所有实例间共享的只读标注器
+         */
+        private List<String> sharedAnnotators = new ArrayList<>(List.of("tokenize", "ssplit", "pos", "lemma"));
+    }
+
+    /**
+     * 语言模型注册表配置
+     */
+    @Data
+    public static class Models {
+
+        /**
+         * 常驻模型的内存预算（MB），按各语言的估算占用累计
+         */
+        private long memoryBudgetMb = 3072;
+
+        /**
+         * 未配置模型的语言回退使用的语言
+         */
+        private String defaultLanguage = "en";
+
+        /**
+         * 启动时预先加载的语言
+         */
+        private List<String> preload = new ArrayList<>(List.of("en"));
+
+        /**
+         * 各语言的模型配置，未配置时使用内置的en和zh配置
+         */
+        private Map<String, LanguageModel> languages = new LinkedHashMap<>();
+    }
+
+    /**
+     * 单个语言的模型配置
+     */
+    @Data
+    public static class LanguageModel {
+
+        /**
+         * 估算的内存占用（MB）
+         */
+        private long estimatedMb = 500;
+
+        /**
+         * 是否常驻内存，不参与淘汰
+         */
+        private boolean pinned = false;
+
+        /**
+         * LanguageTool语言代码（如 en-US、zh-CN、de-DE），为空表示不做拼写检查
+         */
+        private String languageTool;
+
+        /**
+         * CoreNLP配置文件（classpath资源，如 StanfordCoreNLP-german.properties）
+         */
+        private String corenlpPropertiesFile;
+
+        /**
+         * CoreNLP配置项，覆盖配置文件中的同名项；配置文件和配置项都为空表示不创建管道
+         */
+        private Map<String, String> corenlp = new LinkedHashMap<>();
+    }
+
+    /**
+     * 中英文混排处理配置
+     */
+    @Data
+    public static class MixedScript {
+
+        /**
+         * 自动检测语言时是否按文字脚本切分混排文本，中文段和英文段分别交给HanLP和CoreNLP处理
+         */
+        private boolean enabled = true;
+
+        /**
+         * 拉丁字母数少于该值的英文片段留在所在的中文段中
+         */
+        private int minLatinLetters = 2;
+
+        /**
+         * 中文段和英文段的总长度都达到该值时并行处理，较短的文本线程切换的开销大于收益
+         */
+        private int parallelMinLength = 2000;
+    }
+
+    /**
+     * 拼写检查配置
+     */
+    @Data
+    public static class SpellCheck {
+
+        /**
+         * 规则配置文件路径，为空时使用内置的 spell-check-profiles.json
+         */
+        private String profilesFile = "";
+
+        /**
+         * 检查规则配置文件是否修改的间隔，0表示只在启动时加载
+         */
+        private Duration reloadInterval = Duration.ofSeconds(10);
+
+        /**
+         * 逐条规则计时的请求采样率（0~1），0表示关闭
+         */
+        private double ruleSampleRate = 0.01;
+
+        /**
+         * 中文拼写检查配置
+         */
+        private Chinese chinese = new Chinese();
+
+        /**
+         * 中文拼写检查配置
+         */
+        @Data
+        public static class Chinese {
+
+            /**
+             * 检查引擎：confusion（同音/形近字混淆集加HanLP语言模型打分）或languagetool
+             */
+            private String engine = "confusion";
+
+            /**
+             * 形近字混淆集文件路径，为空时使用内置的 zh-similar-glyphs.txt
+             */
+            private String glyphFile = "";
+
+            /**
+             * 是否把模糊音（z/zh、c/ch、s/sh、n/l、an/ang、en/eng、in/ing）视为同音
+             */
+            private boolean fuzzyPinyin = true;
+
+            /**
+             * 替换后的词在词典中的最低词频
+             */
+            private int minWordFrequency = 5;
+
+            /**
+             * 替换后局部路径的语言模型代价（负对数概率）至少降低该值才认为是错别字
+             */
+            private double minImprovement = 8.0;
+        }
+    }
+
+    /**
+     * 标注结果缓存配置
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * 内存缓存的最大条目数
+         */
+        private int memoryMaxEntries = 10000;
+
+        /**
+         * 磁盘缓存配置
+         */
+        private Disk disk = new Disk();
+
+        /**
+         * 磁盘缓存配置
+         */
+        @Data
+        public static class Disk {
+
+            /**
+             * 是否启用磁盘缓存，重启后仍可命中之前的结果
+             */
+            private boolean enabled = true;
+
+            /**
+             * 段文件所在目录
+             */
+            private String directory = System.getProperty("java.io.tmpdir") + "/nlp-cache";
+
+            /**
+             * 单个段文件的大小（MB）
+             */
+            private long segmentSizeMb = 64;
+
+            /**
+             * 所有段文件的总大小上限（MB），超出后从最旧的段开始删除
+             */
+            private long maxSizeMb = 1024;
+
+            /**
+             * 有效数据比例低于该值的段在切换新段时被压缩
+             */
+            private double compactionThreshold = 0.5;
+        }
+    }
+
+    /**
+     * 慢请求采样配置
+     */
+    @Data
+    public static class SlowRequests {
+
+        /**
+         * 是否记录慢请求
+         */
+        private boolean enabled = true;
+
+        /**
+         * 总耗时超过该值的请求被记录
+         */
+        private Duration threshold = Duration.ofMillis(500);
+
+        /**
+         * 环形缓冲区大小，写满后覆盖最旧的记录
+         */
+        private int capacity = 256;
+    }
+
+    /**
+     * 批量文件处理（命令行模式）配置，指定input时不启动Web服务器
+     */
+    @Data
+    public static class Cli {
+
+        /**
+         * 输入文件路径（UTF-8，每行一条）
+         */
+        private String input;
+
+        /**
+         * 输出文件路径（JSON Lines），为空时为输入文件路径加 .out.jsonl
+         */
+        private String output = "";
+
+        /**
+         * 输入格式：text（每行一条文本）、jsonl（每行一个NlpRequest）或auto（按扩展名判断）
+         */
+        private String format = "auto";
+
+        /**
+         * text格式时每条文本的语言
+         */
+        private String language = "auto";
+
+        /**
+         * 每块的大小（MB），块是并行处理和断点续跑的单位
+         */
+        private long chunkSizeMb = 4;
+
+        /**
+         * 并行处理的线程数，0表示CPU核数
+         */
+        private int threads = 0;
+    }
+
+    /**
+     * 按客户端限流配置
+     *
+     * 每个客户端一个令牌桶，每次请求按文本长度和启用的功能估算成本并扣除相应数量的令牌
+     */
+    @Data
+    public static class RateLimit {
+
+        /**
+         * 是否启用限流
+         */
+        private boolean enabled = true;
+
+        /**
+         * 携带API Key的请求头；未配置在clients中的Key按客户端IP限流
+         */
+        private String apiKeyHeader = "X-API-Key";
+
+        /**
+         * 默认配额
+         */
+        private Quota defaultQuota = new Quota();
+
+        /**
+         * 各API Key的配额
+         */
+        private Map<String, Quota> clients = new LinkedHashMap<>();
+
+        /**
+         * 保留的客户端令牌桶数量上限，超出后丢弃已恢复满的桶，仍然超出时新客户端共用一个按默认配额的桶
+         */
+        private int maxClients = 10000;
+
+        /**
+         * 请求成本估算参数
+         */
+        private Cost cost = new Cost();
+
+        /**
+         * 令牌桶配额
+         */
+        @Data
+        public static class Quota {
+
+            /**
+             * 桶容量，即允许的突发成本
+             */
+            private double capacity = 500;
+
+            /**
+             * 每秒恢复的令牌数，即持续允许的成本
+             */
+            private double refillPerSecond = 50;
+        }
+
+        /**
+         * 请求成本 = base + 文本长度 / unitChars × 启用功能的权重之和
+         */
+        @Data
+        public static class Cost {
+
+            private double base = 1;
+
+            private int unitChars = 1000;
+
+            private double tokenization = 1;
+
+            private double ner = 4;
+
+            private double spellCheck = 3;
+
+            private double normalization = 0.1;
+
+            private double abbreviationExpansion = 0.1;
+
+            private double emoji = 0.2;
+        }
+    }
+
+    /**
+     * 请求类别调度配置
+     *
+     * 交互请求和批量请求各有一个有界队列，由同一组标注工作线程按权重公平调度；
+     * 批量请求最多占用 workers - interactiveReservedWorkers 个线程，其余线程保留给交互请求
+     */
+    @Data
+    public static class Lanes {
+
+        /**
+         * 是否启用调度；关闭时请求在调用线程上直接处理
+         */
+        private boolean enabled = true;
+
+        /**
+         * 指定请求类别的请求头（interactive、bulk），未指定时按接口决定
+         */
+        private String header = "X-NLP-Lane";
+
+        /**
+         * 标注工作线程数，0表示与CPU核数相同
+         */
+        private int workers = 0;
+
+        /**
+         * 保留给交互请求的工作线程数，0表示工作线程数的1/4（至少1个）
+         */
+        private int interactiveReservedWorkers = 0;
+
+        /**
+         * 交互请求队列
+         */
+        private Lane interactive = new Lane(4, 256, Duration.ZERO);
+
+        /**
+         * 批量请求队列
+         */
+        private Lane bulk = new Lane(1, 64, Duration.ofSeconds(30));
+
+        /**
+         * 单个类别的队列配置
+         */
+        @Data
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class Lane {
+
+            /**
+             * 调度权重，两个队列都有积压时按权重比例分配工作线程
+             */
+            private int weight = 1;
+
+            /**
+             * 队列容量
+             */
+            private int queueCapacity = 64;
+
+            /**
+             * 队列已满时的最长等待时间，超时后拒绝请求
+             */
+            private Duration queueTimeout = Duration.ZERO;
+        }
+    }
+
+    /**
+     * 请求处理时限配置
+     */
+    @Data
+    public static class RequestTimeout {
+
+        /**
+         * 指定处理时限（毫秒）的请求头
+         */
+        private String header = "X-NLP-Timeout-Ms";
+
+        /**
+         * 请求和请求头都未指定时的处理时限，0表示不限
+         */
+        private Duration defaultTimeout = Duration.ZERO;
+    }
+
+    /**
+     * 热门词统计配置
+     */
+    @Data
+    public static class Trends {
+
+        /**
+         * 是否统计处理过的文本中的关键词和命名实体
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每个时间桶的长度
+         */
+        private Duration bucketDuration = Duration.ofMinutes(1);
+
+        /**
+         * 保留的时间桶数量，可查询的最长时间窗口为 bucketDuration * buckets
+         */
+        private int buckets = 60;
+
+        /**
+         * Count-Min Sketch的行数（哈希函数个数），越大估计值超出真实值的概率越低
+         */
+        private int sketchDepth = 4;
+
+        /**
+         * Count-Min Sketch每行的计数器个数（向上取整为2的幂），越大估计值越准确
+         */
+        private int sketchWidth = 2048;
+
+        /**
+         * 每个时间桶中每类词保留的候选热门词个数（Space-Saving计数器个数）
+         */
+        private int heavyHitters = 200;
+
+        /**
+         * 请求线程与统计线程之间的环形缓冲区大小，写满后丢弃最旧的未处理记录
+         */
+        private int bufferCapacity = 65536;
+
+        /**
+         * 关键词的最短长度（字符数）
+         */
+        private int minTermLength = 2;
+    }
+}
@@ -0,0 +1,11 @@
+package com.nlp.exception;
+
+/**
+ * 请求在截止时间前无法开始处理，或调用方等待结果超过截止时间时抛出
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
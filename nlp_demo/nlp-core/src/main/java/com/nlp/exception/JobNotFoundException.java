@@ -0,0 +1,11 @@
+package com.nlp.exception;
+
+/**
+ * 任务不存在或已过期时抛出
+ */
+public class JobNotFoundException extends RuntimeException {
+
+    public JobNotFoundException(String jobId) {
+        super("任务不存在或已过期: " + jobId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.nlp.exception;
+
+/**
+ * 任务队列已满时抛出
+ */
+public class JobRejectedException extends RuntimeException {
+
+    public JobRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.nlp.exception;
+
+/**
+ * 请求类别的队列已满、在等待时间内无法排队时抛出
+ */
+public class LaneRejectedException extends RuntimeException {
+
+    public LaneRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.nlp.exception;
+
+/**
+ * 语言模型无法加载（如缺少模型包）时抛出
+ */
+public class ModelUnavailableException extends RuntimeException {
+
+    public ModelUnavailableException(String message) {
+        super(message);
+    }
+
+    public ModelUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
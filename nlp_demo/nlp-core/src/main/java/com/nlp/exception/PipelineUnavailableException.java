@@ -0,0 +1,11 @@
+package com.nlp.exception;
+
+/**
+ * 在等待时间内无法获取到NLP处理管道时抛出
+ */
+public class PipelineUnavailableException extends RuntimeException {
+
+    public PipelineUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package com.nlp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 标注结果缓存查找事件，持续时间只包含查找和还原，不包含未命中时的计算
+ */
+@Name("com.nlp.CacheLookup")
+@Label("NLP Cache Lookup")
+@Category({"NLP", "Cache"})
+@Description("在内存和磁盘缓存中查找标注结果")
+public class CacheLookupEvent extends Event {
+
+    @Label("Namespace")
+    public String namespace;
+
+    @Label("Text Length")
+    public int textLength;
+
+    @Label("Outcome")
+    @Description("memory、disk或miss")
+    public String outcome;
+}
@@ -0,0 +1,29 @@
+package com.nlp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 语言模型加载事件，持续时间即加载耗时
+ */
+@Name("com.nlp.ModelLoad")
+@Label("NLP Model Load")
+@Category({"NLP", "Models"})
+@Description("模型注册表加载一种语言的CoreNLP管道池和LanguageTool实例")
+public class ModelLoadEvent extends Event {
+
+    @Label("Language")
+    public String language;
+
+    @Label("Estimated Size")
+    @DataAmount(DataAmount.BYTES)
+    public long estimatedBytes;
+
+    @Label("Outcome")
+    @Description("success或加载失败的异常类型")
+    public String outcome;
+}
@@ -0,0 +1,28 @@
+package com.nlp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 借用CoreNLP管道事件，持续时间即等待时间（新建实例时包含创建耗时）
+ */
+@Name("com.nlp.PipelineBorrow")
+@Label("NLP Pipeline Borrow")
+@Category({"NLP", "Pools"})
+@Description("从管道池借用一个CoreNLP管道实例")
+public class PipelineBorrowEvent extends Event {
+
+    @Label("Pool")
+    public String pool;
+
+    @Label("Outcome")
+    @Description("idle（取到空闲实例）、created（新建实例）、waited（等待归还）、timeout或interrupted")
+    public String outcome;
+
+    @Label("In Use")
+    @Description("借用成功后正在使用的实例数")
+    public int inUse;
+}
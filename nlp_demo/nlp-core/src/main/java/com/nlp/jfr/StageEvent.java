@@ -0,0 +1,34 @@
+package com.nlp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * NLP处理阶段事件（语言检测、分析、拼写检查等），持续时间即该阶段的耗时
+ */
+@Name("com.nlp.Stage")
+@Label("NLP Stage")
+@Category({"NLP", "Request"})
+@Description("NlpService中一个处理阶段的执行")
+public class StageEvent extends Event {
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Mode")
+    @Description("process或stream")
+    public String mode;
+
+    @Label("Language")
+    public String language;
+
+    @Label("Text Length")
+    public int textLength;
+
+    @Label("Outcome")
+    @Description("success或error")
+    public String outcome;
+}
@@ -0,0 +1,72 @@
+package com.nlp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 近重复检测结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DedupResult {
+
+    /**
+     * 文本加入索引后的文档ID（未加入索引时为空）
+     */
+    private Long documentId;
+
+    /**
+     * 检测到的语言
+     */
+    private String detectedLanguage;
+
+    /**
+     * 参与计算的词数
+     */
+    private Integer tokenCount;
+
+    /**
+     * SimHash指纹（十六进制）
+     */
+    private String simHash;
+
+    /**
+     * 是否存在近重复文本
+     */
+    private Boolean duplicate;
+
+    /**
+     * 近重复候选
+     */
+    private List<Candidate> candidates;
+
+    /**
+     * 当前索引中的文档数
+     */
+    private Integer indexSize;
+
+    /**
+     * 处理时间(毫秒)
+     */
+    private Long processingTime;
+
+    /**
+     * 近重复候选
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Candidate {
+        private Long documentId;
+        private String preview;
+        private Double similarity; // MinHash估算的Jaccard相似度
+        private Integer hammingDistance; // SimHash汉明距离
+    }
+}
@@ -0,0 +1,71 @@
+package com.nlp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 异步任务状态
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobInfo {
+
+    /**
+     * 任务ID
+     */
+    private String jobId;
+
+    /**
+     * 任务状态 (QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED)
+     */
+    private String status;
+
+    /**
+     * 优先级
+     */
+    private Integer priority;
+
+    /**
+     * 子请求总数
+     */
+    private Integer total;
+
+    /**
+     * 已处理的子请求数
+     */
+    private Integer processed;
+
+    /**
+     * 处理失败的子请求数
+     */
+    private Integer failed;
+
+    /**
+     * 结果文件大小(字节)
+     */
+    private Long resultBytes;
+
+    /**
+     * 提交时间(毫秒时间戳)
+     */
+    private Long submittedAt;
+
+    /**
+     * 开始时间(毫秒时间戳)
+     */
+    private Long startedAt;
+
+    /**
+     * 结束时间(毫秒时间戳)
+     */
+    private Long finishedAt;
+
+    /**
+     * 错误信息
+     */
+    private String error;
+}
@@ -0,0 +1,48 @@
+package com.nlp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 异步任务结果分页
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobResultPage {
+
+    private String jobId;
+    private String status;
+    private Integer page;
+    private Integer size;
+
+    /**
+     * 当前已可读取的结果总数
+     */
+    private Integer available;
+
+    /**
+     * 子请求总数
+     */
+    private Integer total;
+
+    private List<Item> items;
+
+    /**
+     * 单条结果
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Integer index;
+        private NlpResponse response;
+        private String error;
+    }
+}
@@ -0,0 +1,42 @@
+package com.nlp.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 异步任务提交请求
+ *
+ * requests 与 document 二选一：document 为长文档，提交后按段落切分为多个子请求处理。
+ */
+@Data
+public class JobSubmitRequest {
+
+    /**
+     * 批量请求列表
+     */
+    @Size(max = 100000, message = "单个任务不能超过100000条请求")
+    @Valid
+    private List<NlpRequest> requests;
+
+    /**
+     * 长文档
+     */
+    private String document;
+
+    /**
+     * 长文档的语言类型 (zh, en, auto)
+     */
+    private String language = "auto";
+
+    /**
+     * 优先级，0-9，数值越大越先执行
+     */
+    @Min(value = 0, message = "优先级不能小于0")
+    @Max(value = 9, message = "优先级不能大于9")
+    private Integer priority = 5;
+}
@@ -0,0 +1,30 @@
+package com.nlp.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量NLP请求对象
+ */
+@Data
+public class NlpBatchRequest {
+
+    /**
+     * 批量请求列表
+     */
+    @NotEmpty(message = "请求列表不能为空")
+    @Size(max = 1000, message = "单次批量请求不能超过1000条")
+    @Valid
+    private List<NlpRequest> requests;
+
+    /**
+     * 近重复处理方式 (none-不去重, reuse-复用相似文本的结果, drop-丢弃相似文本)
+     */
+    @Pattern(regexp = "none|reuse|drop", message = "duplicateMode只能是none、reuse或drop")
+    private String duplicateMode = "reuse";
+}
@@ -0,0 +1,52 @@
+package com.nlp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量NLP响应对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NlpBatchResponse {
+
+    /**
+     * 每条请求的处理结果，顺序与请求一致
+     */
+    private List<BatchItem> items;
+
+    /**
+     * 实际执行完整处理的条数
+     */
+    private Integer processedCount;
+
+    /**
+     * 被判定为近重复的条数
+     */
+    private Integer duplicateCount;
+
+    /**
+     * 处理时间(毫秒)
+     */
+    private Long processingTime;
+
+    /**
+     * 单条结果
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchItem {
+        private Integer index;
+        private Integer duplicateOf; // 近重复时指向首个相似请求的下标
+        private Double similarity;
+        private NlpResponse response; // drop模式下近重复项为空
+    }
+}
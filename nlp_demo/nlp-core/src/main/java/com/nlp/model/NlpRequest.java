@@ -0,0 +1,113 @@
+package com.nlp.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * NLP请求对象
+ */
+@Data
+public class NlpRequest {
+    
+    /**
+     * 输入的关键词或文本
+     */
+    @NotBlank(message = "关键词不能为空")
+    @Size(max = 10000, message = "文本长度不能超过10000字符")
+    private String keyword;
+    
+    /**
+     * 语言类型 (可选: zh-中文, en-英文, auto-自动检测)
+     */
+    private String language = "auto";
+    
+    /**
+     * 是否启用所有功能 (默认true)
+     */
+    private Boolean enableAll = true;
+    
+    /**
+     * 是否启用分词
+     */
+    private Boolean enableTokenization = true;
+    
+    /**
+     * 是否启用纠错
+     */
+    private Boolean enableSpellCheck = true;
+    
+    /**
+     * 拼写检查规则配置名称（如 fast、full），为空时使用默认配置
+     */
+    private String spellCheckProfile;
+    
+    /**
+     * 是否启用大小写归一化
+     */
+    private Boolean enableNormalization = true;
+    
+    /**
+     * 是否启用缩写还原
+     */
+    private Boolean enableAbbreviationExpansion = true;
+    
+    /**
+     * 是否启用表情符号处理
+     */
+    private Boolean enableEmojiProcessing = true;
+    
+    /**
+     * 是否启用命名实体识别
+     */
+    private Boolean enableNer = true;
+    
+    /**
+     * 上游已完成的分词结果（可选）。提供后不再分词，词性标注、命名实体识别和表情符号处理直接基于这些词，
+     * 整段文本按检测到的语言处理，不再按文字脚本切分
+     */
+    private List<Token> tokens;
+    
+    /**
+     * 上游已完成的分句结果（可选，需同时提供tokens），不提供时由CoreNLP分句
+     */
+    private List<Sentence> sentences;
+    
+    /**
+     * 处理时限（毫秒，可选）。剩余时间不足以完成的阶段被跳过并在响应的skippedStages中标记，
+     * 超过时限仍未开始处理时返回504；同时指定请求头时取较小值
+     */
+    @Positive(message = "timeoutMs必须大于0")
+    private Long timeoutMs;
+    
+    /**
+     * 预分词的词，位置为keyword中的字符偏移 [startPosition, endPosition)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Token {
+        /**
+         * 词文本，为空时取原文区间；与原文不一致时（如引号归一化）以该值为准
+         */
+        private String word;
+        private int startPosition;
+        private int endPosition;
+    }
+    
+    /**
+     * 预分句的句子，位置为keyword中的字符偏移 [startPosition, endPosition)，句子边界不能切开词
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Sentence {
+        private int startPosition;
+        private int endPosition;
+    }
+}
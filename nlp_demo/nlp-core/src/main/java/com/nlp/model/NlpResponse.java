@@ -1,11 +1,15 @@
 package com.nlp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nlp.token.TokenStream;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * NLP响应对象
@@ -25,6 +29,11 @@ public class NlpResponse {
      * 检测到的语言
      */
     private String detectedLanguage;
+
+    /**
+     * 中英文混排文本按文字脚本切分后各段的语言（只有一种语言时为空）
+     */
+    private List<LanguageSpan> languageSpans;
     
     /**
      * 分词结果
@@ -65,6 +74,32 @@ public class NlpResponse {
      * 处理时间(毫秒)
      */
     private Long processingTime;
+
+    /**
+     * 因截止时间（deadline）或调用方取消（cancelled）而跳过的阶段，没有跳过时不输出
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, String> skippedStages;
+
+    /**
+     * 分词结果的紧凑表示，进程内调用方可直接遍历；tokens和tokenDetails在序列化时才由它物化
+     */
+    @JsonIgnore
+    private TokenStream tokenStream;
+
+    public List<String> getTokens() {
+        if (tokens == null && tokenStream != null) {
+            tokens = tokenStream.toWords();
+        }
+        return tokens;
+    }
+
+    public List<TokenInfo> getTokenDetails() {
+        if (tokenDetails == null && tokenStream != null) {
+            tokenDetails = tokenStream.toTokenInfos();
+        }
+        return tokenDetails;
+    }
     
     /**
      * Token信息
@@ -145,5 +180,17 @@ public class NlpResponse {
         private Integer startPosition;
         private Integer endPosition;
     }
-}
 
+    /**
+     * 按语言切分的文本段
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LanguageSpan {
+        private String language;
+        private Integer startPosition;
+        private Integer endPosition;
+    }
+}
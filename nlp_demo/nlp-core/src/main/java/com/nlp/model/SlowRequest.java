@@ -0,0 +1,60 @@
+package com.nlp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 慢请求记录
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowRequest {
+
+    /**
+     * 请求完成时间
+     */
+    private Instant timestamp;
+
+    /**
+     * 处理方式（process、stream）
+     */
+    private String mode;
+
+    /**
+     * 总耗时（毫秒）
+     */
+    private Double totalMillis;
+
+    /**
+     * 输入文本的指纹（FNV-1a 64位哈希，十六进制），用于在日志或离线数据中定位原文，不保存原文
+     */
+    private String fingerprint;
+
+    /**
+     * 输入文本长度
+     */
+    private Integer textLength;
+
+    /**
+     * 检测到的语言
+     */
+    private String language;
+
+    /**
+     * 启用的功能
+     */
+    private List<String> features;
+
+    /**
+     * 各阶段耗时（毫秒），按执行顺序排列
+     */
+    private Map<String, Double> stageMillis;
+}
@@ -0,0 +1,53 @@
+package com.nlp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 拼写检查规则配置（决定LanguageTool启用哪些规则）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpellCheckProfile {
+
+    /**
+     * 配置名称
+     */
+    private String name;
+
+    /**
+     * 说明
+     */
+    private String description;
+
+    /**
+     * 是否只启用基于词典的拼写规则
+     */
+    @Builder.Default
+    private boolean spellingOnly = false;
+
+    /**
+     * 禁用的规则类别ID（如 STYLE、TYPOGRAPHY）
+     */
+    @Builder.Default
+    private List<String> disabledCategories = new ArrayList<>();
+
+    /**
+     * 禁用的规则ID
+     */
+    @Builder.Default
+    private List<String> disabledRules = new ArrayList<>();
+
+    /**
+     * 额外启用的规则ID（LanguageTool默认关闭的规则）
+     */
+    @Builder.Default
+    private List<String> enabledRules = new ArrayList<>();
+}
@@ -0,0 +1,23 @@
+package com.nlp.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 拼写检查规则配置文件
+ */
+@Data
+public class SpellCheckProfiles {
+
+    /**
+     * 请求未指定配置时使用的配置名称
+     */
+    private String defaultProfile;
+
+    /**
+     * 全部配置
+     */
+    private List<SpellCheckProfile> profiles = new ArrayList<>();
+}
@@ -0,0 +1,40 @@
+package com.nlp.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 热门词统计结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TrendingTerm {
+
+    private String term;
+
+    /**
+     * 实体类型，关键词为null
+     */
+    private String type;
+
+    /**
+     * 时间窗口内的出现次数（Count-Min Sketch估计值，不低于真实值）
+     */
+    private Long count;
+
+    /**
+     * 按更早时间桶的平均频次推算的窗口内预期次数
+     */
+    private Double expected;
+
+    /**
+     * 上升程度：(count - expected) / sqrt(expected + 1)
+     */
+    private Double score;
+}
@@ -0,0 +1,103 @@
+package com.nlp.pipeline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求的截止时间
+ *
+ * 基于 System.nanoTime()，不受系统时钟调整影响。处理过程中每个阶段开始前检查剩余时间，
+ * 不足以完成该阶段时跳过；调用方已经放弃（等待超时、客户端断开、任务取消）时调用 {@link #cancel()}，
+ * 之后的阶段全部跳过，工作线程尽快释放给仍能按时完成的请求。
+ */
+public final class Deadline {
+
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+    private static final Deadline NONE = new Deadline(UNBOUNDED, false);
+    // 超时上限，避免 nanoTime 相加溢出
+    private static final long MAX_TIMEOUT_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final long expiresAtNanos;
+    private final boolean cancellable;
+    private volatile boolean cancelled;
+
+    private Deadline(long expiresAtNanos, boolean cancellable) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.cancellable = cancellable;
+    }
+
+    /**
+     * 没有截止时间且不可取消，供内部调用共享
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /**
+     * 没有截止时间，但可以取消
+     */
+    public static Deadline unbounded() {
+        return new Deadline(UNBOUNDED, true);
+    }
+
+    /**
+     * 从现在起timeoutMillis毫秒后截止
+     */
+    public static Deadline afterMillis(long timeoutMillis) {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(Math.max(0, timeoutMillis), MAX_TIMEOUT_MILLIS));
+        return new Deadline(System.nanoTime() + timeoutNanos, true);
+    }
+
+    public boolean isBounded() {
+        return expiresAtNanos != UNBOUNDED;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 已取消或已过截止时间
+     */
+    public boolean isExpired() {
+        return cancelled || (isBounded() && System.nanoTime() >= expiresAtNanos);
+    }
+
+    /**
+     * 剩余时间（纳秒），没有截止时间时为Long.MAX_VALUE，已取消或已过期时为0
+     */
+    public long remainingNanos() {
+        if (cancelled) {
+            return 0;
+        }
+        if (!isBounded()) {
+            return UNBOUNDED;
+        }
+        return Math.max(0, expiresAtNanos - System.nanoTime());
+    }
+
+    /**
+     * 剩余时间是否足够完成预计耗时为estimatedNanos的操作
+     */
+    public boolean allows(long estimatedNanos) {
+        if (cancelled) {
+            return false;
+        }
+        return !isBounded() || expiresAtNanos - System.nanoTime() > estimatedNanos;
+    }
+
+    /**
+     * 取消，尚未开始的阶段不再执行；对 {@link #none()} 无效
+     */
+    public void cancel() {
+        if (cancellable) {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * 跳过阶段时的原因标记
+     */
+    public String reason() {
+        return cancelled ? "cancelled" : "deadline";
+    }
+}
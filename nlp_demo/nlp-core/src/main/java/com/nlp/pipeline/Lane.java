@@ -0,0 +1,33 @@
+package com.nlp.pipeline;
+
+import java.util.Locale;
+
+/**
+ * 请求类别
+ *
+ * 交互请求（用户直接等待结果的单条处理）和批量请求（批处理、异步任务、命令行模式）分别排队，
+ * 由 {@link LaneScheduler} 按权重调度到标注工作线程上。
+ */
+public enum Lane {
+
+    INTERACTIVE,
+    BULK;
+
+    /**
+     * 解析请求头中的类别，为空时返回默认值
+     */
+    public static Lane parse(String value, Lane defaultLane) {
+        if (value == null || value.isBlank()) {
+            return defaultLane;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的请求类别: " + value + "，可选值为 interactive、bulk");
+        }
+    }
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,339 @@
+package com.nlp.pipeline;
+
+import com.nlp.config.NlpProperties;
+import com.nlp.exception.DeadlineExceededException;
+import com.nlp.exception.LaneRejectedException;
+import com.nlp.util.LatencyHistogram;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 按请求类别调度的标注工作线程池
+ *
+ * 每个类别一个有界队列，工作线程空闲时按步长调度（stride scheduling）选择队列：每个队列有一个虚拟时间，
+ * 取出一个任务后增加 1/权重，总是从虚拟时间最小的非空队列取任务，两个队列都有积压时工作线程按权重比例分配。
+ * 队列由空变为非空时虚拟时间不低于当前调度进度，空闲期间不积累额度。
+ * 批量队列同时运行的任务数不超过 workers - reserved，保留的线程只处理交互请求，回填任务再多交互请求也有线程可用。
+ *
+ * 调用方提交后阻塞等待结果，异常原样抛出；在工作线程上再次提交时直接在当前线程执行，避免嵌套提交占满线程而死锁。
+ * 带截止时间的任务在队列中过期后不再执行；调用方等待超过截止时间时取消deadline并返回，已开始的处理在下一个阶段前停止。
+ */
+public class LaneScheduler implements AutoCloseable {
+
+    private final boolean enabled;
+    private final int workers;
+    private final int reservedWorkers;
+    private final Map<Lane, LaneQueue> queues = new EnumMap<>(Lane.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final ThreadLocal<Boolean> onWorker = ThreadLocal.withInitial(() -> false);
+
+    private double virtualTime;
+    private boolean shutdown;
+
+    public LaneScheduler(NlpProperties.Lanes config) {
+        this.enabled = config.isEnabled();
+        this.workers = config.getWorkers() > 0 ? config.getWorkers() : Runtime.getRuntime().availableProcessors();
+        int reserved = config.getInteractiveReservedWorkers() > 0
+                ? config.getInteractiveReservedWorkers()
+                : Math.max(1, workers / 4);
+        // 至少留一个线程给批量请求
+        this.reservedWorkers = Math.min(reserved, workers - 1);
+
+        queues.put(Lane.INTERACTIVE, new LaneQueue(config.getInteractive(), workers));
+        queues.put(Lane.BULK, new LaneQueue(config.getBulk(), workers - reservedWorkers));
+
+        if (enabled) {
+            for (int i = 1; i <= workers; i++) {
+                Thread thread = new Thread(this::work, "nlp-annotator-" + i);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    /**
+     * 在指定类别的队列中排队执行，阻塞直到得到结果
+     *
+     * @throws LaneRejectedException 队列已满且在等待时间内没有空位
+     */
+    public <T> T call(Lane lane, Supplier<T> work) {
+        return call(lane, Deadline.none(), work);
+    }
+
+    /**
+     * 在指定类别的队列中排队执行，最多等待到截止时间
+     *
+     * @throws LaneRejectedException     队列已满且在等待时间内没有空位
+     * @throws DeadlineExceededException 截止时间前没有得到结果
+     */
+    public <T> T call(Lane lane, Deadline deadline, Supplier<T> work) {
+        if (!enabled || onWorker.get()) {
+            return work.get();
+        }
+
+        LaneQueue queue = queues.get(lane);
+        Task<T> task = new Task<>(queue, deadline, work);
+        enqueue(lane, queue, task);
+        try {
+            return deadline.isBounded() ? task.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS) : task.get();
+        } catch (TimeoutException e) {
+            deadline.cancel();
+            cancel(queue, task);
+            throw new DeadlineExceededException("处理超过截止时间");
+        } catch (InterruptedException e) {
+            deadline.cancel();
+            cancel(queue, task);
+            Thread.currentThread().interrupt();
+            throw new LaneRejectedException("等待处理结果时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 在指定类别的队列中排队执行，阻塞直到完成
+     */
+    public void run(Lane lane, Runnable work) {
+        run(lane, Deadline.none(), work);
+    }
+
+    /**
+     * 在指定类别的队列中排队执行，最多等待到截止时间
+     */
+    public void run(Lane lane, Deadline deadline, Runnable work) {
+        call(lane, deadline, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * 导出各队列的积压、运行数和排队延迟
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("workers", workers);
+        metrics.put("interactiveReservedWorkers", reservedWorkers);
+
+        Map<String, Object> lanes = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (Map.Entry<Lane, LaneQueue> entry : queues.entrySet()) {
+                LaneQueue queue = entry.getValue();
+                Map<String, Object> lane = new LinkedHashMap<>();
+                lane.put("weight", queue.weight);
+                lane.put("maxWorkers", queue.maxRunning);
+                lane.put("queueCapacity", queue.capacity);
+                lane.put("queued", queue.tasks.size());
+                lane.put("running", queue.running);
+                lane.put("completed", queue.completed);
+                lane.put("rejected", queue.rejected);
+                lane.put("expired", queue.expired);
+                lane.put("queueDelay", queue.queueDelay.snapshot());
+                lanes.put(entry.getKey().key(), lane);
+            }
+        } finally {
+            lock.unlock();
+        }
+        metrics.put("lanes", lanes);
+        return metrics;
+    }
+
+    /**
+     * 停止接收新任务，已排队的任务执行完后工作线程退出
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            shutdown = true;
+            workAvailable.signalAll();
+            for (LaneQueue queue : queues.values()) {
+                queue.notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(Lane lane, LaneQueue queue, Task<?> task) {
+        long remainingNanos = Math.min(queue.timeoutNanos, task.deadline.remainingNanos());
+        lock.lock();
+        try {
+            while (!shutdown && queue.tasks.size() >= queue.capacity) {
+                if (remainingNanos <= 0) {
+                    queue.rejected++;
+                    throw new LaneRejectedException(lane.key() + " 队列已满，请稍后重试");
+                }
+                remainingNanos = queue.notFull.awaitNanos(remainingNanos);
+            }
+            if (shutdown) {
+                throw new LaneRejectedException("NLP服务正在关闭");
+            }
+            if (queue.tasks.isEmpty()) {
+                queue.pass = Math.max(queue.pass, virtualTime);
+            }
+            task.enqueuedAt = System.nanoTime();
+            queue.tasks.add(task);
+            workAvailable.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LaneRejectedException("排队时被中断");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cancel(LaneQueue queue, Task<?> task) {
+        task.cancel(false);
+        lock.lock();
+        try {
+            if (queue.tasks.remove(task)) {
+                queue.notFull.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        onWorker.set(true);
+        Task<?> task;
+        while ((task = next()) != null) {
+            try {
+                if (task.deadline.isExpired()) {
+                    // 调用方已放弃或已来不及，不再占用工作线程
+                    task.expire();
+                } else {
+                    task.run();
+                }
+            } finally {
+                finished(task.queue);
+            }
+        }
+    }
+
+    /**
+     * 取出虚拟时间最小、且未达到运行上限的非空队列中的下一个任务；关闭且全部队列为空时返回null
+     */
+    private Task<?> next() {
+        lock.lock();
+        try {
+            while (true) {
+                LaneQueue selected = null;
+                boolean pending = false;
+                for (LaneQueue queue : queues.values()) {
+                    if (queue.tasks.isEmpty()) {
+                        continue;
+                    }
+                    pending = true;
+                    if (queue.running < queue.maxRunning && (selected == null || queue.pass < selected.pass)) {
+                        selected = queue;
+                    }
+                }
+                if (selected != null) {
+                    Task<?> task = selected.tasks.poll();
+                    virtualTime = selected.pass;
+                    selected.pass += 1.0 / selected.weight;
+                    selected.running++;
+                    selected.notFull.signal();
+                    selected.queueDelay.record(System.nanoTime() - task.enqueuedAt);
+                    return task;
+                }
+                if (shutdown && !pending) {
+                    return null;
+                }
+                workAvailable.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finished(LaneQueue queue) {
+        lock.lock();
+        try {
+            queue.running--;
+            queue.completed++;
+            // 达到运行上限而等待的队列此时可能可以继续调度
+            for (LaneQueue other : queues.values()) {
+                if (!other.tasks.isEmpty()) {
+                    workAvailable.signal();
+                    break;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 单个类别的队列，除直方图外的字段都在lock保护下访问
+     */
+    private final class LaneQueue {
+        private final int weight;
+        private final int capacity;
+        private final long timeoutNanos;
+        private final int maxRunning;
+        private final ArrayDeque<Task<?>> tasks = new ArrayDeque<>();
+        private final Condition notFull = lock.newCondition();
+        private final LatencyHistogram queueDelay = new LatencyHistogram();
+
+        private double pass;
+        private int running;
+        private long completed;
+        private long rejected;
+        private long expired;
+
+        LaneQueue(NlpProperties.Lanes.Lane config, int maxRunning) {
+            this.weight = Math.max(1, config.getWeight());
+            this.capacity = Math.max(1, config.getQueueCapacity());
+            this.timeoutNanos = config.getQueueTimeout().toNanos();
+            this.maxRunning = Math.max(1, maxRunning);
+        }
+    }
+
+    private final class Task<T> extends FutureTask<T> {
+        private final LaneQueue queue;
+        private final Deadline deadline;
+        private long enqueuedAt;
+
+        Task(LaneQueue queue, Deadline deadline, Supplier<T> work) {
+            super(work::get);
+            this.queue = queue;
+            this.deadline = deadline;
+        }
+
+        void expire() {
+            lock.lock();
+            try {
+                queue.expired++;
+            } finally {
+                lock.unlock();
+            }
+            setException(new DeadlineExceededException("请求在队列中等待超过截止时间"));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.nlp.pipeline;
+
+import com.nlp.model.SpellCheckProfile;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.rules.CategoryId;
+import org.languagetool.rules.Rule;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个语言的LanguageTool实例池
+ *
+ * JLanguageTool不是线程安全的，每次检查借用一个独占实例。实例按规则配置分组，
+ * 启用的规则在创建实例时设置好，借用时无需再调整；配置内容相同的请求共用同一组实例。
+ */
+public class LanguageToolPool {
+
+    private final Language language;
+    private final Map<SpellCheckProfile, Queue<JLanguageTool>> idle = new ConcurrentHashMap<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    public LanguageToolPool(Language language) {
+        this.language = language;
+    }
+
+    /**
+     * 借用一个按指定配置设置好规则的实例，没有空闲实例时新建
+     */
+    public JLanguageTool borrow(SpellCheckProfile profile) {
+        JLanguageTool tool = idle.computeIfAbsent(profile, key -> new ConcurrentLinkedQueue<>()).poll();
+        return tool != null ? tool : create(profile);
+    }
+
+    /**
+     * 归还实例；配置已被移除时直接丢弃
+     */
+    public void release(SpellCheckProfile profile, JLanguageTool tool) {
+        Queue<JLanguageTool> queue = idle.get(profile);
+        if (queue != null) {
+            queue.offer(tool);
+        }
+    }
+
+    /**
+     * 丢弃不在当前配置中的实例（配置重新加载后调用）
+     */
+    public void retain(Collection<SpellCheckProfile> profiles) {
+        idle.keySet().retainAll(new HashSet<>(profiles));
+    }
+
+    public Language getLanguage() {
+        return language;
+    }
+
+    /**
+     * 已创建的实例数
+     */
+    public int getCreated() {
+        return created.get();
+    }
+
+    private JLanguageTool create(SpellCheckProfile profile) {
+        JLanguageTool tool = new JLanguageTool(language);
+        if (profile.isSpellingOnly()) {
+            for (Rule rule : tool.getAllRules()) {
+                if (!rule.isDictionaryBasedSpellingRule()) {
+                    tool.disableRule(rule.getId());
+                }
+            }
+        }
+        for (String category : profile.getDisabledCategories()) {
+            tool.disableCategory(new CategoryId(category));
+        }
+        tool.disableRules(profile.getDisabledRules());
+        for (String rule : profile.getEnabledRules()) {
+            tool.enableRule(rule);
+        }
+        created.incrementAndGet();
+        return tool;
+    }
+}
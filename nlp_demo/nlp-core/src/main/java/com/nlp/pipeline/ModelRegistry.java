@@ -0,0 +1,338 @@
+package com.nlp.pipeline;
+
+import com.nlp.config.NlpProperties;
+import com.nlp.jfr.ModelLoadEvent;
+import com.nlp.exception.ModelUnavailableException;
+import com.nlp.util.LatencyHistogram;
+import org.languagetool.Languages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 按内存预算管理的语言模型注册表
+ *
+ * 每个语言的模型（CoreNLP管道池和LanguageTool实例池）在首次使用时加载，按配置的估算占用计入内存预算；
+ * 加载新模型前若超出预算，按最近最少使用的顺序卸载空闲且未固定的语言，正在使用的模型不会被卸载。
+ * 同一语言的并发加载只执行一次，其余线程等待同一个加载结果。
+ */
+public class ModelRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelRegistry.class);
+
+    private final long budgetMb;
+    private final String defaultLanguage;
+    private final NlpProperties.PipelinePool poolConfig;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private long clock;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long loadFailures;
+    private long overBudgetLoads;
+
+    public ModelRegistry(NlpProperties.Models config, NlpProperties.PipelinePool poolConfig) {
+        this.budgetMb = config.getMemoryBudgetMb();
+        this.defaultLanguage = normalize(config.getDefaultLanguage());
+        this.poolConfig = poolConfig;
+        config.getLanguages().forEach((language, model) -> entries.put(normalize(language), new Entry(normalize(language), model)));
+        if (!entries.containsKey(defaultLanguage)) {
+            throw new IllegalArgumentException("默认语言未配置模型: " + defaultLanguage);
+        }
+    }
+
+    /**
+     * 是否配置了该语言的模型
+     */
+    public boolean supports(String language) {
+        return language != null && entries.containsKey(normalize(language));
+    }
+
+    /**
+     * 获取语言模型，必要时加载；未配置的语言使用默认语言的模型。使用完毕后必须关闭返回的句柄
+     */
+    public ModelHandle acquire(String language) {
+        Entry entry = supports(language) ? entries.get(normalize(language)) : entries.get(defaultLanguage);
+
+        while (true) {
+            CompletableFuture<LanguageModels> loading;
+            boolean loader = false;
+            synchronized (this) {
+                if (entry.models != null) {
+                    hits++;
+                    entry.refs++;
+                    entry.lastUsed = ++clock;
+                    return new ModelHandle(entry, entry.models);
+                }
+                if (entry.loading == null) {
+                    misses++;
+                    entry.loading = new CompletableFuture<>();
+                    loader = true;
+                    evictFor(entry);
+                }
+                loading = entry.loading;
+            }
+
+            if (loader) {
+                load(entry, loading);
+            }
+            try {
+                loading.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+            // 加载完成后重新进入同步块取得引用；期间被卸载则重新加载
+        }
+    }
+
+    /**
+     * 预先加载指定语言
+     */
+    public void preload(Collection<String> languages) {
+        for (String language : languages) {
+            if (!supports(language)) {
+                log.warn("预加载的语言未配置模型，已忽略: {}", language);
+                continue;
+            }
+            acquire(language).close();
+        }
+    }
+
+    /**
+     * 注册表指标：常驻模型、加载次数、加载延迟等
+     */
+    public synchronized Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("budgetMb", budgetMb);
+        metrics.put("residentMb", reservedMb());
+        metrics.put("hits", hits);
+        metrics.put("misses", misses);
+        metrics.put("evictions", evictions);
+        metrics.put("loadFailures", loadFailures);
+        metrics.put("overBudgetLoads", overBudgetLoads);
+        metrics.put("loadLatency", loadLatency.snapshot());
+
+        List<Map<String, Object>> models = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            Map<String, Object> model = new LinkedHashMap<>();
+            model.put("language", entry.language);
+            model.put("state", entry.models != null ? "resident" : entry.loading != null ? "loading" : "unloaded");
+            model.put("estimatedMb", entry.config.getEstimatedMb());
+            model.put("pinned", entry.config.isPinned());
+            model.put("inUse", entry.refs);
+            model.put("loads", entry.loads);
+            model.put("lastLoadMs", entry.lastLoadNanos / 1_000_000);
+            models.add(model);
+        }
+        metrics.put("models", models);
+        return metrics;
+    }
+
+    /**
+     * 常驻语言的CoreNLP管道池指标
+     */
+    public synchronized Map<String, Object> pipelineMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (Entry entry : entries.values()) {
+            if (entry.models != null && entry.models.pipelines() != null) {
+                metrics.put(entry.language, entry.models.pipelines().metrics());
+            }
+        }
+        return metrics;
+    }
+
+    private void load(Entry entry, CompletableFuture<LanguageModels> loading) {
+        ModelLoadEvent event = new ModelLoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            LanguageModels models = createModels(entry);
+            long elapsed = System.nanoTime() - start;
+            commit(event, entry, "success");
+            synchronized (this) {
+                entry.models = models;
+                entry.loading = null;
+                entry.loads++;
+                entry.lastLoadNanos = elapsed;
+                loadLatency.record(elapsed);
+            }
+            log.info("已加载语言模型: {}，耗时 {} ms", entry.language, elapsed / 1_000_000);
+            loading.complete(models);
+        } catch (Throwable e) {
+            commit(event, entry, e.getClass().getSimpleName());
+            synchronized (this) {
+                entry.loading = null;
+                loadFailures++;
+            }
+            log.error("加载语言模型失败: {}", entry.language, e);
+            // 等待同一加载结果的线程必须被唤醒，否则会一直阻塞
+            loading.completeExceptionally(e instanceof ModelUnavailableException
+                    ? e : new ModelUnavailableException("加载语言模型失败: " + entry.language + " (" + e.getMessage() + ")", e));
+            if (e instanceof VirtualMachineError error) {
+                throw error;
+            }
+        }
+    }
+
+    private static void commit(ModelLoadEvent event, Entry entry, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.language = entry.language;
+            event.estimatedBytes = entry.config.getEstimatedMb() * 1024 * 1024;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    /**
+     * 为即将加载的语言腾出预算，调用方必须持有锁
+     */
+    private void evictFor(Entry loading) {
+        while (reservedMb() > budgetMb) {
+            Entry victim = null;
+            for (Entry entry : entries.values()) {
+                if (entry != loading && entry.models != null && entry.refs == 0 && !entry.config.isPinned()
+                        && (victim == null || entry.lastUsed < victim.lastUsed)) {
+                    victim = entry;
+                }
+            }
+            if (victim == null) {
+                overBudgetLoads++;
+                log.warn("语言模型超出内存预算 {} MB，其余模型均在使用中或已固定: {}", budgetMb, loading.language);
+                return;
+            }
+            // 只释放引用，模型在GC时回收
+            victim.models = null;
+            evictions++;
+            log.info("卸载语言模型: {}", victim.language);
+        }
+    }
+
+    /**
+     * 常驻和正在加载的模型的估算占用，调用方必须持有锁
+     */
+    private long reservedMb() {
+        long total = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.models != null || entry.loading != null) {
+                total += entry.config.getEstimatedMb();
+            }
+        }
+        return total;
+    }
+
+    private LanguageModels createModels(Entry entry) {
+        NlpProperties.LanguageModel config = entry.config;
+
+        PipelinePool pipelines = null;
+        Properties props = corenlpProperties(entry.language, config);
+        if (!props.isEmpty()) {
+            int maxSize = poolConfig.getMaxSize() > 0 ? poolConfig.getMaxSize() : Runtime.getRuntime().availableProcessors();
+            pipelines = new PipelinePool(entry.language, props, poolConfig.getSharedAnnotators(),
+                    Math.min(poolConfig.getMinSize(), maxSize), maxSize, poolConfig.getBorrowTimeout().toMillis());
+        }
+
+        LanguageToolPool languageTools = null;
+        if (config.getLanguageTool() != null && !config.getLanguageTool().isBlank()) {
+            if (!Languages.isLanguageSupported(config.getLanguageTool())) {
+                throw new ModelUnavailableException("缺少LanguageTool语言模块: " + config.getLanguageTool());
+            }
+            languageTools = new LanguageToolPool(Languages.getLanguageForShortCode(config.getLanguageTool()));
+        }
+        return new LanguageModels(pipelines, languageTools);
+    }
+
+    private Properties corenlpProperties(String language, NlpProperties.LanguageModel config) {
+        Properties props = new Properties();
+        String file = config.getCorenlpPropertiesFile();
+        if (file != null && !file.isBlank()) {
+            try (InputStream in = ModelRegistry.class.getClassLoader().getResourceAsStream(file)) {
+                if (in == null) {
+                    throw new ModelUnavailableException("缺少CoreNLP模型包，找不到配置文件: " + file + " (" + language + ")");
+                }
+                props.load(in);
+            } catch (IOException e) {
+                throw new ModelUnavailableException("读取CoreNLP配置文件失败: " + file, e);
+            }
+        }
+        config.getCorenlp().forEach(props::setProperty);
+        return props;
+    }
+
+    private static String normalize(String language) {
+        return language.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 单个语言的模型
+     *
+     * @param pipelines     CoreNLP管道池，未配置时为null
+     * @param languageTools LanguageTool实例池，未配置时为null
+     */
+    public record LanguageModels(PipelinePool pipelines, LanguageToolPool languageTools) {
+    }
+
+    /**
+     * 模型使用句柄，持有期间模型不会被卸载
+     */
+    public final class ModelHandle implements AutoCloseable {
+
+        private final Entry entry;
+        private final LanguageModels models;
+        private boolean closed;
+
+        private ModelHandle(Entry entry, LanguageModels models) {
+            this.entry = entry;
+            this.models = models;
+        }
+
+        public String language() {
+            return entry.language;
+        }
+
+        public PipelinePool pipelines() {
+            return models.pipelines();
+        }
+
+        public LanguageToolPool languageTools() {
+            return models.languageTools();
+        }
+
+        @Override
+        public void close() {
+            synchronized (ModelRegistry.this) {
+                if (!closed) {
+                    closed = true;
+                    entry.refs--;
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String language;
+        private final NlpProperties.LanguageModel config;
+        private LanguageModels models;
+        private CompletableFuture<LanguageModels> loading;
+        private int refs;
+        private long lastUsed;
+        private long loads;
+        private long lastLoadNanos;
+
+        private Entry(String language, NlpProperties.LanguageModel config) {
+            this.language = language;
+            this.config = config;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.nlp.pipeline;
+
+import com.nlp.exception.PipelineUnavailableException;
+import com.nlp.jfr.PipelineBorrowEvent;
+import com.nlp.util.LatencyHistogram;
+import edu.stanford.nlp.pipeline.AnnotationPipeline;
+import edu.stanford.nlp.pipeline.Annotator;
+import edu.stanford.nlp.pipeline.AnnotatorImplementations;
+import edu.stanford.nlp.pipeline.AnnotatorPool;
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * StanfordCoreNLP管道池
+ *
+ * 每个请求线程借用一个独占的管道实例，避免多个线程同时进入同一组标注器。
+ * 只读的标注器（如分词、分句、词性标注，模型权重只读且标注时不修改自身状态）在所有实例间共享，
+ * 其余标注器（如NER，内部有可变的规则匹配状态）每个实例各持有一份，代价是每个实例多占用一份NER模型内存。
+ * 实例按需创建，最多不超过maxSize，借用等待时间记录在直方图中。
+ */
+public class PipelinePool {
+
+    private final String name;
+    private final Properties properties;
+    private final Set<String> sharedAnnotators;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+
+    private final AnnotatorImplementations implementations = new AnnotatorImplementations();
+    private final Map<String, Annotator> sharedInstances = new ConcurrentHashMap<>();
+    private final BlockingQueue<StanfordCoreNLP> idle;
+    private final Map<StanfordCoreNLP, SlotAnnotatorPool> slots = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final LatencyHistogram borrowLatency = new LatencyHistogram();
+
+    public PipelinePool(String name, Properties properties, Collection<String> sharedAnnotators,
+                        int minSize, int maxSize, long borrowTimeoutMillis) {
+        if (maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("管道池大小配置不合法: min=" + minSize + ", max=" + maxSize);
+        }
+        this.name = name;
+        this.properties = properties;
+        this.sharedAnnotators = new HashSet<>(sharedAnnotators);
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+
+        // 预先创建最小数量的实例，模型在启动时加载而不是在第一个请求中加载
+        for (int i = 0; i < minSize; i++) {
+            created.incrementAndGet();
+            idle.offer(createPipeline());
+        }
+    }
+
+    /**
+     * 借用一个管道执行操作，完成后自动归还
+     */
+    public <T> T execute(Function<StanfordCoreNLP, T> action) {
+        StanfordCoreNLP pipeline = borrow();
+        try {
+            return action.apply(pipeline);
+        } finally {
+            release(pipeline);
+        }
+    }
+
+    /**
+     * 借用一个管道，对已分词的文档只运行分词之后的标注器（与该管道实例共用同一组标注器）
+     *
+     * @param sentencesSplit 文档是否已分句，已分句时同时跳过分句标注器
+     */
+    public <T> T executeTokenized(boolean sentencesSplit, Function<AnnotationPipeline, T> action) {
+        StanfordCoreNLP pipeline = borrow();
+        try {
+            return action.apply(slots.get(pipeline).tokenizedPipeline(sentencesSplit));
+        } finally {
+            release(pipeline);
+        }
+    }
+
+    /**
+     * 借用管道：优先取空闲实例，未达上限时新建，否则等待归还
+     */
+    public StanfordCoreNLP borrow() {
+        PipelineBorrowEvent event = new PipelineBorrowEvent();
+        event.begin();
+        long start = System.nanoTime();
+        StanfordCoreNLP pipeline = idle.poll();
+        String outcome = "idle";
+
+        if (pipeline == null) {
+            int current = created.get();
+            while (current < maxSize) {
+                if (created.compareAndSet(current, current + 1)) {
+                    try {
+                        pipeline = createPipeline();
+                    } catch (RuntimeException e) {
+                        created.decrementAndGet();
+                        commit(event, e.getClass().getSimpleName());
+                        throw e;
+                    }
+                    outcome = "created";
+                    break;
+                }
+                current = created.get();
+            }
+        }
+
+        if (pipeline == null) {
+            try {
+                pipeline = idle.poll(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                commit(event, "interrupted");
+                throw new PipelineUnavailableException("等待NLP管道时被中断");
+            }
+            if (pipeline == null) {
+                timeouts.incrementAndGet();
+                commit(event, "timeout");
+                throw new PipelineUnavailableException("NLP管道繁忙，请稍后重试: " + name);
+            }
+            outcome = "waited";
+        }
+
+        borrowLatency.record(System.nanoTime() - start);
+        inUse.incrementAndGet();
+        commit(event, outcome);
+        return pipeline;
+    }
+
+    private void commit(PipelineBorrowEvent event, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.pool = name;
+            event.outcome = outcome;
+            event.inUse = inUse.get();
+            event.commit();
+        }
+    }
+
+    /**
+     * 归还管道
+     */
+    public void release(StanfordCoreNLP pipeline) {
+        inUse.decrementAndGet();
+        idle.offer(pipeline);
+    }
+
+    /**
+     * 管道池指标
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("name", name);
+        metrics.put("maxSize", maxSize);
+        metrics.put("created", created.get());
+        metrics.put("inUse", inUse.get());
+        metrics.put("idle", idle.size());
+        metrics.put("timeouts", timeouts.get());
+        metrics.put("borrowLatency", borrowLatency.snapshot());
+        return metrics;
+    }
+
+    private StanfordCoreNLP createPipeline() {
+        SlotAnnotatorPool slot = new SlotAnnotatorPool();
+        StanfordCoreNLP pipeline = new StanfordCoreNLP(properties, true, slot);
+        slots.put(pipeline, slot);
+        return pipeline;
+    }
+
+    /**
+     * 创建标注器
+     */
+    private Annotator createAnnotator(String annotatorName) {
+        switch (annotatorName) {
+            case "tokenize":
+                return implementations.tokenizer(properties);
+            case "ssplit":
+                return implementations.wordToSentences(properties);
+            case "pos":
+                return implementations.posTagger(properties);
+            case "lemma":
+                return implementations.morpha(properties, false);
+            case "ner":
+                return implementations.ner(properties);
+            default:
+                throw new IllegalArgumentException("管道池不支持的标注器: " + annotatorName);
+        }
+    }
+
+    /**
+     * 单个管道实例的标注器池
+     *
+     * CoreNLP默认按配置签名全局缓存标注器，同样配置的所有管道实际共用同一组标注器实例，且永远不会释放；
+     * 这里共享列表中的标注器只在本管道池内共享，其余标注器为每个管道实例单独创建，
+     * 丢弃管道池后全部模型即可被回收。
+     */
+    private class SlotAnnotatorPool extends AnnotatorPool {
+
+        private final Map<String, Annotator> ownAnnotators = new HashMap<>();
+        private final Map<Boolean, AnnotationPipeline> tokenizedPipelines = new HashMap<>();
+
+        @Override
+        public synchronized Annotator get(String annotatorName) {
+            if (sharedAnnotators.contains(annotatorName)) {
+                return sharedInstances.computeIfAbsent(annotatorName, PipelinePool.this::createAnnotator);
+            }
+            return ownAnnotators.computeIfAbsent(annotatorName, PipelinePool.this::createAnnotator);
+        }
+
+        /**
+         * 由配置中分词（及分句）之后的标注器组成的管道
+         */
+        synchronized AnnotationPipeline tokenizedPipeline(boolean sentencesSplit) {
+            return tokenizedPipelines.computeIfAbsent(sentencesSplit, split -> {
+                AnnotationPipeline pipeline = new AnnotationPipeline();
+                // CoreNLP会把ssplit并入tokenize并从annotators配置中移除，这里需要时单独加入分句标注器
+                if (!split) {
+                    pipeline.addAnnotator(get("ssplit"));
+                }
+                for (String annotatorName : properties.getProperty("annotators", "").split(",")) {
+                    String trimmed = annotatorName.trim();
+                    if (!trimmed.isEmpty() && !"tokenize".equals(trimmed) && !"ssplit".equals(trimmed)) {
+                        pipeline.addAnnotator(get(trimmed));
+                    }
+                }
+                return pipeline;
+            });
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.nlp.service;
+
+import com.nlp.config.NlpProperties;
+import com.nlp.model.NlpBatchRequest;
+import com.nlp.model.NlpBatchResponse;
+import com.nlp.model.NlpRequest;
+import com.nlp.model.NlpResponse;
+import com.nlp.pipeline.Deadline;
+import com.nlp.pipeline.Lane;
+import com.nlp.pipeline.LaneScheduler;
+import com.nlp.util.LshIndex;
+
+import java.util.*;
+
+/**
+ * 批量NLP处理服务
+ *
+ * 在执行分词之后的昂贵阶段之前先做批内近重复检测，近重复文本可复用已有结果或直接丢弃。
+ */
+public class BatchService {
+
+    private final NlpService nlpService;
+    private final LaneScheduler laneScheduler;
+    private final DedupService dedupService;
+    private final NlpProperties.Dedup dedupConfig;
+
+    public BatchService(NlpService nlpService, LaneScheduler laneScheduler, DedupService dedupService,
+                        NlpProperties properties) {
+        this.nlpService = nlpService;
+        this.laneScheduler = laneScheduler;
+        this.dedupService = dedupService;
+        this.dedupConfig = properties.getDedup();
+    }
+
+    /**
+     * 批量处理，各条文本在批量请求队列中排队
+     */
+    public NlpBatchResponse process(NlpBatchRequest batch) {
+        return process(batch, Lane.BULK, Deadline.none());
+    }
+
+    /**
+     * 批量处理，各条文本在指定类别的队列中排队；截止时间作用于整个批次，超过后抛出 DeadlineExceededException
+     */
+    public NlpBatchResponse process(NlpBatchRequest batch, Lane lane, Deadline deadline) {
+        long startTime = System.currentTimeMillis();
+
+        List<NlpRequest> requests = batch.getRequests();
+        boolean dedup = !"none".equalsIgnoreCase(batch.getDuplicateMode());
+        boolean reuse = "reuse".equalsIgnoreCase(batch.getDuplicateMode());
+
+        LshIndex batchIndex = dedup ? dedupService.newIndex(0) : null;
+        Map<Long, Integer> batchDocuments = new HashMap<>();
+        List<NlpBatchResponse.BatchItem> items = new ArrayList<>(requests.size());
+        int processedCount = 0;
+        int duplicateCount = 0;
+
+        for (int i = 0; i < requests.size(); i++) {
+            NlpRequest request = requests.get(i);
+            DedupService.Fingerprint fingerprint = null;
+
+            if (dedup) {
+                fingerprint = dedupService.fingerprint(request.getKeyword(), request.getLanguage());
+                NlpBatchResponse.BatchItem duplicate = findDuplicate(i, fingerprint, batchIndex,
+                        batchDocuments, requests, items, reuse);
+                if (duplicate != null) {
+                    items.add(duplicate);
+                    duplicateCount++;
+                    continue;
+                }
+                batchDocuments.put(dedupService.add(batchIndex, request.getKeyword(), fingerprint), i);
+            }
+
+            NlpResponse response = laneScheduler.call(lane, deadline, () -> nlpService.process(request, deadline));
+            processedCount++;
+            items.add(NlpBatchResponse.BatchItem.builder()
+                    .index(i)
+                    .response(response)
+                    .build());
+
+            if (fingerprint != null && dedupConfig.isIndexBatchItems()) {
+                dedupService.add(request.getKeyword(), fingerprint);
+            }
+        }
+
+        return NlpBatchResponse.builder()
+                .items(items)
+                .processedCount(processedCount)
+                .duplicateCount(duplicateCount)
+                .processingTime(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    /**
+     * 在批内索引中查找处理选项相同的近重复请求
+     */
+    private NlpBatchResponse.BatchItem findDuplicate(int index, DedupService.Fingerprint fingerprint,
+                                                     LshIndex batchIndex, Map<Long, Integer> batchDocuments,
+                                                     List<NlpRequest> requests,
+                                                     List<NlpBatchResponse.BatchItem> items, boolean reuse) {
+        for (LshIndex.Candidate candidate : dedupService.findCandidates(batchIndex, fingerprint)) {
+            int original = batchDocuments.get(candidate.id());
+            if (!sameOptions(requests.get(index), requests.get(original))) {
+                continue;
+            }
+            return NlpBatchResponse.BatchItem.builder()
+                    .index(index)
+                    .duplicateOf(original)
+                    .similarity(candidate.similarity())
+                    .response(reuse ? items.get(original).getResponse() : null)
+                    .build();
+        }
+        return null;
+    }
+
+    /**
+     * 判断两个请求的处理选项是否一致（不比较文本）
+     */
+    private boolean sameOptions(NlpRequest a, NlpRequest b) {
+        return Objects.equals(a.getLanguage(), b.getLanguage())
+                && Objects.equals(a.getEnableAll(), b.getEnableAll())
+                && Objects.equals(a.getEnableTokenization(), b.getEnableTokenization())
+                && Objects.equals(a.getEnableSpellCheck(), b.getEnableSpellCheck())
+                && Objects.equals(a.getSpellCheckProfile(), b.getSpellCheckProfile())
+                && Objects.equals(a.getEnableNormalization(), b.getEnableNormalization())
+                && Objects.equals(a.getEnableAbbreviationExpansion(), b.getEnableAbbreviationExpansion())
+                && Objects.equals(a.getEnableEmojiProcessing(), b.getEnableEmojiProcessing())
+                && Objects.equals(a.getEnableNer(), b.getEnableNer())
+                && Objects.equals(a.getTokens(), b.getTokens())
+                && Objects.equals(a.getSentences(), b.getSentences());
+    }
+}
@@ -0,0 +1,123 @@
+package com.nlp.service;
+
+import com.nlp.config.NlpProperties;
+import com.nlp.model.DedupResult;
+import com.nlp.token.TokenStream;
+import com.nlp.util.LshIndex;
+import com.nlp.util.MinHash;
+import com.nlp.util.SimHash;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 近重复检测服务
+ *
+ * 基于分词结果计算SimHash和MinHash签名，并维护一个内存中的LSH索引。
+ */
+public class DedupService {
+
+    private static final int PREVIEW_LENGTH = 100;
+
+    private final NlpService nlpService;
+    private final NlpProperties.Dedup config;
+    private final MinHash minHash;
+    private final LshIndex index;
+
+    public DedupService(NlpService nlpService, NlpProperties properties) {
+        this.nlpService = nlpService;
+        this.config = properties.getDedup();
+        this.minHash = new MinHash(config.getMinhashBands() * config.getMinhashRows(), config.getShingleSize());
+        this.index = newIndex(config.getMaxEntries());
+    }
+
+    /**
+     * 检测文本是否与索引中的文本近重复
+     */
+    public DedupResult check(String text, String requestLanguage, boolean addToIndex) {
+        long startTime = System.currentTimeMillis();
+
+        Fingerprint fingerprint = fingerprint(text, requestLanguage);
+        List<LshIndex.Candidate> candidates = findCandidates(index, fingerprint);
+
+        Long documentId = null;
+        if (addToIndex) {
+            documentId = add(index, text, fingerprint);
+        }
+
+        return DedupResult.builder()
+                .documentId(documentId)
+                .detectedLanguage(fingerprint.language())
+                .tokenCount(fingerprint.tokenCount())
+                .simHash(String.format("%016x", fingerprint.simhash()))
+                .duplicate(!candidates.isEmpty())
+                .candidates(candidates.stream()
+                        .map(c -> DedupResult.Candidate.builder()
+                                .documentId(c.id())
+                                .preview(c.preview())
+                                .similarity(c.similarity())
+                                .hammingDistance(c.hammingDistance())
+                                .build())
+                        .collect(Collectors.toList()))
+                .indexSize(index.size())
+                .processingTime(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    /**
+     * 根据分词结果计算文本签名
+     */
+    public Fingerprint fingerprint(String text, String requestLanguage) {
+        String language = nlpService.detectLanguage(text, requestLanguage);
+        TokenStream tokens = nlpService.tokenize(text, language);
+        long[] hashes = new long[tokens.size()];
+        int count = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (!tokens.isBlank(i)) {
+                hashes[count++] = tokens.hashIgnoreCase(i);
+            }
+        }
+        long[] tokenHashes = count == hashes.length ? hashes : Arrays.copyOf(hashes, count);
+
+        return new Fingerprint(language, tokenHashes.length,
+                SimHash.compute(tokenHashes), minHash.signature(tokenHashes));
+    }
+
+    /**
+     * 在指定索引中查找近重复候选
+     */
+    public List<LshIndex.Candidate> findCandidates(LshIndex target, Fingerprint fingerprint) {
+        return target.query(fingerprint.simhash(), fingerprint.minhash(),
+                config.getJaccardThreshold(), config.getMaxCandidates());
+    }
+
+    /**
+     * 将文本加入指定索引
+     */
+    public long add(LshIndex target, String text, Fingerprint fingerprint) {
+        String preview = text.length() > PREVIEW_LENGTH ? text.substring(0, PREVIEW_LENGTH) : text;
+        return target.add(preview, fingerprint.simhash(), fingerprint.minhash());
+    }
+
+    /**
+     * 将文本加入全局索引
+     */
+    public long add(String text, Fingerprint fingerprint) {
+        return add(index, text, fingerprint);
+    }
+
+    /**
+     * 创建一个与全局索引参数相同的临时索引（如单个批次内去重）
+     */
+    public LshIndex newIndex(int maxEntries) {
+        return new LshIndex(config.getSimhashMaxDistance(), config.getMinhashBands(),
+                config.getMinhashRows(), maxEntries);
+    }
+
+    /**
+     * 文本签名
+     */
+    public record Fingerprint(String language, int tokenCount, long simhash, long[] minhash) {
+    }
+}
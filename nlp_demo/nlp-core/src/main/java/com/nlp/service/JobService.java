@@ -0,0 +1,458 @@
+package com.nlp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlp.config.NlpProperties;
+import com.nlp.exception.JobNotFoundException;
+import com.nlp.exception.JobRejectedException;
+import com.nlp.model.JobInfo;
+import com.nlp.model.JobResultPage;
+import com.nlp.model.JobSubmitRequest;
+import com.nlp.model.NlpRequest;
+import com.nlp.model.NlpResponse;
+import com.nlp.pipeline.Deadline;
+import com.nlp.pipeline.Lane;
+import com.nlp.pipeline.LaneScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步任务服务
+ *
+ * 任务在有界的优先级线程池中执行，结果以JSON Lines格式追加写入本地文件，
+ * 内存中只保留每条结果在文件中的偏移量，分页查询时按偏移量从文件读取。
+ */
+public class JobService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobService.class);
+
+    private final NlpService nlpService;
+    private final LaneScheduler laneScheduler;
+    private final ObjectMapper objectMapper;
+    private final NlpProperties.Job config;
+    private final int maxTextLength;
+    private final Path storageDir;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger queuedJobs = new AtomicInteger();
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService cleaner;
+
+    public JobService(NlpService nlpService, LaneScheduler laneScheduler, ObjectMapper objectMapper,
+                      NlpProperties properties) {
+        this.nlpService = nlpService;
+        this.laneScheduler = laneScheduler;
+        this.objectMapper = objectMapper;
+        this.config = properties.getJob();
+        this.maxTextLength = properties.getMaxTextLength();
+        this.storageDir = Paths.get(config.getStorageDir());
+
+        try {
+            Files.createDirectories(storageDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法创建任务结果目录: " + storageDir, e);
+        }
+
+        int workers = config.getWorkers() > 0
+                ? config.getWorkers()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "nlp-job-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nlp-job-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cleaner.scheduleWithFixedDelay(this::removeExpiredJobs, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 提交任务
+     */
+    public JobInfo submit(JobSubmitRequest request) {
+        List<NlpRequest> requests = toRequests(request);
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("requests和document不能同时为空");
+        }
+
+        // 先占用排队名额，超出上限直接拒绝，避免任务无限堆积
+        if (queuedJobs.incrementAndGet() > config.getMaxQueuedJobs()) {
+            queuedJobs.decrementAndGet();
+            throw new JobRejectedException("任务队列已满，请稍后重试");
+        }
+
+        String jobId = UUID.randomUUID().toString().replace("-", "");
+        Job job = new Job(jobId, request.getPriority() == null ? 5 : request.getPriority(),
+                requests, storageDir.resolve(jobId + ".jsonl"));
+        jobs.put(jobId, job);
+        executor.execute(new JobTask(job, sequence.incrementAndGet()));
+
+        return job.toInfo();
+    }
+
+    /**
+     * 查询任务状态
+     */
+    public JobInfo getStatus(String jobId) {
+        return getJob(jobId).toInfo();
+    }
+
+    /**
+     * 分页读取任务结果
+     */
+    public JobResultPage getResults(String jobId, int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("page不能小于0，size必须大于0");
+        }
+        Job job = getJob(jobId);
+        int pageSize = Math.min(size, config.getMaxPageSize());
+
+        long[] range;
+        int from;
+        int to;
+        synchronized (job) {
+            // 已取消的任务结果文件会被删除，按不存在处理
+            if (job.status == JobStatus.CANCELLED) {
+                throw new JobNotFoundException(jobId);
+            }
+            int available = job.offsets.size() - 1;
+            from = (int) Math.min((long) page * pageSize, available);
+            to = Math.min(from + pageSize, available);
+            range = new long[]{job.offsets.get(from), job.offsets.get(to)};
+        }
+
+        List<JobResultPage.Item> items = new ArrayList<>(to - from);
+        if (to > from) {
+            List<String> lines;
+            try {
+                lines = readLines(job.resultFile, range[0], range[1]);
+            } catch (UncheckedIOException e) {
+                // 读取期间任务被取消、结果文件已删除
+                if (job.cancelled) {
+                    throw new JobNotFoundException(jobId);
+                }
+                throw e;
+            }
+            for (String line : lines) {
+                try {
+                    items.add(objectMapper.readValue(line, JobResultPage.Item.class));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("读取任务结果失败: " + jobId, e);
+                }
+            }
+        }
+
+        return JobResultPage.builder()
+                .jobId(jobId)
+                .status(job.status.name())
+                .page(page)
+                .size(pageSize)
+                .available(job.processed.get())
+                .total(job.requests.size())
+                .items(items)
+                .build();
+    }
+
+    /**
+     * 取消任务并删除结果
+     */
+    public JobInfo cancel(String jobId) {
+        Job job = getJob(jobId);
+        job.cancelled = true;
+        job.deadline.cancel();
+        synchronized (job) {
+            boolean running = job.status == JobStatus.RUNNING;
+            if (running || job.status == JobStatus.QUEUED) {
+                job.status = JobStatus.CANCELLED;
+                job.finishedAt = System.currentTimeMillis();
+            }
+            // 运行中的任务由工作线程在退出时移除并删除结果文件
+            if (!running) {
+                jobs.remove(jobId);
+                deleteQuietly(job.resultFile);
+            }
+        }
+        return job.toInfo();
+    }
+
+    public void shutdown() {
+        cleaner.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private Job getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new JobNotFoundException(jobId);
+        }
+        return job;
+    }
+
+    /**
+     * 执行任务，逐条处理并追加写入结果文件
+     */
+    private void run(Job job) {
+        queuedJobs.decrementAndGet();
+        synchronized (job) {
+            if (job.status != JobStatus.QUEUED) {
+                return;
+            }
+            job.status = JobStatus.RUNNING;
+            job.startedAt = System.currentTimeMillis();
+        }
+
+        try (FileChannel channel = FileChannel.open(job.resultFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (int i = 0; i < job.requests.size() && !job.cancelled; i++) {
+                JobResultPage.Item.ItemBuilder item = JobResultPage.Item.builder().index(i);
+                try {
+                    NlpRequest request = job.requests.get(i);
+                    NlpResponse response = laneScheduler.call(Lane.BULK, job.deadline,
+                            () -> nlpService.process(request, job.deadline));
+                    item.response(response);
+                } catch (Exception e) {
+                    job.failed.incrementAndGet();
+                    item.error(e.getMessage());
+                }
+
+                byte[] line = objectMapper.writeValueAsBytes(item.build());
+                ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+
+                // 先写文件再发布偏移量，读取方只会看到已完整写入的结果
+                synchronized (job) {
+                    job.offsets.add(channel.position());
+                }
+                job.processed.incrementAndGet();
+                // 处理完成后释放请求文本
+                job.requests.set(i, null);
+            }
+
+            synchronized (job) {
+                if (job.status == JobStatus.RUNNING) {
+                    job.status = JobStatus.COMPLETED;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("任务 {} 执行失败: {}", job.id, e.getMessage());
+            synchronized (job) {
+                job.status = JobStatus.FAILED;
+                job.error = e.getMessage();
+            }
+        } finally {
+            synchronized (job) {
+                if (job.finishedAt == null) {
+                    job.finishedAt = System.currentTimeMillis();
+                }
+            }
+            if (job.cancelled) {
+                jobs.remove(job.id);
+                deleteQuietly(job.resultFile);
+            }
+        }
+    }
+
+    /**
+     * 清理超过保留时长的已结束任务
+     */
+    private void removeExpiredJobs() {
+        long expireBefore = System.currentTimeMillis() - config.getRetention().toMillis();
+        for (Job job : jobs.values()) {
+            Long finishedAt = job.finishedAt;
+            if (finishedAt != null && finishedAt < expireBefore) {
+                jobs.remove(job.id);
+                deleteQuietly(job.resultFile);
+            }
+        }
+    }
+
+    private List<String> readLines(Path file, long start, long end) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) >= 0) {
+                // 读满为止
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取任务结果失败: " + file, e);
+        }
+
+        List<String> lines = new ArrayList<>();
+        byte[] bytes = buffer.array();
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                lines.add(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                lineStart = i + 1;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * 将提交请求转换为子请求列表，长文档按段落切分
+     */
+    private List<NlpRequest> toRequests(JobSubmitRequest request) {
+        List<NlpRequest> requests = new ArrayList<>();
+        if (request.getRequests() != null) {
+            requests.addAll(request.getRequests());
+        }
+
+        String document = request.getDocument();
+        if (document != null && !document.isBlank()) {
+            if (document.length() > config.getMaxDocumentLength()) {
+                throw new IllegalArgumentException("文档长度不能超过" + config.getMaxDocumentLength() + "字符");
+            }
+            for (String chunk : splitDocument(document, maxTextLength)) {
+                NlpRequest nlpRequest = new NlpRequest();
+                nlpRequest.setKeyword(chunk);
+                nlpRequest.setLanguage(request.getLanguage());
+                requests.add(nlpRequest);
+            }
+        }
+        return requests;
+    }
+
+    /**
+     * 在换行或句末标点处切分文档，每段不超过maxLength
+     */
+    private List<String> splitDocument(String document, int maxLength) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < document.length()) {
+            int end = Math.min(start + maxLength, document.length());
+            if (end < document.length()) {
+                int cut = lastBoundary(document, start, end);
+                if (cut > start) {
+                    end = cut;
+                }
+            }
+            String chunk = document.substring(start, end).trim();
+            if (!chunk.isEmpty()) {
+                chunks.add(chunk);
+            }
+            start = end;
+        }
+        return chunks;
+    }
+
+    private int lastBoundary(String text, int start, int end) {
+        for (int i = end - 1; i > start; i--) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '。' || c == '！' || c == '？' || c == '.' || c == '!' || c == '?') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除任务结果文件失败: {}", file);
+        }
+    }
+
+    /**
+     * 任务状态
+     */
+    private enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    /**
+     * 任务
+     */
+    private static class Job {
+        private final String id;
+        private final int priority;
+        private final List<NlpRequest> requests;
+        private final Path resultFile;
+        private final long submittedAt = System.currentTimeMillis();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        // 第i条结果位于 [offsets[i], offsets[i+1])
+        private final List<Long> offsets = new ArrayList<>(List.of(0L));
+        // 取消任务时一并取消正在处理的文本中尚未开始的阶段
+        private final Deadline deadline = Deadline.unbounded();
+
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile boolean cancelled;
+        private volatile Long startedAt;
+        private volatile Long finishedAt;
+        private volatile String error;
+
+        Job(String id, int priority, List<NlpRequest> requests, Path resultFile) {
+            this.id = id;
+            this.priority = priority;
+            this.requests = new ArrayList<>(requests);
+            this.resultFile = resultFile;
+        }
+
+        JobInfo toInfo() {
+            long resultBytes;
+            synchronized (this) {
+                resultBytes = offsets.get(offsets.size() - 1);
+            }
+            return JobInfo.builder()
+                    .jobId(id)
+                    .status(status.name())
+                    .priority(priority)
+                    .total(requests.size())
+                    .processed(processed.get())
+                    .failed(failed.get())
+                    .resultBytes(resultBytes)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+
+    /**
+     * 可按优先级排序的任务，优先级相同时先提交的先执行
+     */
+    private class JobTask implements Runnable, Comparable<JobTask> {
+        private final Job job;
+        private final long sequence;
+
+        JobTask(Job job, long sequence) {
+            this.job = job;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            JobService.this.run(job);
+        }
+
+        @Override
+        public int compareTo(JobTask other) {
+            int byPriority = Integer.compare(other.job.priority, job.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
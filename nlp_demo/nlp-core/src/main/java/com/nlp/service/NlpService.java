@@ -0,0 +1,1176 @@
+package com.nlp.service;
+
+import com.hankcs.hanlp.HanLP;
+import com.hankcs.hanlp.algorithm.Viterbi;
+import com.hankcs.hanlp.dictionary.CoreDictionary;
+import com.hankcs.hanlp.dictionary.CoreDictionaryTransformMatrixDictionary;
+import com.hankcs.hanlp.dictionary.CustomDictionary;
+import com.hankcs.hanlp.seg.common.Term;
+import com.hankcs.hanlp.seg.common.Vertex;
+import com.nlp.cache.AnnotationCache;
+import com.nlp.exception.DeadlineExceededException;
+import com.nlp.exception.ModelUnavailableException;
+import com.nlp.config.NlpProperties;
+import com.nlp.model.NlpRequest;
+import com.nlp.model.NlpResponse;
+import com.nlp.model.SpellCheckProfile;
+import com.nlp.pipeline.Deadline;
+import com.nlp.pipeline.Lane;
+import com.nlp.pipeline.LaneScheduler;
+import com.nlp.pipeline.ModelRegistry;
+import com.nlp.spell.ChineseSpellChecker;
+import com.nlp.token.PreTokenized;
+import com.nlp.token.ScriptSegmenter;
+import com.nlp.token.TagDictionary;
+import com.nlp.token.TokenStream;
+import com.nlp.util.Hashing;
+import com.vdurmont.emoji.EmojiParser;
+import edu.stanford.nlp.ling.CoreAnnotations;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.pipeline.CoreDocument;
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import edu.stanford.nlp.util.CoreMap;
+import org.languagetool.JLanguageTool;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * NLP服务实现类
+ */
+public class NlpService {
+
+    private final ModelRegistry modelRegistry;
+    private final StanfordCoreNLP stanfordCoreNlpEnglishTokenizer;
+    private final ExecutorService nlpTaskExecutor;
+    private final LaneScheduler laneScheduler;
+    private final SpellCheckService spellCheckService;
+    private final ChineseSpellChecker chineseSpellChecker;
+    private final NlpProperties.MixedScript mixedScript;
+    private final AnnotationCache annotationCache;
+    private final SlowRequestSampler slowRequestSampler;
+    private final TrendTracker trendTracker;
+    private final AnnotationCache.Codec<TokenStream> tokenStreamCodec;
+    private final AnnotationCache.Codec<NlpResponse.SpellCheckResult> spellCheckCodec;
+    private final long analysisVersion;
+    private final long spellCheckVersion;
+    private final long defaultTimeoutMs;
+
+    /**
+     * 缓存结果的格式版本，分析逻辑或序列化格式变化时递增，使磁盘上的旧结果失效
+     */
+    private static final long CACHE_FORMAT_VERSION = 1;
+
+    // 常见英文缩写映射
+    private static final Map<String, String> ABBREVIATIONS = new HashMap<>();
+    
+    static {
+        ABBREVIATIONS.put("don't", "do not");
+        ABBREVIATIONS.put("can't", "cannot");
+        ABBREVIATIONS.put("won't", "will not");
+        ABBREVIATIONS.put("shouldn't", "should not");
+        ABBREVIATIONS.put("wouldn't", "would not");
+        ABBREVIATIONS.put("couldn't", "could not");
+        ABBREVIATIONS.put("i'm", "i am");
+        ABBREVIATIONS.put("you're", "you are");
+        ABBREVIATIONS.put("we're", "we are");
+        ABBREVIATIONS.put("they're", "they are");
+        ABBREVIATIONS.put("it's", "it is");
+        ABBREVIATIONS.put("that's", "that is");
+        ABBREVIATIONS.put("i've", "i have");
+        ABBREVIATIONS.put("you've", "you have");
+        ABBREVIATIONS.put("we've", "we have");
+        ABBREVIATIONS.put("they've", "they have");
+        ABBREVIATIONS.put("i'll", "i will");
+        ABBREVIATIONS.put("you'll", "you will");
+        ABBREVIATIONS.put("he'll", "he will");
+        ABBREVIATIONS.put("she'll", "she will");
+        ABBREVIATIONS.put("we'll", "we will");
+        ABBREVIATIONS.put("they'll", "they will");
+        ABBREVIATIONS.put("isn't", "is not");
+        ABBREVIATIONS.put("aren't", "are not");
+        ABBREVIATIONS.put("wasn't", "was not");
+        ABBREVIATIONS.put("weren't", "were not");
+        ABBREVIATIONS.put("hasn't", "has not");
+        ABBREVIATIONS.put("haven't", "have not");
+        ABBREVIATIONS.put("hadn't", "had not");
+        ABBREVIATIONS.put("doesn't", "does not");
+        ABBREVIATIONS.put("didn't", "did not");
+        ABBREVIATIONS.put("u", "you");
+        ABBREVIATIONS.put("ur", "your");
+        ABBREVIATIONS.put("thx", "thanks");
+        ABBREVIATIONS.put("plz", "please");
+        ABBREVIATIONS.put("pls", "please");
+        ABBREVIATIONS.put("btw", "by the way");
+        ABBREVIATIONS.put("omg", "oh my god");
+        ABBREVIATIONS.put("lol", "laugh out loud");
+        ABBREVIATIONS.put("asap", "as soon as possible");
+    }
+
+    public NlpService(
+            ModelRegistry modelRegistry,
+            StanfordCoreNLP stanfordCoreNlpEnglishTokenizer,
+            ExecutorService nlpTaskExecutor,
+            LaneScheduler laneScheduler,
+            SpellCheckService spellCheckService,
+            ChineseSpellChecker chineseSpellChecker,
+            AnnotationCache annotationCache,
+            SlowRequestSampler slowRequestSampler,
+            TrendTracker trendTracker,
+            NlpProperties nlpProperties) {
+        this.modelRegistry = modelRegistry;
+        this.stanfordCoreNlpEnglishTokenizer = stanfordCoreNlpEnglishTokenizer;
+        this.nlpTaskExecutor = nlpTaskExecutor;
+        this.laneScheduler = laneScheduler;
+        this.spellCheckService = spellCheckService;
+        this.chineseSpellChecker = chineseSpellChecker;
+        this.mixedScript = nlpProperties.getMixedScript();
+        this.defaultTimeoutMs = nlpProperties.getRequestTimeout().getDefaultTimeout().toMillis();
+        this.annotationCache = annotationCache;
+        this.slowRequestSampler = slowRequestSampler;
+        this.trendTracker = trendTracker;
+        this.tokenStreamCodec = new AnnotationCache.Codec<>() {
+            @Override
+            public byte[] encode(TokenStream value) {
+                return value.encode();
+            }
+
+            @Override
+            public TokenStream decode(String text, byte[] data) {
+                return TokenStream.decode(text, data);
+            }
+        };
+        this.spellCheckCodec = annotationCache.jsonCodec(NlpResponse.SpellCheckResult.class);
+
+        // 缓存版本由模型配置和依赖库版本决定，任何一项变化后之前缓存的结果都不再命中
+        long modelsVersion = Hashing.combine(CACHE_FORMAT_VERSION,
+                Hashing.fnv1a64(String.valueOf(nlpProperties.getModels())));
+        this.analysisVersion = Hashing.combine(modelsVersion, Hashing.fnv1a64(String.join("|",
+                String.valueOf(mixedScript),
+                String.valueOf(StanfordCoreNLP.class.getPackage().getImplementationVersion()),
+                String.valueOf(HanLP.class.getPackage().getImplementationVersion()),
+                Arrays.toString(HanLP.Config.CustomDictionaryPath))));
+        this.spellCheckVersion = Hashing.combine(Hashing.combine(modelsVersion, Hashing.fnv1a64(JLanguageTool.VERSION)),
+                chineseSpellChecker.version());
+    }
+
+    /**
+     * 处理NLP请求，处理时限取自请求的timeoutMs或默认配置
+     */
+    public NlpResponse process(NlpRequest request) {
+        return process(request, deadline(request.getTimeoutMs(), null));
+    }
+
+    /**
+     * 在截止时间内处理NLP请求
+     *
+     * 语言检测之后的每个阶段开始前检查剩余时间，不足以完成该阶段（按最近的平均耗时估算）时跳过，
+     * 在响应的skippedStages中标记；截止时间已过或已取消时不再开始处理。
+     */
+    public NlpResponse process(NlpRequest request, Deadline deadline) {
+        if (deadline.isExpired()) {
+            throw new DeadlineExceededException("请求在开始处理前已超过截止时间");
+        }
+        long startTime = System.currentTimeMillis();
+        
+        String text = request.getKeyword();
+        SlowRequestSampler.Timings timings = slowRequestSampler.start("process", text);
+        String language;
+        PreTokenized preTokens;
+        List<ScriptSegmenter.Span> spans;
+        // 自动检测语言时，中英文混排文本按文字脚本切分，各段分别交给对应的引擎；预分词的文本整段按检测到的语言处理
+        try (SlowRequestSampler.Stage stage = timings.begin("language")) {
+            language = detectLanguage(text, request.getLanguage());
+            timings.language(language);
+            preTokens = preTokenize(request);
+            spans = preTokens != null
+                    ? List.of(new ScriptSegmenter.Span(0, text.length(), language, 0))
+                    : splitScripts(text, request.getLanguage(), language);
+            stage.succeeded();
+        }
+        
+        NlpResponse.NlpResponseBuilder builder = NlpResponse.builder()
+                .originalText(text)
+                .detectedLanguage(language)
+                .languageSpans(toLanguageSpans(spans));
+        Map<String, String> skipped = new LinkedHashMap<>();
+
+        boolean tokenizationEnabled = shouldEnable(request.getEnableAll(), request.getEnableTokenization());
+        boolean nerEnabled = shouldEnable(request.getEnableAll(), request.getEnableNer());
+
+        // 分词、词性标注和命名实体识别共用一次标注结果
+        int[] spanTokenStarts = new int[spans.size() + 1];
+        TokenStream tokenStream = null;
+        if ((tokenizationEnabled || nerEnabled) && admit("analysis", language, deadline, skipped)) {
+            try (SlowRequestSampler.Stage stage = timings.begin("analysis")) {
+                tokenStream = analyze(text, spans, preTokens, language, spanTokenStarts);
+                stage.succeeded();
+            }
+        }
+
+        // 分词
+        if (tokenizationEnabled) {
+            builder.tokenStream(tokenStream);
+        }
+
+        // 纠错
+        if (shouldEnable(request.getEnableAll(), request.getEnableSpellCheck())
+                && admit("spellCheck", language, deadline, skipped)) {
+            try (SlowRequestSampler.Stage stage = timings.begin("spellCheck")) {
+                SpellCheckProfile profile = spellCheckService.resolveProfile(request.getSpellCheckProfile());
+                NlpResponse.SpellCheckResult spellCheck = checkSpelling(text, language, profile);
+                builder.spellCheck(spellCheck);
+                stage.succeeded();
+            }
+        }
+
+        // 大小写归一化
+        if (shouldEnable(request.getEnableAll(), request.getEnableNormalization())
+                && admit("normalization", language, deadline, skipped)) {
+            try (SlowRequestSampler.Stage stage = timings.begin("normalization")) {
+                String normalized = normalizeCase(text);
+                builder.normalizedText(normalized);
+                stage.succeeded();
+            }
+        }
+
+        // 缩写还原
+        if (shouldEnable(request.getEnableAll(), request.getEnableAbbreviationExpansion())
+                && admit("abbreviationExpansion", language, deadline, skipped)) {
+            try (SlowRequestSampler.Stage stage = timings.begin("abbreviationExpansion")) {
+                String expanded = expandAbbreviations(text);
+                builder.expandedText(expanded);
+                stage.succeeded();
+            }
+        }
+
+        // 表情符号处理
+        if (shouldEnable(request.getEnableAll(), request.getEnableEmojiProcessing())
+                && admit("emoji", language, deadline, skipped)) {
+            try (SlowRequestSampler.Stage stage = timings.begin("emoji")) {
+                NlpResponse.EmojiResult emojiResult = processEmojis(text, preTokens);
+                builder.emojiResult(emojiResult);
+                stage.succeeded();
+            }
+        }
+
+        // 命名实体识别（依赖标注结果，标注阶段被跳过时一并跳过）
+        List<NlpResponse.NamedEntity> namedEntities = null;
+        if (nerEnabled) {
+            if (tokenStream == null) {
+                skipped.put("ner", skipped.get("analysis"));
+            } else if (admit("ner", language, deadline, skipped)) {
+                try (SlowRequestSampler.Stage stage = timings.begin("ner")) {
+                    namedEntities = recognizeNamedEntities(tokenStream, spans, spanTokenStarts);
+                    builder.namedEntities(namedEntities);
+                    stage.succeeded();
+                }
+            }
+        }
+        trendTracker.record(tokenStream, namedEntities);
+
+        long endTime = System.currentTimeMillis();
+        builder.processingTime(endTime - startTime);
+        if (!skipped.isEmpty()) {
+            builder.skippedStages(skipped);
+        }
+        slowRequestSampler.finish(timings, () -> enabledFeatures(request, preTokens));
+
+        return builder.build();
+    }
+
+    /**
+     * 按请求的timeoutMs、调用方指定的时限和默认配置中最小的一个创建截止时间，都未指定时不限时间（仍可取消）
+     *
+     * @param callerTimeoutMs 调用方指定的时限（如请求头），可为null
+     */
+    public Deadline deadline(Long requestTimeoutMs, Long callerTimeoutMs) {
+        long timeoutMs = shorterTimeout(shorterTimeout(defaultTimeoutMs, requestTimeoutMs), callerTimeoutMs);
+        return timeoutMs > 0 ? Deadline.afterMillis(timeoutMs) : Deadline.unbounded();
+    }
+
+    /**
+     * 两个时限中较短的一个，0或null表示不限
+     */
+    private static long shorterTimeout(long timeoutMs, Long candidate) {
+        if (candidate == null || candidate <= 0) {
+            return timeoutMs;
+        }
+        return timeoutMs <= 0 ? candidate : Math.min(timeoutMs, candidate);
+    }
+
+    /**
+     * 剩余时间是否足够执行该阶段，不够时记录跳过原因
+     */
+    private boolean admit(String stage, String language, Deadline deadline, Map<String, String> skipped) {
+        long estimate = deadline.isBounded() ? slowRequestSampler.estimateNanos(stage, language) : 0;
+        if (deadline.allows(estimate)) {
+            return true;
+        }
+        skipped.put(stage, deadline.reason());
+        return false;
+    }
+
+    /**
+     * 分阶段处理NLP请求，每个阶段完成后立即通过listener输出该阶段的结果
+     *
+     * 分词（只分词，不做词性标注）、表情符号、归一化等廉价阶段在调用线程中依次执行；
+     * 词性标注/命名实体识别和拼写检查两个耗时阶段在交互队列中并行执行，谁先完成谁先输出，全部完成后回调onComplete。
+     * 方法在耗时阶段开始后即返回。
+     */
+    public void processStages(NlpRequest request, StageListener listener) {
+        processStages(request, Lane.INTERACTIVE, deadline(request.getTimeoutMs(), null), listener);
+    }
+
+    /**
+     * 在截止时间内分阶段处理NLP请求，剩余时间不足的阶段只输出跳过标记；客户端断开时取消deadline，尚未开始的阶段不再执行。
+     * 耗时阶段在请求所属类别的队列中执行，与同步请求共用标注工作线程，受同样的权重和并发上限约束
+     */
+    public void processStages(NlpRequest request, Lane lane, Deadline deadline, StageListener listener) {
+        if (deadline.isExpired()) {
+            throw new DeadlineExceededException("请求在开始处理前已超过截止时间");
+        }
+        long startTime = System.currentTimeMillis();
+
+        String text = request.getKeyword();
+        SlowRequestSampler.Timings timings = slowRequestSampler.start("stream", text);
+        String language;
+        PreTokenized preTokens;
+        List<ScriptSegmenter.Span> spans;
+        try (SlowRequestSampler.Stage stage = timings.begin("language")) {
+            language = detectLanguage(text, request.getLanguage());
+            timings.language(language);
+            preTokens = preTokenize(request);
+            spans = preTokens != null
+                    ? List.of(new ScriptSegmenter.Span(0, text.length(), language, 0))
+                    : splitScripts(text, request.getLanguage(), language);
+            stage.succeeded();
+        }
+
+        boolean tokenizationEnabled = shouldEnable(request.getEnableAll(), request.getEnableTokenization());
+        boolean nerEnabled = shouldEnable(request.getEnableAll(), request.getEnableNer());
+        boolean spellCheckEnabled = shouldEnable(request.getEnableAll(), request.getEnableSpellCheck());
+        // 在开始处理前校验，配置名称有误时直接报错而不是在流中途失败
+        SpellCheckProfile profile = spellCheckEnabled ? spellCheckService.resolveProfile(request.getSpellCheckProfile()) : null;
+
+        listener.onStage("language", NlpResponse.builder()
+                .originalText(text)
+                .detectedLanguage(language)
+                .languageSpans(toLanguageSpans(spans))
+                .build());
+
+        // 分词
+        if (tokenizationEnabled) {
+            runStage("tokens", language, deadline, listener, timings, () -> NlpResponse.builder()
+                    .tokens((preTokens != null ? preTokens.tokens() : tokenizeSpans(text, spans)).toWords())
+                    .build());
+        }
+
+        // 表情符号处理
+        if (shouldEnable(request.getEnableAll(), request.getEnableEmojiProcessing())) {
+            runStage("emoji", language, deadline, listener, timings, () -> NlpResponse.builder()
+                    .emojiResult(processEmojis(text, preTokens))
+                    .build());
+        }
+
+        // 大小写归一化和缩写还原
+        boolean normalizationEnabled = shouldEnable(request.getEnableAll(), request.getEnableNormalization());
+        boolean expansionEnabled = shouldEnable(request.getEnableAll(), request.getEnableAbbreviationExpansion());
+        if (normalizationEnabled || expansionEnabled) {
+            runStage("normalization", language, deadline, listener, timings, () -> NlpResponse.builder()
+                    .normalizedText(normalizationEnabled ? normalizeCase(text) : null)
+                    .expandedText(expansionEnabled ? expandAbbreviations(text) : null)
+                    .build());
+        }
+
+        Map<String, Runnable> slowStages = new LinkedHashMap<>();
+        // 词性标注和命名实体识别
+        if (tokenizationEnabled || nerEnabled) {
+            slowStages.put("ner", () -> runStage("ner", language, deadline, listener, timings, () -> {
+                int[] spanTokenStarts = new int[spans.size() + 1];
+                TokenStream tokenStream = analyze(text, spans, preTokens, language, spanTokenStarts);
+                List<NlpResponse.NamedEntity> namedEntities = nerEnabled
+                        ? recognizeNamedEntities(tokenStream, spans, spanTokenStarts)
+                        : null;
+                trendTracker.record(tokenStream, namedEntities);
+                return NlpResponse.builder()
+                        .tokenDetails(tokenizationEnabled ? tokenStream.toTokenInfos() : null)
+                        .namedEntities(namedEntities)
+                        .build();
+            }));
+        }
+        // 纠错
+        if (spellCheckEnabled) {
+            slowStages.put("spellCheck", () -> runStage("spellCheck", language, deadline, listener, timings, () -> NlpResponse.builder()
+                    .spellCheck(checkSpelling(text, language, profile))
+                    .build()));
+        }
+
+        AtomicInteger remaining = new AtomicInteger(slowStages.size());
+        Runnable complete = () -> {
+            listener.onComplete(NlpResponse.builder()
+                    .processingTime(System.currentTimeMillis() - startTime)
+                    .build());
+            slowRequestSampler.finish(timings, () -> enabledFeatures(request, preTokens));
+        };
+        if (slowStages.isEmpty()) {
+            complete.run();
+            return;
+        }
+        slowStages.forEach((stage, action) -> {
+            // 线程池中的线程只负责排队和等待，阶段本身在标注工作线程上执行。
+            // 截止时间由runStage在阶段开始前判断并输出跳过标记，这里等到阶段结束，保证done在所有阶段之后输出
+            nlpTaskExecutor.execute(() -> {
+                try {
+                    laneScheduler.run(lane, action);
+                } catch (RuntimeException e) {
+                    listener.onError(stage, e);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        complete.run();
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * 执行一个阶段，失败时只通知该阶段出错，不影响其他阶段
+     */
+    private void runStage(String stage, String language, Deadline deadline, StageListener listener,
+                          SlowRequestSampler.Timings timings, Supplier<NlpResponse> action) {
+        long estimate = deadline.isBounded() ? slowRequestSampler.estimateNanos(stage, language) : 0;
+        if (!deadline.allows(estimate)) {
+            listener.onStage(stage, NlpResponse.builder()
+                    .skippedStages(Map.of(stage, deadline.reason()))
+                    .build());
+            return;
+        }
+        NlpResponse result;
+        try (SlowRequestSampler.Stage timed = timings.begin(stage)) {
+            result = action.get();
+            timed.succeeded();
+        } catch (RuntimeException e) {
+            listener.onError(stage, e);
+            return;
+        }
+        listener.onStage(stage, result);
+    }
+
+    /**
+     * 分阶段处理的结果回调
+     */
+    public interface StageListener {
+
+        /**
+         * 阶段完成，result中只包含该阶段产生的字段
+         */
+        void onStage(String stage, NlpResponse result);
+
+        /**
+         * 阶段失败
+         */
+        void onError(String stage, Exception error);
+
+        /**
+         * 全部阶段结束，summary中包含总处理时间
+         */
+        void onComplete(NlpResponse summary);
+    }
+
+    /**
+     * 请求启用的功能名称（用于慢请求记录）
+     */
+    private List<String> enabledFeatures(NlpRequest request, PreTokenized preTokens) {
+        List<String> features = new ArrayList<>();
+        Boolean enableAll = request.getEnableAll();
+        if (shouldEnable(enableAll, request.getEnableTokenization())) {
+            features.add("tokenization");
+        }
+        if (shouldEnable(enableAll, request.getEnableNer())) {
+            features.add("ner");
+        }
+        if (shouldEnable(enableAll, request.getEnableSpellCheck())) {
+            features.add("spellCheck:" + (request.getSpellCheckProfile() != null ? request.getSpellCheckProfile() : "default"));
+        }
+        if (shouldEnable(enableAll, request.getEnableNormalization())) {
+            features.add("normalization");
+        }
+        if (shouldEnable(enableAll, request.getEnableAbbreviationExpansion())) {
+            features.add("abbreviationExpansion");
+        }
+        if (shouldEnable(enableAll, request.getEnableEmojiProcessing())) {
+            features.add("emoji");
+        }
+        if (preTokens != null) {
+            features.add(preTokens.hasSentences() ? "preTokenized+sentences" : "preTokenized");
+        }
+        return features;
+    }
+
+    /**
+     * 判断是否启用某个功能
+     */
+    private boolean shouldEnable(Boolean enableAll, Boolean specificEnable) {
+        if (enableAll != null && enableAll) {
+            return true;
+        }
+        return specificEnable != null && specificEnable;
+    }
+
+    /**
+     * 检测语言
+     */
+    public String detectLanguage(String text, String requestLanguage) {
+        if (requestLanguage != null && !"auto".equalsIgnoreCase(requestLanguage)) {
+            return requestLanguage;
+        }
+        
+        // 简单的语言检测：检查是否包含中文字符
+        Pattern chinesePattern = Pattern.compile("[\\u4e00-\\u9fa5]");
+        Matcher matcher = chinesePattern.matcher(text);
+        
+        if (matcher.find()) {
+            return "zh";
+        }
+        return "en";
+    }
+
+    /**
+     * 分词（只需要词边界时使用，英文不运行词性标注和NER）
+     */
+    public TokenStream tokenize(String text, String language) {
+        if ("zh".equalsIgnoreCase(language)) {
+            return segmentChinese(text);
+        }
+        // 分词标注器无可变状态，直接共享同一个实例
+        CoreDocument document = new CoreDocument(text);
+        stanfordCoreNlpEnglishTokenizer.annotate(document);
+        return toTokenStream(text, document);
+    }
+
+    /**
+     * 分词并标注词性和命名实体标签
+     */
+    public TokenStream analyze(String text, String language) {
+        if ("zh".equalsIgnoreCase(language)) {
+            return segmentChinese(text);
+        }
+        try (ModelRegistry.ModelHandle models = acquireModels(language, ModelRegistry.ModelHandle::pipelines)) {
+            CoreDocument document = models.pipelines().execute(pipeline -> {
+                CoreDocument annotated = new CoreDocument(text);
+                pipeline.annotate(annotated);
+                return annotated;
+            });
+            return toTokenStream(text, document);
+        }
+    }
+
+    /**
+     * 校验请求中的预分词结果，未提供时返回null
+     */
+    private PreTokenized preTokenize(NlpRequest request) {
+        if (request.getTokens() == null) {
+            if (request.getSentences() != null) {
+                throw new IllegalArgumentException("提供sentences时必须同时提供tokens");
+            }
+            return null;
+        }
+        return PreTokenized.of(request.getKeyword(), request.getTokens(), request.getSentences());
+    }
+
+    /**
+     * 词性标注和命名实体识别：有预分词结果时直接在其上标注，否则分段分析
+     */
+    private TokenStream analyze(String text, List<ScriptSegmenter.Span> spans, PreTokenized preTokens,
+                                String language, int[] spanTokenStarts) {
+        if (preTokens == null) {
+            return analyzeSpans(text, spans, spanTokenStarts);
+        }
+        TokenStream tokens = analyzePreTokenized(preTokens, language);
+        spanTokenStarts[spans.size()] = tokens.size();
+        return tokens;
+    }
+
+    /**
+     * 在预分词结果上标注词性和命名实体标签，不再运行分词（未提供分句时仍由CoreNLP分句）
+     */
+    private TokenStream analyzePreTokenized(PreTokenized preTokens, String language) {
+        if ("zh".equalsIgnoreCase(language)) {
+            return tagChinese(preTokens.tokens());
+        }
+        try (ModelRegistry.ModelHandle models = acquireModels(language, ModelRegistry.ModelHandle::pipelines)) {
+            Annotation annotation = models.pipelines().executeTokenized(preTokens.hasSentences(), pipeline -> {
+                Annotation annotated = toAnnotation(preTokens);
+                pipeline.annotate(annotated);
+                return annotated;
+            });
+            return toTokenStream(preTokens.tokens().text(), new CoreDocument(annotation));
+        }
+    }
+
+    /**
+     * 用HanLP的词性转移矩阵为已分好的中文词标注词性，词典中没有的词按名词处理
+     */
+    private TokenStream tagChinese(TokenStream tokens) {
+        List<Vertex> vertices = new ArrayList<>(tokens.size() + 2);
+        vertices.add(Vertex.newB());
+        for (int i = 0; i < tokens.size(); i++) {
+            String word = tokens.word(i);
+            CoreDictionary.Attribute attribute = CoreDictionary.get(word);
+            if (attribute == null) {
+                attribute = CustomDictionary.get(word);
+            }
+            vertices.add(attribute != null ? new Vertex(word, attribute) : new Vertex(word));
+        }
+        vertices.add(Vertex.newE());
+        Viterbi.compute(vertices, CoreDictionaryTransformMatrixDictionary.transformMatrixDictionary);
+
+        TokenStream.Builder builder = TokenStream.builder(tokens.text());
+        for (int i = 0; i < tokens.size(); i++) {
+            builder.add(tokens.begin(i), tokens.end(i), tokens.isVerbatim(i) ? null : tokens.word(i),
+                    TagDictionary.intern(vertices.get(i + 1).getNature().toString()), TagDictionary.NONE);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 把预分词结果转换为CoreNLP文档，词和句子上的注解与CoreNLP分词、分句标注器的输出一致
+     */
+    private Annotation toAnnotation(PreTokenized preTokens) {
+        TokenStream tokens = preTokens.tokens();
+        String text = tokens.text();
+        List<CoreLabel> labels = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            CoreLabel label = new CoreLabel();
+            String word = tokens.word(i);
+            label.setWord(word);
+            label.setValue(word);
+            label.setOriginalText(text.substring(tokens.begin(i), tokens.end(i)));
+            label.setBeginPosition(tokens.begin(i));
+            label.setEndPosition(tokens.end(i));
+            label.setBefore(text.substring(i == 0 ? 0 : tokens.end(i - 1), tokens.begin(i)));
+            label.setAfter(text.substring(tokens.end(i), i + 1 < tokens.size() ? tokens.begin(i + 1) : text.length()));
+            label.setIsNewline(false);
+            label.set(CoreAnnotations.TokenBeginAnnotation.class, i);
+            label.set(CoreAnnotations.TokenEndAnnotation.class, i + 1);
+            labels.add(label);
+        }
+
+        Annotation annotation = new Annotation(text);
+        annotation.set(CoreAnnotations.TokensAnnotation.class, labels);
+        if (preTokens.hasSentences()) {
+            List<CoreMap> sentences = new ArrayList<>(preTokens.sentenceCount());
+            for (int s = 0; s < preTokens.sentenceCount(); s++) {
+                int from = preTokens.sentenceStart(s);
+                int to = preTokens.sentenceStart(s + 1);
+                int begin = tokens.begin(from);
+                int end = tokens.end(to - 1);
+                List<CoreLabel> sentenceTokens = labels.subList(from, to);
+                for (int k = 0; k < sentenceTokens.size(); k++) {
+                    sentenceTokens.get(k).setIndex(k + 1);
+                    sentenceTokens.get(k).setSentIndex(s);
+                }
+                Annotation sentence = new Annotation(text.substring(begin, end));
+                sentence.set(CoreAnnotations.CharacterOffsetBeginAnnotation.class, begin);
+                sentence.set(CoreAnnotations.CharacterOffsetEndAnnotation.class, end);
+                sentence.set(CoreAnnotations.TokensAnnotation.class, sentenceTokens);
+                sentence.set(CoreAnnotations.TokenBeginAnnotation.class, from);
+                sentence.set(CoreAnnotations.TokenEndAnnotation.class, to);
+                sentence.set(CoreAnnotations.SentenceIndexAnnotation.class, s);
+                sentences.add(sentence);
+            }
+            annotation.set(CoreAnnotations.SentencesAnnotation.class, sentences);
+        }
+        return annotation;
+    }
+
+    /**
+     * 切分文本段：只有自动检测语言且文本同时包含汉字和拉丁字母时才会切成多段，否则整段使用检测到的语言
+     */
+    private List<ScriptSegmenter.Span> splitScripts(String text, String requestLanguage, String language) {
+        boolean auto = requestLanguage == null || "auto".equalsIgnoreCase(requestLanguage);
+        if (auto && mixedScript.isEnabled() && "zh".equals(language)) {
+            List<ScriptSegmenter.Span> spans = ScriptSegmenter.split(text, mixedScript.getMinLatinLetters());
+            if (spans.size() > 1) {
+                return spans;
+            }
+        }
+        return List.of(new ScriptSegmenter.Span(0, text.length(), language, 0));
+    }
+
+    /**
+     * 多段时返回各段的语言和位置，只有一段时返回null
+     */
+    private List<NlpResponse.LanguageSpan> toLanguageSpans(List<ScriptSegmenter.Span> spans) {
+        if (spans.size() <= 1) {
+            return null;
+        }
+        return spans.stream()
+                .map(span -> NlpResponse.LanguageSpan.builder()
+                        .language(span.language())
+                        .startPosition(span.start())
+                        .endPosition(span.end())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 分段分词（不做词性标注）并合并为一个词序列
+     */
+    private TokenStream tokenizeSpans(String text, List<ScriptSegmenter.Span> spans) {
+        if (spans.size() == 1) {
+            return tokenize(text, spans.get(0).language());
+        }
+        TokenStream.Builder builder = TokenStream.builder(text);
+        for (ScriptSegmenter.Span span : spans) {
+            builder.addAll(tokenize(text.substring(span.start(), span.end()), span.language()), span.start());
+        }
+        return builder.build();
+    }
+
+    /**
+     * 分段分析并合并为一个词序列，偏移量换算为全文偏移；tokenStarts[i]记录第i段的第一个词的下标
+     *
+     * 中文段在当前线程用HanLP处理，英文段借用一个CoreNLP管道依次处理。两组文本都足够长时英文段提交到线程池，
+     * 当前线程处理完中文段后若英文段仍未开始则自己执行，线程池繁忙时不会因等待而阻塞。
+     */
+    private TokenStream analyzeSpans(String text, List<ScriptSegmenter.Span> spans, int[] tokenStarts) {
+        String namespace = "analysis:" + (spans.size() == 1 ? spans.get(0).language() : "mixed");
+        TokenStream tokens = annotationCache.getOrCompute(namespace, text, analysisVersion, tokenStreamCodec,
+                () -> doAnalyzeSpans(text, spans));
+        int index = 0;
+        for (int i = 0; i < spans.size(); i++) {
+            while (index < tokens.size() && tokens.begin(index) < spans.get(i).start()) {
+                index++;
+            }
+            tokenStarts[i] = index;
+        }
+        tokenStarts[spans.size()] = tokens.size();
+        return tokens;
+    }
+
+    private TokenStream doAnalyzeSpans(String text, List<ScriptSegmenter.Span> spans) {
+        if (spans.size() == 1) {
+            return analyze(text, spans.get(0).language());
+        }
+
+        TokenStream[] results = new TokenStream[spans.size()];
+        int chineseLength = 0;
+        int otherLength = 0;
+        for (ScriptSegmenter.Span span : spans) {
+            if ("zh".equals(span.language())) {
+                chineseLength += span.length();
+            } else {
+                otherLength += span.length();
+            }
+        }
+
+        FutureTask<Void> otherSpans = new FutureTask<>(() -> {
+            analyzeNonChineseSpans(text, spans, results);
+            return null;
+        });
+        boolean parallel = Math.min(chineseLength, otherLength) >= mixedScript.getParallelMinLength();
+        if (parallel) {
+            nlpTaskExecutor.execute(otherSpans);
+        }
+        for (int i = 0; i < spans.size(); i++) {
+            ScriptSegmenter.Span span = spans.get(i);
+            if ("zh".equals(span.language())) {
+                results[i] = segmentChinese(text.substring(span.start(), span.end()));
+            }
+        }
+        // 未开始时由当前线程执行；已在线程池中运行时run()直接返回，get()等待其完成
+        otherSpans.run();
+        try {
+            otherSpans.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("分段处理时被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        TokenStream.Builder builder = TokenStream.builder(text);
+        for (int i = 0; i < spans.size(); i++) {
+            builder.addAll(results[i], spans.get(i).start());
+        }
+        return builder.build();
+    }
+
+    /**
+     * 用同一个CoreNLP管道依次处理所有非中文段
+     */
+    private void analyzeNonChineseSpans(String text, List<ScriptSegmenter.Span> spans, TokenStream[] results) {
+        String language = null;
+        for (ScriptSegmenter.Span span : spans) {
+            if (!"zh".equals(span.language())) {
+                language = span.language();
+                break;
+            }
+        }
+        if (language == null) {
+            return;
+        }
+        try (ModelRegistry.ModelHandle models = acquireModels(language, ModelRegistry.ModelHandle::pipelines)) {
+            models.pipelines().execute(pipeline -> {
+                for (int i = 0; i < spans.size(); i++) {
+                    ScriptSegmenter.Span span = spans.get(i);
+                    if (!"zh".equals(span.language())) {
+                        String spanText = text.substring(span.start(), span.end());
+                        CoreDocument document = new CoreDocument(spanText);
+                        pipeline.annotate(document);
+                        results[i] = toTokenStream(spanText, document);
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 获取语言模型；该语言没有所需的模型时回退到默认语言的模型
+     */
+    private ModelRegistry.ModelHandle acquireModels(String language, Function<ModelRegistry.ModelHandle, Object> required) {
+        ModelRegistry.ModelHandle models = modelRegistry.acquire(language);
+        if (required.apply(models) != null) {
+            return models;
+        }
+        models.close();
+        return modelRegistry.acquire(null);
+    }
+
+    /**
+     * 使用HanLP进行中文分词和词性标注
+     */
+    private TokenStream segmentChinese(String text) {
+        TokenStream.Builder builder = TokenStream.builder(text);
+        int position = 0;
+        for (Term term : HanLP.segment(text)) {
+            int begin = text.startsWith(term.word, position) ? position : text.indexOf(term.word, position);
+            if (begin < 0) {
+                begin = position;
+            }
+            int end = Math.min(begin + term.word.length(), text.length());
+            builder.add(begin, end, term.word, TagDictionary.intern(term.nature.toString()), TagDictionary.NONE);
+            position = end;
+        }
+        return builder.build();
+    }
+
+    /**
+     * 将Stanford CoreNLP的标注结果转换为词序列
+     */
+    private TokenStream toTokenStream(String text, CoreDocument document) {
+        TokenStream.Builder builder = TokenStream.builder(text);
+        for (CoreLabel token : document.tokens()) {
+            builder.add(token.beginPosition(), token.endPosition(), token.word(),
+                    TagDictionary.intern(token.get(CoreAnnotations.PartOfSpeechAnnotation.class)),
+                    TagDictionary.intern(token.get(CoreAnnotations.NamedEntityTagAnnotation.class)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 拼写检查，结果按语言和规则配置缓存；检查失败时返回无错误的结果，不写入缓存
+     */
+    private NlpResponse.SpellCheckResult checkSpelling(String text, String language, SpellCheckProfile profile) {
+        try {
+            return annotationCache.getOrCompute("spell:" + language + ":" + profile.getName(), text,
+                    Hashing.combine(spellCheckVersion, Hashing.fnv1a64(profile.toString())), spellCheckCodec,
+                    () -> doCheckSpelling(text, language, profile));
+        } catch (ModelUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            return NlpResponse.SpellCheckResult.builder()
+                    .correctedText(text)
+                    .errors(Collections.emptyList())
+                    .hasErrors(false)
+                    .build();
+        }
+    }
+
+    private NlpResponse.SpellCheckResult doCheckSpelling(String text, String language, SpellCheckProfile profile) {
+        if ("zh".equals(language) && chineseSpellChecker.isEnabled()) {
+            return checkChineseSpelling(text);
+        }
+        try (ModelRegistry.ModelHandle models = acquireModels(language, ModelRegistry.ModelHandle::languageTools)) {
+            List<RuleMatch> matches = spellCheckService.check(models.languageTools(), text, profile);
+            List<NlpResponse.SpellError> errors = new ArrayList<>();
+            String correctedText = text;
+            
+            // 从后往前替换，避免位置偏移
+            List<RuleMatch> reversedMatches = new ArrayList<>(matches);
+            Collections.reverse(reversedMatches);
+            
+            for (RuleMatch match : reversedMatches) {
+                List<String> suggestions = match.getSuggestedReplacements();
+                
+                errors.add(NlpResponse.SpellError.builder()
+                        .original(text.substring(match.getFromPos(), match.getToPos()))
+                        .suggestions(suggestions.isEmpty() ? Collections.emptyList() : 
+                                suggestions.subList(0, Math.min(3, suggestions.size())))
+                        .message(match.getMessage())
+                        .position(match.getFromPos())
+                        .build());
+                
+                // 如果有建议，使用第一个建议进行纠正
+                if (!suggestions.isEmpty()) {
+                    correctedText = correctedText.substring(0, match.getFromPos()) 
+                            + suggestions.get(0) 
+                            + correctedText.substring(match.getToPos());
+                }
+            }
+            
+            Collections.reverse(errors); // 恢复原始顺序
+            
+            return NlpResponse.SpellCheckResult.builder()
+                    .correctedText(correctedText)
+                    .errors(errors)
+                    .hasErrors(!errors.isEmpty())
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 使用混淆集检查中文错别字，不需要LanguageTool实例，规则配置对其不起作用
+     */
+    private NlpResponse.SpellCheckResult checkChineseSpelling(String text) {
+        List<ChineseSpellChecker.Correction> corrections = chineseSpellChecker.check(text);
+        List<NlpResponse.SpellError> errors = new ArrayList<>(corrections.size());
+        StringBuilder correctedText = new StringBuilder(text);
+        for (int i = corrections.size() - 1; i >= 0; i--) {
+            ChineseSpellChecker.Correction correction = corrections.get(i);
+            correctedText.replace(correction.start(), correction.end(), correction.suggestions().get(0));
+        }
+        for (ChineseSpellChecker.Correction correction : corrections) {
+            errors.add(NlpResponse.SpellError.builder()
+                    .original(correction.original())
+                    .suggestions(correction.suggestions())
+                    .message(correction.message())
+                    .position(correction.start())
+                    .build());
+        }
+        return NlpResponse.SpellCheckResult.builder()
+                .correctedText(correctedText.toString())
+                .errors(errors)
+                .hasErrors(!errors.isEmpty())
+                .build();
+    }
+
+    /**
+     * 大小写归一化
+     */
+    private String normalizeCase(String text) {
+        // 转换为小写
+        return text.toLowerCase();
+    }
+
+    /**
+     * 缩写还原
+     */
+    private String expandAbbreviations(String text) {
+        String result = text;
+        
+        // 使用正则表达式匹配单词边界，避免部分匹配
+        for (Map.Entry<String, String> entry : ABBREVIATIONS.entrySet()) {
+            String pattern = "\\b" + Pattern.quote(entry.getKey()) + "\\b";
+            result = result.replaceAll("(?i)" + pattern, entry.getValue());
+        }
+        
+        return result;
+    }
+
+    /**
+     * 表情符号处理；有预分词结果时只解析可能含表情符号的词（含代理对或符号类字符），全是普通文字的词直接跳过
+     */
+    private NlpResponse.EmojiResult processEmojis(String text, PreTokenized preTokens) {
+        if (preTokens == null) {
+            return processEmojis(text);
+        }
+        TokenStream tokens = preTokens.tokens();
+        StringBuilder candidates = null;
+        StringBuilder withoutEmojis = null;
+        int copied = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (!mayContainEmoji(text, tokens.begin(i), tokens.end(i))) {
+                continue;
+            }
+            if (candidates == null) {
+                candidates = new StringBuilder();
+                withoutEmojis = new StringBuilder(text.length());
+            }
+            String word = text.substring(tokens.begin(i), tokens.end(i));
+            candidates.append(word).append(' ');
+            withoutEmojis.append(text, copied, tokens.begin(i)).append(EmojiParser.removeAllEmojis(word));
+            copied = tokens.end(i);
+        }
+        if (candidates == null) {
+            return NlpResponse.EmojiResult.builder()
+                    .textWithoutEmojis(text)
+                    .emojis(new ArrayList<>())
+                    .emojiCount(0)
+                    .build();
+        }
+        NlpResponse.EmojiResult result = processEmojis(candidates.toString());
+        result.setTextWithoutEmojis(withoutEmojis.append(text, copied, text.length()).toString());
+        return result;
+    }
+
+    private boolean mayContainEmoji(String text, int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            char c = text.charAt(i);
+            // 表情符号都在U+2000之后（©®除外），其中的非字母数字字符才需要交给emoji-java解析
+            if (Character.isSurrogate(c) || (c >= 0x2000 && !Character.isLetterOrDigit(c)) || c == 0x00A9 || c == 0x00AE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 表情符号处理
+     */
+    private NlpResponse.EmojiResult processEmojis(String text) {
+        // 提取所有表情符号
+        List<NlpResponse.EmojiInfo> emojiInfos = new ArrayList<>();
+        
+        // 使用emoji-java库解析表情符号
+        List<com.vdurmont.emoji.Emoji> emojis = EmojiParser.extractEmojis(text).stream()
+                .map(emojiStr -> com.vdurmont.emoji.EmojiManager.getByUnicode(emojiStr))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        
+        for (com.vdurmont.emoji.Emoji emoji : emojis) {
+            emojiInfos.add(NlpResponse.EmojiInfo.builder()
+                    .emoji(emoji.getUnicode())
+                    .description(emoji.getDescription())
+                    .unicode(emoji.getUnicode())
+                    .build());
+        }
+        
+        // 移除表情符号
+        String textWithoutEmojis = EmojiParser.removeAllEmojis(text);
+        
+        return NlpResponse.EmojiResult.builder()
+                .textWithoutEmojis(textWithoutEmojis)
+                .emojis(emojiInfos)
+                .emojiCount(emojiInfos.size())
+                .build();
+    }
+
+    /**
+     * 按段识别命名实体，每段使用该段语言对应的规则
+     */
+    private List<NlpResponse.NamedEntity> recognizeNamedEntities(TokenStream tokens, List<ScriptSegmenter.Span> spans,
+                                                                 int[] spanTokenStarts) {
+        List<NlpResponse.NamedEntity> entities = new ArrayList<>();
+        for (int i = 0; i < spans.size(); i++) {
+            entities.addAll(recognizeNamedEntities(tokens, spans.get(i).language(),
+                    spanTokenStarts[i], spanTokenStarts[i + 1]));
+        }
+        return entities;
+    }
+
+    /**
+     * 命名实体识别（只处理下标在 [from, to) 区间的词）
+     */
+    private List<NlpResponse.NamedEntity> recognizeNamedEntities(TokenStream tokens, String language, int from, int to) {
+        List<NlpResponse.NamedEntity> entities = new ArrayList<>();
+        
+        if ("zh".equalsIgnoreCase(language)) {
+            // 根据HanLP的词性标注识别中文命名实体
+            extractChineseEntities(tokens, from, to, entities);
+        } else {
+            // 使用Stanford CoreNLP的NER标签
+            extractEnglishEntities(tokens, from, to, entities);
+        }
+        
+        return entities;
+    }
+    
+    /**
+     * 根据HanLP词性提取中文命名实体
+     */
+    private void extractChineseEntities(TokenStream tokens, int from, int to, List<NlpResponse.NamedEntity> entities) {
+        for (int i = from; i < to; i++) {
+            String nature = TagDictionary.name(tokens.pos(i));
+            String entityType = null;
+            
+            // 根据HanLP的词性标注判断实体类型
+            if (nature.startsWith("nr")) {
+                // nr: 人名
+                entityType = "PERSON";
+            } else if (nature.startsWith("ns")) {
+                // ns: 地名
+                entityType = "LOCATION";
+            } else if (nature.startsWith("nt")) {
+                // nt: 机构团体名
+                entityType = "ORGANIZATION";
+            } else if (nature.startsWith("nz")) {
+                // nz: 其他专名（可能是机构或品牌）
+                entityType = "ORGANIZATION";
+            }
+            
+            if (entityType != null) {
+                entities.add(NlpResponse.NamedEntity.builder()
+                        .text(tokens.word(i))
+                        .type(entityType)
+                        .startPosition(tokens.begin(i))
+                        .endPosition(tokens.end(i))
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * 根据CoreNLP的NER标签提取英文命名实体
+     */
+    private void extractEnglishEntities(TokenStream tokens, int from, int to, List<NlpResponse.NamedEntity> entities) {
+        int outside = TagDictionary.intern("O");
+        
+        int i = from;
+        while (i < to) {
+            int ner = tokens.ner(i);
+            
+            if (ner != TagDictionary.NONE && ner != outside) {
+                StringBuilder entityText = tokens.appendWord(i, new StringBuilder());
+                
+                // 合并连续的相同类型实体
+                int j = i + 1;
+                while (j < to && tokens.ner(j) == ner) {
+                    tokens.appendWord(j, entityText.append(' '));
+                    j++;
+                }
+                
+                entities.add(NlpResponse.NamedEntity.builder()
+                        .text(entityText.toString())
+                        .type(TagDictionary.name(ner))
+                        .startPosition(tokens.begin(i))
+                        .endPosition(tokens.end(j - 1))
+                        .build());
+                
+                i = j;
+            } else {
+                i++;
+            }
+        }
+    }
+}
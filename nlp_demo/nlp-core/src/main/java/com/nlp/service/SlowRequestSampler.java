@@ -0,0 +1,247 @@
+package com.nlp.service;
+
+import com.nlp.config.NlpProperties;
+import com.nlp.jfr.StageEvent;
+import com.nlp.model.SlowRequest;
+import com.nlp.util.Hashing;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * 慢请求采样器
+ *
+ * 总耗时超过阈值的请求写入固定大小的环形缓冲区，写入位置由原子计数器分配，写满后覆盖最旧的记录，写入和读取都不加锁。
+ * 未超过阈值的请求每个阶段的开销为两次System.nanoTime()、一个StageEvent对象、一次同步的耗时追加和一次平均耗时更新；
+ * 平均耗时按阶段、语言两级查找已有的计数器，不拼接字符串键。
+ * 各阶段同时作为JFR事件（{@link StageEvent}）输出，未开启记录时事件不会提交。
+ * 成功完成的阶段按阶段和语言累计指数加权平均耗时，请求带有截止时间时据此判断剩余时间是否来得及执行某个阶段。
+ */
+public class SlowRequestSampler {
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final int capacity;
+    private final AtomicReferenceArray<SlowRequest> buffer;
+    private final AtomicLong sequence = new AtomicLong();
+    /**
+     * 阶段 -> 语言 -> 平均耗时（纳秒），没有记录时为-1
+     */
+    private final Map<String, Map<String, AtomicLong>> stageCosts = new ConcurrentHashMap<>();
+
+    public SlowRequestSampler(NlpProperties properties) {
+        NlpProperties.SlowRequests config = properties.getSlowRequests();
+        this.enabled = config.isEnabled();
+        this.thresholdNanos = config.getThreshold().toNanos();
+        this.capacity = Math.max(1, config.getCapacity());
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * 开始计时
+     *
+     * @param mode 处理方式（process、stream）
+     */
+    public Timings start(String mode, String text) {
+        return new Timings(this, mode, text);
+    }
+
+    /**
+     * 阶段的预计耗时（纳秒），按该语言最近成功完成的耗时加权平均；没有记录时为0
+     */
+    public long estimateNanos(String stage, String language) {
+        Map<String, AtomicLong> byLanguage = stageCosts.get(stage);
+        AtomicLong cost = byLanguage == null ? null : byLanguage.get(languageKey(language));
+        return cost == null ? 0 : Math.max(0, cost.get());
+    }
+
+    /**
+     * 请求结束时调用，总耗时超过阈值时记录
+     *
+     * @param features 启用的功能，只在需要记录时才计算
+     */
+    public void finish(Timings timings, Supplier<List<String>> features) {
+        long totalNanos = System.nanoTime() - timings.startNanos;
+        if (!enabled || totalNanos < thresholdNanos) {
+            return;
+        }
+        SlowRequest record = SlowRequest.builder()
+                .timestamp(Instant.now())
+                .mode(timings.mode)
+                .totalMillis(toMillis(totalNanos))
+                .fingerprint(Long.toHexString(Hashing.fnv1a64(timings.text)))
+                .textLength(timings.text.length())
+                .language(timings.language)
+                .features(features.get())
+                .stageMillis(timings.toMillis())
+                .build();
+        long slot = sequence.getAndIncrement();
+        buffer.set((int) (slot % capacity), record);
+    }
+
+    /**
+     * 最近的慢请求，按完成时间从新到旧排列
+     */
+    public Map<String, Object> snapshot(int limit) {
+        List<SlowRequest> records = new ArrayList<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            SlowRequest record = buffer.get(i);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        records.sort(Comparator.comparing(SlowRequest::getTimestamp).reversed());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("thresholdMillis", toMillis(thresholdNanos));
+        result.put("capacity", capacity);
+        result.put("recorded", sequence.get());
+        result.put("requests", records.subList(0, Math.min(limit, records.size())));
+        Map<String, Double> costs = new TreeMap<>();
+        stageCosts.forEach((stage, byLanguage) -> byLanguage.forEach((language, cost) -> {
+            if (cost.get() >= 0) {
+                costs.put(stage + "/" + language, toMillis(cost.get()));
+            }
+        }));
+        result.put("stageCostMillis", costs);
+        return result;
+    }
+
+    private void recordCost(String stage, String language, long nanos) {
+        // 权重1/8，单次异常耗时对估计的影响有限，耗时持续变化时几十个请求内跟上
+        stageCost(stage, languageKey(language))
+                .accumulateAndGet(nanos, (average, sample) -> average < 0 ? sample : average + (sample - average) / 8);
+    }
+
+    /**
+     * 阶段和语言对应的计数器；已存在时只有两次查找，只在第一次出现时创建
+     */
+    private AtomicLong stageCost(String stage, String language) {
+        Map<String, AtomicLong> byLanguage = stageCosts.get(stage);
+        if (byLanguage == null) {
+            byLanguage = stageCosts.computeIfAbsent(stage, key -> new ConcurrentHashMap<>());
+        }
+        AtomicLong cost = byLanguage.get(language);
+        if (cost == null) {
+            cost = byLanguage.computeIfAbsent(language, key -> new AtomicLong(-1));
+        }
+        return cost;
+    }
+
+    /**
+     * 语言检测之前开始的阶段没有语言
+     */
+    private static String languageKey(String language) {
+        return language == null ? "none" : language;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    /**
+     * 一个请求的各阶段耗时；分阶段推送时多个阶段在不同线程中完成，因此记录方法是同步的
+     */
+    public static final class Timings {
+
+        private final long startNanos = System.nanoTime();
+        private final SlowRequestSampler sampler;
+        private final String mode;
+        private final String text;
+        private volatile String language;
+        private String[] stages = new String[8];
+        private long[] durations = new long[8];
+        private int count;
+
+        private Timings(SlowRequestSampler sampler, String mode, String text) {
+            this.sampler = sampler;
+            this.mode = mode;
+            this.text = text;
+        }
+
+        /**
+         * 设置检测到的语言，之后开始的阶段都带有该语言
+         */
+        public void language(String language) {
+            this.language = language;
+        }
+
+        /**
+         * 开始一个阶段；阶段正常结束时调用 {@link Stage#succeeded()}，未调用就关闭的阶段记为失败
+         */
+        public Stage begin(String stage) {
+            return new Stage(this, stage);
+        }
+
+        private synchronized void add(String stage, long nanos) {
+            if (count == stages.length) {
+                stages = Arrays.copyOf(stages, count * 2);
+                durations = Arrays.copyOf(durations, count * 2);
+            }
+            stages[count] = stage;
+            durations[count++] = nanos;
+        }
+
+        private synchronized Map<String, Double> toMillis() {
+            Map<String, Double> millis = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                millis.merge(stages[i], SlowRequestSampler.toMillis(durations[i]), Double::sum);
+            }
+            return millis;
+        }
+    }
+
+    /**
+     * 一个进行中的阶段，配合try-with-resources使用
+     */
+    public static final class Stage implements AutoCloseable {
+
+        private final Timings timings;
+        private final String name;
+        private final long startNanos;
+        private final StageEvent event = new StageEvent();
+        private boolean succeeded;
+        private boolean closed;
+
+        private Stage(Timings timings, String name) {
+            this.timings = timings;
+            this.name = name;
+            event.begin();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * 标记阶段正常完成
+         */
+        public void succeeded() {
+            succeeded = true;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            long nanos = System.nanoTime() - startNanos;
+            timings.add(name, nanos);
+            if (succeeded) {
+                timings.sampler.recordCost(name, timings.language, nanos);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = name;
+                event.mode = timings.mode;
+                event.language = timings.language;
+                event.textLength = timings.text.length();
+                event.outcome = succeeded ? "success" : "error";
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.nlp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlp.config.NlpProperties;
+import com.nlp.model.SpellCheckProfile;
+import com.nlp.model.SpellCheckProfiles;
+import com.nlp.pipeline.LanguageToolPool;
+import com.nlp.util.LatencyHistogram;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 拼写检查服务
+ *
+ * 按请求选择的规则配置借用LanguageTool实例执行检查。规则配置从JSON文件加载，配置了外部文件时
+ * 定期检查修改时间并自动重新加载，无需重启。按采样率抽取部分请求，在线程池中逐条规则重新执行一遍并计时，
+ * 累计出各规则的耗时占比，用于找出代价高、价值低的规则。
+ */
+public class SpellCheckService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpellCheckService.class);
+
+    private static final String BUILTIN_PROFILES = "spell-check-profiles.json";
+
+    private final ObjectMapper objectMapper;
+    private final NlpProperties.SpellCheck config;
+    private final ExecutorService nlpTaskExecutor;
+    private final ScheduledExecutorService watcher;
+
+    private volatile Profiles profiles;
+    private final Set<LanguageToolPool> pools = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private final Map<String, LatencyHistogram> checkLatency = new ConcurrentHashMap<>();
+    private final Map<String, RuleCost> ruleCosts = new ConcurrentHashMap<>();
+    private final AtomicLong sampledChecks = new AtomicLong();
+
+    public SpellCheckService(ObjectMapper objectMapper, NlpProperties properties,
+                             ExecutorService nlpTaskExecutor) {
+        this.objectMapper = objectMapper;
+        this.config = properties.getSpellCheck();
+        this.nlpTaskExecutor = nlpTaskExecutor;
+        this.profiles = load();
+
+        long interval = config.getReloadInterval().toMillis();
+        if (externalFile() != null && interval > 0) {
+            this.watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "nlp-spell-check-profiles");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(this::reloadIfModified, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.watcher = null;
+        }
+    }
+
+    public void shutdown() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    /**
+     * 解析请求中的配置名称，为空时使用默认配置
+     */
+    public SpellCheckProfile resolveProfile(String name) {
+        Profiles current = profiles;
+        if (name == null || name.isBlank()) {
+            return current.byName().get(current.defaultProfile());
+        }
+        SpellCheckProfile profile = current.byName().get(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("未知的拼写检查配置: " + name + "，可选: " + current.byName().keySet());
+        }
+        return profile;
+    }
+
+    /**
+     * 使用指定配置检查文本
+     */
+    public List<RuleMatch> check(LanguageToolPool pool, String text, SpellCheckProfile profile) throws IOException {
+        pools.add(pool);
+        JLanguageTool tool = pool.borrow(profile);
+        long start = System.nanoTime();
+        try {
+            return tool.check(text);
+        } finally {
+            checkLatency.computeIfAbsent(profile.getName(), key -> new LatencyHistogram())
+                    .record(System.nanoTime() - start);
+            pool.release(profile, tool);
+            if (config.getRuleSampleRate() > 0 && ThreadLocalRandom.current().nextDouble() < config.getRuleSampleRate()) {
+                sampleRuleCosts(pool, text, profile);
+            }
+        }
+    }
+
+    /**
+     * 当前加载的全部配置
+     */
+    public Map<String, Object> listProfiles() {
+        Profiles current = profiles;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("defaultProfile", current.defaultProfile());
+        result.put("source", current.source());
+        result.put("loadedAt", current.loadedAt().toString());
+        result.put("profiles", new ArrayList<>(current.byName().values()));
+        return result;
+    }
+
+    /**
+     * 立即重新加载配置，配置文件有误时抛出异常并保留原配置
+     */
+    public synchronized Map<String, Object> reload() {
+        Profiles loaded = load();
+        profiles = loaded;
+        for (LanguageToolPool pool : snapshotPools()) {
+            pool.retain(loaded.byName().values());
+        }
+        log.info("已重新加载拼写检查配置: {} {}", loaded.source(), loaded.byName().keySet());
+        return listProfiles();
+    }
+
+    /**
+     * 拼写检查指标：各配置的检查延迟、采样得到的各规则耗时（按累计耗时从高到低）
+     */
+    public Map<String, Object> metrics(int limit) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("ruleSampleRate", config.getRuleSampleRate());
+        metrics.put("sampledChecks", sampledChecks.get());
+
+        Map<String, Object> latency = new TreeMap<>();
+        checkLatency.forEach((profile, histogram) -> latency.put(profile, histogram.snapshot()));
+        metrics.put("checkLatency", latency);
+
+        List<RuleCost> costs = new ArrayList<>(ruleCosts.values());
+        costs.sort(Comparator.comparingLong((RuleCost cost) -> cost.nanos.sum()).reversed());
+        Map<String, Long> languageTotals = costs.stream()
+                .collect(Collectors.groupingBy(cost -> cost.language, Collectors.summingLong(cost -> cost.nanos.sum())));
+
+        List<Map<String, Object>> rules = new ArrayList<>();
+        for (RuleCost cost : costs.subList(0, Math.min(limit, costs.size()))) {
+            long samples = cost.samples.sum();
+            long nanos = cost.nanos.sum();
+            long languageTotal = languageTotals.getOrDefault(cost.language, 0L);
+            Map<String, Object> rule = new LinkedHashMap<>();
+            rule.put("language", cost.language);
+            rule.put("ruleId", cost.ruleId);
+            rule.put("category", cost.category);
+            rule.put("samples", samples);
+            rule.put("totalMs", nanos / 1_000_000.0);
+            rule.put("meanMs", samples == 0 ? 0.0 : nanos / 1_000_000.0 / samples);
+            rule.put("maxMs", cost.maxNanos.get() / 1_000_000.0);
+            rule.put("share", languageTotal == 0 ? 0.0 : (double) nanos / languageTotal);
+            rule.put("matches", cost.matches.sum());
+            rules.add(rule);
+        }
+        metrics.put("rules", rules);
+        return metrics;
+    }
+
+    /**
+     * 在线程池中借用另一个实例，逐条规则执行并计时；只用于统计，不影响请求结果
+     */
+    private void sampleRuleCosts(LanguageToolPool pool, String text, SpellCheckProfile profile) {
+        try {
+            nlpTaskExecutor.execute(() -> {
+                JLanguageTool tool = pool.borrow(profile);
+                try {
+                    List<AnalyzedSentence> sentences = tool.analyzeText(text);
+                    AnnotatedText annotatedText = new AnnotatedTextBuilder().addText(text).build();
+                    String language = pool.getLanguage().getShortCodeWithCountryAndVariant();
+                    for (Rule rule : tool.getAllActiveRules()) {
+                        long start = System.nanoTime();
+                        int matches = 0;
+                        if (rule instanceof TextLevelRule textLevelRule) {
+                            matches = textLevelRule.match(sentences, annotatedText).length;
+                        } else {
+                            for (AnalyzedSentence sentence : sentences) {
+                                matches += rule.match(sentence).length;
+                            }
+                        }
+                        long elapsed = System.nanoTime() - start;
+                        String category = rule.getCategory() != null ? rule.getCategory().getId().toString() : null;
+                        ruleCosts.computeIfAbsent(language + "/" + rule.getId(),
+                                key -> new RuleCost(language, rule.getId(), category))
+                                .record(elapsed, matches);
+                    }
+                    sampledChecks.incrementAndGet();
+                } catch (Exception e) {
+                    log.debug("规则耗时采样失败: {}", e.getMessage());
+                } finally {
+                    pool.release(profile, tool);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 线程池已关闭，放弃本次采样
+        }
+    }
+
+    private void reloadIfModified() {
+        try {
+            Path file = externalFile();
+            if (file != null && Files.exists(file)
+                    && Files.getLastModifiedTime(file).toMillis() != profiles.lastModified()) {
+                reload();
+            }
+        } catch (Exception e) {
+            log.warn("重新加载拼写检查配置失败，继续使用原配置: {}", e.getMessage());
+        }
+    }
+
+    private Profiles load() {
+        Path file = externalFile();
+        try {
+            if (file == null) {
+                try (InputStream in = SpellCheckService.class.getClassLoader().getResourceAsStream(BUILTIN_PROFILES)) {
+                    if (in == null) {
+                        throw new IllegalStateException("找不到内置的拼写检查配置: " + BUILTIN_PROFILES);
+                    }
+                    return toProfiles(objectMapper.readValue(in, SpellCheckProfiles.class), "classpath:" + BUILTIN_PROFILES, 0);
+                }
+            }
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            return toProfiles(objectMapper.readValue(file.toFile(), SpellCheckProfiles.class), file.toString(), lastModified);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取拼写检查配置失败: " + (file != null ? file : BUILTIN_PROFILES), e);
+        }
+    }
+
+    private Profiles toProfiles(SpellCheckProfiles parsed, String source, long lastModified) {
+        if (parsed.getProfiles() == null || parsed.getProfiles().isEmpty()) {
+            throw new IllegalStateException("拼写检查配置为空: " + source);
+        }
+        Map<String, SpellCheckProfile> byName = new LinkedHashMap<>();
+        for (SpellCheckProfile profile : parsed.getProfiles()) {
+            if (profile.getName() == null || profile.getName().isBlank()) {
+                throw new IllegalStateException("拼写检查配置缺少name: " + source);
+            }
+            if (profile.getDisabledCategories() == null) {
+                profile.setDisabledCategories(new ArrayList<>());
+            }
+            if (profile.getDisabledRules() == null) {
+                profile.setDisabledRules(new ArrayList<>());
+            }
+            if (profile.getEnabledRules() == null) {
+                profile.setEnabledRules(new ArrayList<>());
+            }
+            if (byName.put(profile.getName(), profile) != null) {
+                throw new IllegalStateException("拼写检查配置名称重复: " + profile.getName());
+            }
+        }
+        String defaultProfile = parsed.getDefaultProfile() != null
+                ? parsed.getDefaultProfile()
+                : parsed.getProfiles().get(0).getName();
+        if (!byName.containsKey(defaultProfile)) {
+            throw new IllegalStateException("默认拼写检查配置不存在: " + defaultProfile);
+        }
+        return new Profiles(byName, defaultProfile, source, Instant.now(), lastModified);
+    }
+
+    private Path externalFile() {
+        String file = config.getProfilesFile();
+        return file == null || file.isBlank() ? null : Paths.get(file);
+    }
+
+    private List<LanguageToolPool> snapshotPools() {
+        synchronized (pools) {
+            return new ArrayList<>(pools);
+        }
+    }
+
+    /**
+     * 一次加载的全部配置
+     */
+    private record Profiles(Map<String, SpellCheckProfile> byName, String defaultProfile,
+                            String source, Instant loadedAt, long lastModified) {
+    }
+
+    /**
+     * 单条规则的累计耗时
+     */
+    private static final class RuleCost {
+
+        private final String language;
+        private final String ruleId;
+        private final String category;
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private RuleCost(String language, String ruleId, String category) {
+            this.language = language;
+            this.ruleId = ruleId;
+            this.category = category;
+        }
+
+        private void record(long elapsed, int matchCount) {
+            samples.increment();
+            nanos.add(elapsed);
+            matches.add(matchCount);
+            maxNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+}
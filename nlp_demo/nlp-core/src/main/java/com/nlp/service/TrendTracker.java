@@ -0,0 +1,339 @@
+package com.nlp.service;
+
+import com.nlp.config.NlpProperties;
+import com.nlp.model.NlpResponse;
+import com.nlp.model.TrendingTerm;
+import com.nlp.token.TagDictionary;
+import com.nlp.token.TokenStream;
+import com.nlp.util.CountMinSketch;
+import com.nlp.util.Hashing;
+import com.nlp.util.SpaceSaving;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 热门关键词和命名实体统计
+ *
+ * 时间按固定长度分桶，保留最近的若干个桶，每个桶有一个Count-Min Sketch和每类词一个Space-Saving结构，内存与词表大小无关。
+ * 请求线程只做原子加法：计入当前桶的Sketch，再把词写入环形缓冲区（写入位置由原子计数器分配，写满后覆盖未处理的记录）；
+ * 后台线程定期取出缓冲区中的词更新Space-Saving。桶过期时整体替换，不逐个清零。
+ * 查询时以时间窗口内各桶Space-Saving中的词为候选，次数取各桶Sketch估计值之和，与更早各桶的平均频次比较得到上升程度。
+ */
+public class TrendTracker implements AutoCloseable {
+
+    /**
+     * 统计的词类
+     */
+    public enum Kind {
+        KEYWORD, ENTITY;
+
+        public String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Kind parse(String value) {
+            for (Kind kind : values()) {
+                if (kind.key().equalsIgnoreCase(value.trim())) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("不支持的词类: " + value + "，可选值为 keyword、entity");
+        }
+    }
+
+    /**
+     * 数量、时间等实体几乎每条文本都有，不参与统计
+     */
+    private static final Set<String> IGNORED_ENTITY_TYPES = Set.of(
+            "NUMBER", "ORDINAL", "PERCENT", "MONEY", "DATE", "TIME", "DURATION", "SET");
+
+    private static final char TYPE_SEPARATOR = '\t';
+
+    private final boolean enabled;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int sketchDepth;
+    private final int sketchWidth;
+    private final int heavyHitterCapacity;
+    private final int minTermLength;
+    private final long startEpoch;
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final AtomicReferenceArray<Observation> buffer;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ScheduledExecutorService drainer;
+    private long drained;
+
+    public TrendTracker(NlpProperties properties) {
+        NlpProperties.Trends config = properties.getTrends();
+        this.enabled = config.isEnabled();
+        this.bucketMillis = Math.max(1000, config.getBucketDuration().toMillis());
+        this.bucketCount = Math.max(2, config.getBuckets());
+        this.sketchDepth = config.getSketchDepth();
+        this.sketchWidth = config.getSketchWidth();
+        this.heavyHitterCapacity = config.getHeavyHitters();
+        this.minTermLength = Math.max(1, config.getMinTermLength());
+        this.startEpoch = epoch();
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+        this.buffer = new AtomicReferenceArray<>(Math.max(1024, config.getBufferCapacity()));
+
+        if (enabled) {
+            this.drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "nlp-trends");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.drainer.scheduleWithFixedDelay(this::drain, 100, 100, TimeUnit.MILLISECONDS);
+        } else {
+            this.drainer = null;
+        }
+    }
+
+    /**
+     * 统计一条文本的关键词（名词）和命名实体，在请求线程中调用，不加锁
+     *
+     * @param tokens   标注结果，可为null
+     * @param entities 命名实体，可为null
+     */
+    public void record(TokenStream tokens, List<NlpResponse.NamedEntity> entities) {
+        if (!enabled) {
+            return;
+        }
+        long epoch = epoch();
+        Bucket bucket = bucket(epoch, true);
+        if (tokens != null) {
+            for (int i = 0; i < tokens.size(); i++) {
+                if (isKeyword(tokens, i)) {
+                    observe(bucket, Kind.KEYWORD, tokens.word(i).toLowerCase(Locale.ROOT), epoch);
+                }
+            }
+        }
+        if (entities != null) {
+            for (NlpResponse.NamedEntity entity : entities) {
+                if (entity.getText() != null && entity.getType() != null
+                        && !IGNORED_ENTITY_TYPES.contains(entity.getType())) {
+                    observe(bucket, Kind.ENTITY, entity.getType() + TYPE_SEPARATOR + entity.getText(), epoch);
+                }
+            }
+        }
+    }
+
+    /**
+     * 查询时间窗口内的热门词
+     *
+     * @param window 时间窗口，按桶长度向上取整，不超过保留的全部时间桶
+     * @return top为出现次数最多的词，trending为相对更早时间上升最明显的词
+     */
+    public Map<String, Object> query(Kind kind, Duration window, int limit) {
+        long now = epoch();
+        int windowBuckets = (int) Math.min(bucketCount,
+                Math.max(1, (window.toMillis() + bucketMillis - 1) / bucketMillis));
+        List<Bucket> current = new ArrayList<>(windowBuckets);
+        List<Bucket> earlier = new ArrayList<>(bucketCount - windowBuckets);
+        for (long epoch = now - bucketCount + 1; epoch <= now; epoch++) {
+            Bucket bucket = bucket(epoch, false);
+            if (bucket != null) {
+                (epoch > now - windowBuckets ? current : earlier).add(bucket);
+            }
+        }
+        // 更早时间桶的个数按经过的时间计算，没有请求的桶同样计入（次数为0）
+        long earlierSpan = Math.max(0, Math.min(bucketCount - windowBuckets, now - windowBuckets - startEpoch + 1));
+
+        Set<String> candidates = new HashSet<>();
+        long total = 0;
+        for (Bucket bucket : current) {
+            total += bucket.totals.get(kind.ordinal());
+            SpaceSaving summary = bucket.heavyHitters[kind.ordinal()];
+            synchronized (summary) {
+                for (SpaceSaving.Entry entry : summary.entries()) {
+                    candidates.add(entry.item());
+                }
+            }
+        }
+
+        List<TrendingTerm> terms = new ArrayList<>(candidates.size());
+        for (String item : candidates) {
+            long hash = hash(kind, item);
+            long count = 0;
+            for (Bucket bucket : current) {
+                count += bucket.sketch.estimate(hash);
+            }
+            long earlierCount = 0;
+            for (Bucket bucket : earlier) {
+                earlierCount += bucket.sketch.estimate(hash);
+            }
+            double expected = earlierSpan > 0 ? (double) earlierCount / earlierSpan * windowBuckets : 0;
+            int separator = item.indexOf(TYPE_SEPARATOR);
+            terms.add(TrendingTerm.builder()
+                    .term(separator >= 0 ? item.substring(separator + 1) : item)
+                    .type(separator >= 0 ? item.substring(0, separator) : null)
+                    .count(count)
+                    .expected(round(expected))
+                    .score(round((count - expected) / Math.sqrt(expected + 1)))
+                    .build());
+        }
+
+        List<TrendingTerm> top = new ArrayList<>(terms);
+        top.sort(Comparator.comparing(TrendingTerm::getCount).reversed());
+        List<TrendingTerm> trending = new ArrayList<>();
+        for (TrendingTerm term : terms) {
+            if (term.getScore() > 0) {
+                trending.add(term);
+            }
+        }
+        trending.sort(Comparator.comparing(TrendingTerm::getScore).reversed());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("kind", kind.key());
+        result.put("windowSeconds", windowBuckets * bucketMillis / 1000);
+        result.put("bucketSeconds", bucketMillis / 1000);
+        result.put("total", total);
+        result.put("top", top.subList(0, Math.min(limit, top.size())));
+        result.put("trending", trending.subList(0, Math.min(limit, trending.size())));
+        return result;
+    }
+
+    /**
+     * 统计本身的状态（保留的时间桶、内存占用、缓冲区丢弃的记录数）
+     */
+    public Map<String, Object> metrics() {
+        int retained = 0;
+        long sketchBytes = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null) {
+                retained++;
+                sketchBytes += bucket.sketch.sizeInBytes();
+            }
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("bucketSeconds", bucketMillis / 1000);
+        metrics.put("buckets", bucketCount);
+        metrics.put("retainedBuckets", retained);
+        metrics.put("sketchBytes", sketchBytes);
+        metrics.put("heavyHittersPerBucket", heavyHitterCapacity);
+        metrics.put("observed", written.get());
+        metrics.put("dropped", dropped.get());
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        if (drainer != null) {
+            drainer.shutdownNow();
+        }
+    }
+
+    private boolean isKeyword(TokenStream tokens, int index) {
+        // 只统计名词：英文为NN、NNS、NNP、NNPS，中文（HanLP）为n开头的词性
+        String pos = TagDictionary.name(tokens.pos(index));
+        if (pos == null || pos.isEmpty() || Character.toLowerCase(pos.charAt(0)) != 'n') {
+            return false;
+        }
+        if (tokens.wordLength(index) < minTermLength) {
+            return false;
+        }
+        return !tokens.isBlank(index);
+    }
+
+    private void observe(Bucket bucket, Kind kind, String item, long epoch) {
+        bucket.sketch.add(hash(kind, item), 1);
+        bucket.totals.incrementAndGet(kind.ordinal());
+        long slot = written.getAndIncrement();
+        buffer.set((int) (slot % buffer.length()), new Observation(slot, kind, item, epoch));
+    }
+
+    /**
+     * 后台线程：把缓冲区中的词计入所属时间桶的Space-Saving
+     *
+     * 请求线程先分配序号再写入记录，槽位中的记录序号小于应处理的序号时说明尚未写入，停在该处等下次处理；
+     * 序号更大说明已被下一轮的写入覆盖，计入丢弃数
+     */
+    private void drain() {
+        long end = written.get();
+        int capacity = buffer.length();
+        if (end - drained > capacity) {
+            // 请求线程已经覆盖了未处理的记录
+            dropped.addAndGet(end - drained - capacity);
+            drained = end - capacity;
+        }
+        long slot = drained;
+        for (; slot < end; slot++) {
+            int index = (int) (slot % capacity);
+            Observation observation = buffer.get(index);
+            if (observation == null || observation.sequence < slot) {
+                break;
+            }
+            if (observation.sequence > slot) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            buffer.compareAndSet(index, observation, null);
+            Bucket bucket = bucket(observation.epoch, false);
+            if (bucket != null) {
+                SpaceSaving summary = bucket.heavyHitters[observation.kind.ordinal()];
+                synchronized (summary) {
+                    summary.add(observation.item);
+                }
+            }
+        }
+        drained = slot;
+    }
+
+    /**
+     * 取得时间桶；create为true时槽位中是更早的桶则替换为新桶，否则返回null
+     */
+    private Bucket bucket(long epoch, boolean create) {
+        int slot = (int) Math.floorMod(epoch, (long) bucketCount);
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.epoch == epoch) {
+                return bucket;
+            }
+            if (!create || (bucket != null && bucket.epoch > epoch)) {
+                return null;
+            }
+            Bucket replacement = new Bucket(epoch);
+            if (buckets.compareAndSet(slot, bucket, replacement)) {
+                return replacement;
+            }
+        }
+    }
+
+    private long epoch() {
+        return System.currentTimeMillis() / bucketMillis;
+    }
+
+    private static long hash(Kind kind, String item) {
+        return Hashing.combine(kind.ordinal(), Hashing.fnv1a64(item));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private record Observation(long sequence, Kind kind, String item, long epoch) {
+    }
+
+    private final class Bucket {
+        private final long epoch;
+        private final CountMinSketch sketch = new CountMinSketch(sketchDepth, sketchWidth);
+        private final AtomicLongArray totals = new AtomicLongArray(Kind.values().length);
+        private final SpaceSaving[] heavyHitters = new SpaceSaving[Kind.values().length];
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+            for (int i = 0; i < heavyHitters.length; i++) {
+                heavyHitters[i] = new SpaceSaving(heavyHitterCapacity);
+            }
+        }
+    }
+}
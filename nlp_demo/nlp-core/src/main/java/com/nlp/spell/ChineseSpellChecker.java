@@ -0,0 +1,449 @@
+package com.nlp.spell;
+
+import com.hankcs.hanlp.HanLP;
+import com.hankcs.hanlp.dictionary.CoreBiGramTableDictionary;
+import com.hankcs.hanlp.dictionary.CoreDictionary;
+import com.hankcs.hanlp.dictionary.CustomDictionary;
+import com.hankcs.hanlp.dictionary.py.Pinyin;
+import com.hankcs.hanlp.dictionary.py.PinyinDictionary;
+import com.hankcs.hanlp.seg.Segment;
+import com.hankcs.hanlp.seg.common.Term;
+import com.hankcs.hanlp.utility.Predefine;
+import com.nlp.config.NlpProperties;
+import com.nlp.util.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于混淆集的中文错别字检查
+ *
+ * 错别字通常会把一个词切碎，因此HanLP分词后只检查单字词和词典外的词中的字：把字替换为同音字（含声调不同和模糊音）
+ * 或形近字，替换后能与前后的字组成词典中的词的作为候选，再重新切分附近的文本，用核心词典的词频和二元词频
+ * 计算替换前后的路径代价，代价降低超过 {@code minImprovement} 才报告。
+ * 混淆字索引在启动时建好，检查一条查询长度的文本只需要几次分词和词典查找。
+ */
+public class ChineseSpellChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(ChineseSpellChecker.class);
+
+    private static final String BUILTIN_GLYPHS = "zh-similar-glyphs.txt";
+
+    private static final int MAX_WINDOW = 4;
+    private static final int CONTEXT = 6;
+    private static final int MAX_SUGGESTIONS = 3;
+    private static final double BIGRAM_WEIGHT = 0.9;
+
+    /**
+     * 各类替换的先验代价：同音同调的替换最常见，其次是同音不同调、形近字和模糊音
+     */
+    private static final double SAME_TONE_PENALTY = 0;
+    private static final double TONE_PENALTY = 0.5;
+    private static final double GLYPH_PENALTY = 1.0;
+    private static final double FUZZY_PENALTY = 1.5;
+    private static final double BREAK_WORD_PENALTY = 10;
+
+    private static final String[][] FUZZY_INITIALS = {{"zh", "z"}, {"ch", "c"}, {"sh", "s"}, {"l", "n"}};
+    private static final String[][] FUZZY_FINALS = {{"ang", "an"}, {"eng", "en"}, {"ing", "in"}};
+
+    private final NlpProperties.SpellCheck.Chinese config;
+    private final Segment segment;
+    private final Map<String, List<Character>> byPinyin = new HashMap<>();
+    private final Map<Character, Pinyin[]> commonReadings = new HashMap<>();
+    private final Map<Character, Set<Character>> glyphs;
+    private final Map<Character, Candidate[]> confusions = new ConcurrentHashMap<>();
+    private final long version;
+
+    public ChineseSpellChecker(NlpProperties properties) {
+        this.config = properties.getSpellCheck().getChinese();
+        // 关闭人名识别，否则错别字和前后的字容易被整体识别为人名；数量词合并为一个词，不作为可疑的单字
+        this.segment = HanLP.newSegment().enableNameRecognize(false).enableNumberQuantifierRecognize(true);
+        List<String> glyphLines = isEnabled() ? readGlyphs() : List.of();
+        this.glyphs = parseGlyphs(glyphLines);
+        if (isEnabled()) {
+            indexPinyin();
+        }
+        this.version = Hashing.fnv1a64(String.join("\n", config.toString(),
+                String.valueOf(HanLP.class.getPackage().getImplementationVersion()), String.join("\n", glyphLines)));
+    }
+
+    public boolean isEnabled() {
+        return "confusion".equalsIgnoreCase(config.getEngine());
+    }
+
+    /**
+     * 检查结果的版本号，由配置、HanLP版本和形近字混淆集的内容决定，用于缓存失效
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 检查文本中的错别字，返回互不重叠的纠正建议，按位置排列
+     */
+    public List<Correction> check(String text) {
+        List<Term> terms = segment.seg(text);
+        // 每个字所在的可信多字词的起止位置，不在这样的词中时为-1
+        int[] wordStarts = new int[text.length()];
+        int[] wordEnds = new int[text.length()];
+        Arrays.fill(wordStarts, -1);
+        boolean[] suspicious = new boolean[text.length()];
+        int position = 0;
+        for (Term term : terms) {
+            int start = text.indexOf(term.word, position);
+            if (start < 0) {
+                start = position;
+            }
+            position = start + term.word.length();
+            boolean termSuspicious = isSuspicious(term);
+            for (int i = start; i < position; i++) {
+                suspicious[i] = termSuspicious;
+                if (!termSuspicious && term.word.length() > 1) {
+                    wordStarts[i] = start;
+                    wordEnds[i] = position;
+                }
+            }
+        }
+
+        List<Found> found = new ArrayList<>();
+        Map<Long, Double> spanCosts = new HashMap<>();
+        for (int i = 0; i < text.length(); i++) {
+            if (suspicious[i]) {
+                Found correction = checkCharacter(text, i, wordStarts, wordEnds, spanCosts);
+                if (correction != null) {
+                    found.add(correction);
+                }
+            }
+        }
+        return selectNonOverlapping(found);
+    }
+
+    /**
+     * 尝试替换position处的字：替换后与前后的字组成词典中的词时，重新切分附近的文本并比较语言模型代价。
+     * 组成的词拆开了原文中可信的多字词时（如“很多鱼”改为“很多余”）额外加上 {@code BREAK_WORD_PENALTY}
+     */
+    private Found checkCharacter(String text, int position, int[] wordStarts, int[] wordEnds,
+                                 Map<Long, Double> spanCosts) {
+        char original = text.charAt(position);
+        Candidate[] candidates = confusions(original);
+        if (candidates.length == 0) {
+            return null;
+        }
+        int from = Math.max(0, position - CONTEXT);
+        int to = Math.min(text.length(), position + CONTEXT + 1);
+        while (from < position && !isChinese(text.charAt(from))) {
+            from++;
+        }
+        while (to > position + 1 && !isChinese(text.charAt(to - 1))) {
+            to--;
+        }
+        String span = text.substring(from, to);
+        int offset = position - from;
+        double originalCost = spanCosts.computeIfAbsent(((long) from << 32) | to, key -> pathCost(segment.seg(span)));
+
+        char[] chars = span.toCharArray();
+        List<Scored> scored = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            chars[offset] = candidate.character;
+            Word word = formsWord(chars, offset);
+            if (word == null) {
+                continue;
+            }
+            double penalty = candidate.penalty;
+            int wordStart = from + word.start;
+            int wordEnd = wordStart + word.text.length();
+            for (int i = wordStart; i < wordEnd; i++) {
+                if (wordStarts[i] >= 0 && (wordStarts[i] < wordStart || wordEnds[i] > wordEnd)) {
+                    penalty += BREAK_WORD_PENALTY;
+                    break;
+                }
+            }
+            double improvement = originalCost - pathCost(segment.seg(new String(chars))) - penalty;
+            if (improvement >= config.getMinImprovement()) {
+                scored.add(new Scored(word, improvement, candidate));
+            }
+        }
+        if (scored.isEmpty()) {
+            return null;
+        }
+        scored.sort(Comparator.comparingDouble(Scored::improvement).reversed());
+        Scored best = scored.get(0);
+        List<String> suggestions = new ArrayList<>();
+        for (Scored item : scored.subList(0, Math.min(MAX_SUGGESTIONS, scored.size()))) {
+            suggestions.add(String.valueOf(item.candidate.character));
+        }
+        String message = "疑似" + best.candidate.kind + "错误：" + original + " → " + best.candidate.character
+                + "（" + best.word.text + "）";
+        Correction correction = new Correction(position, position + 1, String.valueOf(original), suggestions, message,
+                best.improvement);
+        int wordStart = from + best.word.start;
+        return new Found(correction, wordStart, wordStart + best.word.text.length());
+    }
+
+    /**
+     * 替换后offset处的字与前后的字能否组成词典中足够常见的词（2~4个字），返回其中最常见的词
+     */
+    private Word formsWord(char[] chars, int offset) {
+        Word best = null;
+        int bestFrequency = config.getMinWordFrequency() - 1;
+        for (int length = 2; length <= MAX_WINDOW; length++) {
+            for (int start = Math.max(0, offset - length + 1); start <= offset && start + length <= chars.length; start++) {
+                String word = new String(chars, start, length);
+                int frequency = CoreDictionary.getTermFrequency(word);
+                if (frequency > bestFrequency) {
+                    best = new Word(word, start);
+                    bestFrequency = frequency;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 切分结果的路径代价：句首到句尾各相邻词的插值二元语法负对数概率之和，词频和二元词频取自HanLP的核心词典
+     */
+    private static double pathCost(List<Term> terms) {
+        String previous = Predefine.TAG_BIGIN;
+        int previousFrequency = frequency(previous);
+        double cost = 0;
+        for (Term term : terms) {
+            int frequency = frequency(term.word);
+            cost += transitionCost(previous, previousFrequency, term.word, frequency);
+            previous = term.word;
+            previousFrequency = frequency;
+        }
+        return cost + transitionCost(previous, previousFrequency, Predefine.TAG_END, frequency(Predefine.TAG_END));
+    }
+
+    private static double transitionCost(String from, int fromFrequency, String to, int toFrequency) {
+        double unigram = (toFrequency + 0.5) / Predefine.TOTAL_FREQUENCY;
+        double bigram = fromFrequency > 0 ? (double) CoreBiGramTableDictionary.getBiFrequency(from, to) / fromFrequency : 0;
+        return -Math.log(BIGRAM_WEIGHT * bigram + (1 - BIGRAM_WEIGHT) * unigram);
+    }
+
+    private static int frequency(String word) {
+        int frequency = CoreDictionary.getTermFrequency(word);
+        if (frequency == 0) {
+            CoreDictionary.Attribute attribute = CustomDictionary.get(word);
+            frequency = attribute != null ? attribute.totalFrequency : 0;
+        }
+        return frequency;
+    }
+
+    /**
+     * 单个汉字，或词典中没有的多字词；数词和数量词（如“一只”）不检查
+     */
+    private static boolean isSuspicious(Term term) {
+        String word = term.word;
+        if (word.isEmpty() || !isChinese(word.charAt(0)) || term.nature.startsWith("m")) {
+            return false;
+        }
+        return word.length() == 1 || !CoreDictionary.contains(word) && !CustomDictionary.contains(word);
+    }
+
+    private static boolean isChinese(char c) {
+        return c >= '一' && c <= '龥';
+    }
+
+    /**
+     * 按代价降低从多到少选取纠正，替换后组成的词互相重叠的只保留一个（如“知到”只改“到”，不再同时把“知”改成“直”）
+     */
+    private static List<Correction> selectNonOverlapping(List<Found> found) {
+        found.sort(Comparator.comparingDouble((Found item) -> item.correction.improvement()).reversed());
+        List<Found> selected = new ArrayList<>();
+        for (Found item : found) {
+            boolean overlaps = false;
+            for (Found other : selected) {
+                if (item.wordStart < other.wordEnd && other.wordStart < item.wordEnd) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            if (!overlaps) {
+                selected.add(item);
+            }
+        }
+        selected.sort(Comparator.comparingInt((Found item) -> item.correction.start()));
+        return selected.stream().map(Found::correction).toList();
+    }
+
+    /**
+     * 按不带声调的拼音（开启模糊音时还有模糊后的拼音）给常用字分组
+     */
+    private void indexPinyin() {
+        long start = System.nanoTime();
+        for (char c = '一'; c <= '龥'; c++) {
+            String word = String.valueOf(c);
+            // 只用词典中作为单字出现过的常用字做候选，生僻字几乎不会是正确答案
+            if (CoreDictionary.getTermFrequency(word) <= 0) {
+                continue;
+            }
+            Pinyin[] pinyins = readings(c);
+            if (pinyins.length == 0) {
+                continue;
+            }
+            commonReadings.put(c, pinyins);
+            for (Pinyin pinyin : pinyins) {
+                String key = pinyin.getPinyinWithoutTone();
+                byPinyin.computeIfAbsent(key, k -> new ArrayList<>()).add(c);
+                String fuzzy = fuzzy(key);
+                if (config.isFuzzyPinyin() && !fuzzy.equals(key)) {
+                    byPinyin.computeIfAbsent(fuzzy, k -> new ArrayList<>()).add(c);
+                }
+            }
+        }
+        log.info("中文混淆集加载完成: {} 个常用字，{} 个字有形近字，耗时 {} ms", commonReadings.size(), glyphs.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 一个字的混淆字列表：同音字、模糊音字和形近字，第一次用到时生成
+     */
+    private Candidate[] confusions(char c) {
+        return confusions.computeIfAbsent(c, key -> {
+            Map<Character, Candidate> candidates = new LinkedHashMap<>();
+            for (Pinyin pinyin : readings(c)) {
+                String syllable = pinyin.getPinyinWithoutTone();
+                addHomophones(candidates, c, byPinyin.get(syllable), commonReadings, pinyin, false);
+                if (config.isFuzzyPinyin()) {
+                    addHomophones(candidates, c, byPinyin.get(fuzzy(syllable)), commonReadings, pinyin, true);
+                }
+            }
+            for (char similar : glyphs.getOrDefault(c, Set.of())) {
+                candidates.putIfAbsent(similar, new Candidate(similar, GLYPH_PENALTY, "形近字"));
+            }
+            return candidates.values().toArray(new Candidate[0]);
+        });
+    }
+
+    private static Pinyin[] readings(char c) {
+        Pinyin[] pinyins = PinyinDictionary.get(String.valueOf(c));
+        if (pinyins == null || pinyins.length == 0 || pinyins[0] == Pinyin.none5) {
+            return new Pinyin[0];
+        }
+        return pinyins;
+    }
+
+    private static void addHomophones(Map<Character, Candidate> candidates, char c, List<Character> group,
+                                      Map<Character, Pinyin[]> readings, Pinyin pinyin, boolean fuzzy) {
+        if (group == null) {
+            return;
+        }
+        for (char other : group) {
+            if (other == c || candidates.containsKey(other)) {
+                continue;
+            }
+            Pinyin[] otherReadings = readings.get(other);
+            boolean sameSyllable = false;
+            boolean sameTone = false;
+            for (Pinyin reading : otherReadings) {
+                if (reading.getPinyinWithoutTone().equals(pinyin.getPinyinWithoutTone())) {
+                    sameSyllable = true;
+                    sameTone |= reading.getTone() == pinyin.getTone();
+                }
+            }
+            if (sameSyllable) {
+                candidates.put(other, new Candidate(other, sameTone ? SAME_TONE_PENALTY : TONE_PENALTY, "同音字"));
+            } else if (fuzzy) {
+                candidates.put(other, new Candidate(other, FUZZY_PENALTY, "近音字"));
+            }
+        }
+    }
+
+    private static String fuzzy(String pinyin) {
+        String result = pinyin;
+        for (String[] pair : FUZZY_INITIALS) {
+            if (result.startsWith(pair[0])) {
+                result = pair[1] + result.substring(pair[0].length());
+                break;
+            }
+        }
+        for (String[] pair : FUZZY_FINALS) {
+            if (result.endsWith(pair[0])) {
+                result = result.substring(0, result.length() - pair[0].length()) + pair[1];
+                break;
+            }
+        }
+        return result;
+    }
+
+    private List<String> readGlyphs() {
+        try (InputStream input = openGlyphs();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法加载形近字混淆集", e);
+        }
+    }
+
+    private static Map<Character, Set<Character>> parseGlyphs(List<String> lines) {
+        Map<Character, Set<Character>> glyphs = new HashMap<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] group = line.split("\\s+");
+            for (String a : group) {
+                for (String b : group) {
+                    if (a.length() == 1 && b.length() == 1 && !a.equals(b)) {
+                        glyphs.computeIfAbsent(a.charAt(0), k -> new LinkedHashSet<>()).add(b.charAt(0));
+                    }
+                }
+            }
+        }
+        return glyphs;
+    }
+
+    private InputStream openGlyphs() throws IOException {
+        if (config.getGlyphFile() != null && !config.getGlyphFile().isBlank()) {
+            return Files.newInputStream(Paths.get(config.getGlyphFile()));
+        }
+        InputStream input = ChineseSpellChecker.class.getClassLoader().getResourceAsStream(BUILTIN_GLYPHS);
+        if (input == null) {
+            throw new IOException("找不到内置的形近字混淆集: " + BUILTIN_GLYPHS);
+        }
+        return input;
+    }
+
+    /**
+     * 一处纠正建议
+     *
+     * @param start       原文中的起始位置
+     * @param end         原文中的结束位置（不含）
+     * @param original    原文片段
+     * @param suggestions 替换后的片段，按可能性从高到低排列
+     * @param improvement 最佳替换使局部路径代价降低的量
+     */
+    public record Correction(int start, int end, String original, List<String> suggestions, String message,
+                             double improvement) {
+    }
+
+    private record Candidate(char character, double penalty, String kind) {
+    }
+
+    private record Scored(Word word, double improvement, Candidate candidate) {
+    }
+
+    /**
+     * 替换后组成的词，start为在检查范围内的起始位置
+     */
+    private record Word(String text, int start) {
+    }
+
+    /**
+     * 一处纠正及替换后组成的词在原文中的范围
+     */
+    private record Found(Correction correction, int wordStart, int wordEnd) {
+    }
+}
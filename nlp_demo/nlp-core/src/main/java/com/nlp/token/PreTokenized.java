@@ -0,0 +1,122 @@
+package com.nlp.token;
+
+import com.nlp.model.NlpRequest;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 请求中携带的预分词（及可选的预分句）结果
+ *
+ * 校验只做一次线性扫描：词按位置升序、互不重叠且落在文本范围内；提供分句时句子同样升序不重叠，且每个词完整地落在某个句子内。
+ * 不校验词边界是否符合本服务的分词规则，由调用方保证与本服务使用相同的分词器版本。
+ */
+public final class PreTokenized {
+
+    private final TokenStream tokens;
+    private final int[] sentenceStarts;
+
+    private PreTokenized(TokenStream tokens, int[] sentenceStarts) {
+        this.tokens = tokens;
+        this.sentenceStarts = sentenceStarts;
+    }
+
+    /**
+     * 校验并转换为词序列（词性和实体标签为空），不合法时抛出IllegalArgumentException
+     */
+    public static PreTokenized of(String text, List<NlpRequest.Token> tokens, List<NlpRequest.Sentence> sentences) {
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("tokens不能为空");
+        }
+        TokenStream.Builder builder = TokenStream.builder(text);
+        int previousEnd = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            NlpRequest.Token token = tokens.get(i);
+            if (token == null) {
+                throw new IllegalArgumentException("第" + i + "个词为空");
+            }
+            int start = token.getStartPosition();
+            int end = token.getEndPosition();
+            if (start < previousEnd || end <= start || end > text.length()) {
+                throw new IllegalArgumentException("第" + i + "个词的位置不合法: [" + start + ", " + end
+                        + ")，词必须按位置升序排列、互不重叠且不超出文本长度 " + text.length());
+            }
+            if (token.getWord() != null && token.getWord().isEmpty()) {
+                throw new IllegalArgumentException("第" + i + "个词的文本为空");
+            }
+            builder.add(start, end, token.getWord(), TagDictionary.NONE, TagDictionary.NONE);
+            previousEnd = end;
+        }
+        TokenStream stream = builder.build();
+        return new PreTokenized(stream, sentences == null ? null : sentenceStarts(stream, sentences));
+    }
+
+    /**
+     * 词序列
+     */
+    public TokenStream tokens() {
+        return tokens;
+    }
+
+    /**
+     * 是否提供了分句结果
+     */
+    public boolean hasSentences() {
+        return sentenceStarts != null;
+    }
+
+    /**
+     * 句子数
+     */
+    public int sentenceCount() {
+        return sentenceStarts.length - 1;
+    }
+
+    /**
+     * 第index个句子的第一个词的下标；index等于句子数时返回词数
+     */
+    public int sentenceStart(int index) {
+        return sentenceStarts[index];
+    }
+
+    /**
+     * 把每个句子换算为其第一个词的下标，跳过不含词的句子
+     */
+    private static int[] sentenceStarts(TokenStream tokens, List<NlpRequest.Sentence> sentences) {
+        int[] starts = new int[sentences.size() + 1];
+        int count = 0;
+        int token = 0;
+        int previousEnd = 0;
+        for (int i = 0; i < sentences.size(); i++) {
+            NlpRequest.Sentence sentence = sentences.get(i);
+            if (sentence == null) {
+                throw new IllegalArgumentException("第" + i + "个句子为空");
+            }
+            int start = sentence.getStartPosition();
+            int end = sentence.getEndPosition();
+            if (start < previousEnd || end < start || end > tokens.text().length()) {
+                throw new IllegalArgumentException("第" + i + "个句子的位置不合法: [" + start + ", " + end
+                        + ")，句子必须按位置升序排列且互不重叠");
+            }
+            if (token < tokens.size() && tokens.begin(token) < start) {
+                throw new IllegalArgumentException("第" + token + "个词不在任何句子内");
+            }
+            int first = token;
+            while (token < tokens.size() && tokens.begin(token) < end) {
+                if (tokens.end(token) > end) {
+                    throw new IllegalArgumentException("第" + token + "个词跨越了第" + i + "个句子的边界");
+                }
+                token++;
+            }
+            if (token > first) {
+                starts[count++] = first;
+            }
+            previousEnd = end;
+        }
+        if (token < tokens.size()) {
+            throw new IllegalArgumentException("第" + token + "个词不在任何句子内");
+        }
+        starts[count] = tokens.size();
+        return Arrays.copyOf(starts, count + 1);
+    }
+}
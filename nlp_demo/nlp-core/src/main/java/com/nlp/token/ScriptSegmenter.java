@@ -0,0 +1,90 @@
+package com.nlp.token;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按文字脚本切分中英文混排文本
+ *
+ * 汉字归为zh段，拉丁字母归为en段；空格、数字、标点等通用字符不决定语言，并入当前所在的段
+ * （文本开头的通用字符并入第一段）。字母数少于minLatinLetters的拉丁串（如"A股"中的A）留在所在的中文段中，
+ * 避免把很短的英文片段单独交给英文管道。
+ */
+public final class ScriptSegmenter {
+
+    private ScriptSegmenter() {
+    }
+
+    /**
+     * 切分文本，返回的段首尾相接、覆盖全文；不含汉字或不含拉丁字母时只有一段
+     */
+    public static List<Span> split(String text, int minLatinLetters) {
+        List<Span> runs = new ArrayList<>();
+        String current = null;
+        int start = 0;
+        int latinLetters = 0;
+
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            String language = languageOf(codePoint);
+            if (language != null && !language.equals(current)) {
+                if (current != null) {
+                    runs.add(new Span(start, i, current, latinLetters));
+                    start = i;
+                }
+                current = language;
+                latinLetters = 0;
+            }
+            if ("en".equals(language)) {
+                latinLetters++;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (current == null) {
+            return List.of(new Span(0, text.length(), "en", 0));
+        }
+        runs.add(new Span(start, text.length(), current, latinLetters));
+
+        // 过短的拉丁串并入相邻的中文段，再合并相邻的同语言段
+        List<Span> spans = new ArrayList<>();
+        for (int r = 0; r < runs.size(); r++) {
+            Span run = runs.get(r);
+            String language = run.language();
+            if ("en".equals(language) && run.latinLetters() < minLatinLetters && runs.size() > 1) {
+                language = "zh";
+            }
+            Span last = spans.isEmpty() ? null : spans.get(spans.size() - 1);
+            if (last != null && last.language().equals(language)) {
+                spans.set(spans.size() - 1, new Span(last.start(), run.end(), language, last.latinLetters() + run.latinLetters()));
+            } else {
+                spans.add(new Span(run.start(), run.end(), language, run.latinLetters()));
+            }
+        }
+        return spans;
+    }
+
+    private static String languageOf(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        if (script == Character.UnicodeScript.HAN) {
+            return "zh";
+        }
+        if (script == Character.UnicodeScript.LATIN) {
+            return "en";
+        }
+        return null;
+    }
+
+    /**
+     * 文本段 [start, end)
+     *
+     * @param language     段的语言（zh或en）
+     * @param latinLetters 段内的拉丁字母数
+     */
+    public record Span(int start, int end, String language, int latinLetters) {
+
+        public int length() {
+            return end - start;
+        }
+    }
+}
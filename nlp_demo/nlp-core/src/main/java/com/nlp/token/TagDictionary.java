@@ -0,0 +1,60 @@
+package com.nlp.token;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 标签字典：把词性、实体类型等标签驻留为小整数
+ *
+ * 标签种类很少（几十个），查询路径无锁；新增标签时加锁并发布新的数组快照。
+ */
+public final class TagDictionary {
+
+    /**
+     * 空标签
+     */
+    public static final int NONE = 0;
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = {""};
+
+    static {
+        IDS.put("", NONE);
+    }
+
+    private TagDictionary() {
+    }
+
+    /**
+     * 获取标签ID，不存在时分配新ID
+     */
+    public static int intern(String tag) {
+        if (tag == null) {
+            return NONE;
+        }
+        Integer id = IDS.get(tag);
+        if (id != null) {
+            return id;
+        }
+        synchronized (TagDictionary.class) {
+            id = IDS.get(tag);
+            if (id == null) {
+                String[] current = names;
+                String[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = tag;
+                names = updated;
+                id = current.length;
+                IDS.put(tag, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * 根据ID获取标签名
+     */
+    public static String name(int id) {
+        return names[id];
+    }
+}
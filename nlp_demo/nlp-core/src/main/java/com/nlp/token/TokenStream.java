@@ -0,0 +1,280 @@
+package com.nlp.token;
+
+import com.nlp.model.NlpResponse;
+import com.nlp.util.Hashing;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 词序列的紧凑表示
+ *
+ * 每个词只保存在原文中的起止偏移和驻留后的标签ID，遍历时不为每个词创建对象；
+ * 只有在需要输出JSON时才通过 {@link #toWords()} / {@link #toTokenInfos()} 物化为字符串。
+ * 少数分词器输出与原文不一致的词（如引号归一化）单独保存其文本。
+ */
+public final class TokenStream {
+
+    private final String text;
+    private final int size;
+    private final int[] begins;
+    private final int[] ends;
+    private final int[] posTags;
+    private final int[] nerTags;
+    private final String[] overrides;
+
+    private TokenStream(Builder builder) {
+        this.text = builder.text;
+        this.size = builder.size;
+        this.begins = builder.begins;
+        this.ends = builder.ends;
+        this.posTags = builder.posTags;
+        this.nerTags = builder.nerTags;
+        this.overrides = builder.overrides;
+    }
+
+    public static Builder builder(String text) {
+        return new Builder(text);
+    }
+
+    /**
+     * 原始文本
+     */
+    public String text() {
+        return text;
+    }
+
+    /**
+     * 词数
+     */
+    public int size() {
+        return size;
+    }
+
+    public int begin(int index) {
+        return begins[index];
+    }
+
+    public int end(int index) {
+        return ends[index];
+    }
+
+    public int pos(int index) {
+        return posTags[index];
+    }
+
+    public int ner(int index) {
+        return nerTags[index];
+    }
+
+    /**
+     * 第index个词的文本是否与原文区间一致
+     */
+    public boolean isVerbatim(int index) {
+        return overrides == null || overrides[index] == null;
+    }
+
+    /**
+     * 第index个词的长度
+     */
+    public int wordLength(int index) {
+        return isVerbatim(index) ? ends[index] - begins[index] : overrides[index].length();
+    }
+
+    /**
+     * 判断第index个词是否全部由空白字符组成
+     */
+    public boolean isBlank(int index) {
+        if (!isVerbatim(index)) {
+            return overrides[index].isBlank();
+        }
+        for (int i = begins[index]; i < ends[index]; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 忽略大小写计算第index个词的哈希值，不产生子串对象
+     */
+    public long hashIgnoreCase(int index) {
+        return isVerbatim(index)
+                ? Hashing.fnv1a64IgnoreCase(text, begins[index], ends[index])
+                : Hashing.fnv1a64IgnoreCase(overrides[index], 0, overrides[index].length());
+    }
+
+    /**
+     * 把第index个词追加到StringBuilder
+     */
+    public StringBuilder appendWord(int index, StringBuilder target) {
+        return isVerbatim(index)
+                ? target.append(text, begins[index], ends[index])
+                : target.append(overrides[index]);
+    }
+
+    /**
+     * 第index个词的文本（会创建字符串，只在物化结果时使用）
+     */
+    public String word(int index) {
+        return isVerbatim(index) ? text.substring(begins[index], ends[index]) : overrides[index];
+    }
+
+    /**
+     * 物化为词列表
+     */
+    public List<String> toWords() {
+        List<String> words = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            words.add(word(i));
+        }
+        return words;
+    }
+
+    /**
+     * 物化为词性标注详情
+     */
+    public List<NlpResponse.TokenInfo> toTokenInfos() {
+        List<NlpResponse.TokenInfo> tokenInfos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokenInfos.add(new NlpResponse.TokenInfo(word(i),
+                    TagDictionary.name(posTags[i]), TagDictionary.name(nerTags[i])));
+        }
+        return tokenInfos;
+    }
+
+    /**
+     * 序列化为字节数组（用于持久化缓存）；标签ID只在进程内有效，因此按标签名保存
+     */
+    public byte[] encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + size * 12);
+            DataOutputStream out = new DataOutputStream(bytes);
+            Map<Integer, Integer> localTags = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                localTags.putIfAbsent(posTags[i], localTags.size());
+                localTags.putIfAbsent(nerTags[i], localTags.size());
+            }
+            out.writeInt(localTags.size());
+            for (int tag : localTags.keySet()) {
+                out.writeUTF(TagDictionary.name(tag));
+            }
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(begins[i]);
+                out.writeInt(ends[i]);
+                out.writeShort(localTags.get(posTags[i]));
+                out.writeShort(localTags.get(nerTags[i]));
+                String override = isVerbatim(i) ? null : overrides[i];
+                out.writeBoolean(override != null);
+                if (override != null) {
+                    out.writeUTF(override);
+                }
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 从 {@link #encode()} 的结果还原
+     */
+    public static TokenStream decode(String text, byte[] data) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            int[] tags = new int[in.readInt()];
+            for (int i = 0; i < tags.length; i++) {
+                tags[i] = TagDictionary.intern(in.readUTF());
+            }
+            Builder builder = builder(text);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int begin = in.readInt();
+                int end = in.readInt();
+                int pos = tags[in.readShort()];
+                int ner = tags[in.readShort()];
+                String word = in.readBoolean() ? in.readUTF() : null;
+                if (end > text.length() || begin > end) {
+                    throw new IOException("词偏移超出文本范围");
+                }
+                builder.add(begin, end, word, pos, ner);
+            }
+            return builder.build();
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new IllegalStateException("无法还原词序列: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 构建器
+     */
+    public static final class Builder {
+        private final String text;
+        private int size;
+        private int[] begins = new int[16];
+        private int[] ends = new int[16];
+        private int[] posTags = new int[16];
+        private int[] nerTags = new int[16];
+        private String[] overrides;
+
+        private Builder(String text) {
+            this.text = text;
+        }
+
+        /**
+         * 追加一个词；word与原文区间不一致时会单独保存
+         */
+        public Builder add(int begin, int end, String word, int pos, int ner) {
+            if (size == begins.length) {
+                int capacity = size * 2;
+                begins = Arrays.copyOf(begins, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                posTags = Arrays.copyOf(posTags, capacity);
+                nerTags = Arrays.copyOf(nerTags, capacity);
+                if (overrides != null) {
+                    overrides = Arrays.copyOf(overrides, capacity);
+                }
+            }
+            begins[size] = begin;
+            ends[size] = end;
+            posTags[size] = pos;
+            nerTags[size] = ner;
+            if (word != null && (word.length() != end - begin || !text.regionMatches(begin, word, 0, word.length()))) {
+                if (overrides == null) {
+                    overrides = new String[begins.length];
+                }
+                overrides[size] = word;
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * 已追加的词数
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * 追加另一个词序列的全部词，偏移量加上offset（用于合并分段处理的结果）
+         */
+        public Builder addAll(TokenStream part, int offset) {
+            for (int i = 0; i < part.size(); i++) {
+                add(part.begin(i) + offset, part.end(i) + offset,
+                        part.isVerbatim(i) ? null : part.word(i), part.pos(i), part.ner(i));
+            }
+            return this;
+        }
+
+        public TokenStream build() {
+            return new TokenStream(this);
+        }
+    }
+}
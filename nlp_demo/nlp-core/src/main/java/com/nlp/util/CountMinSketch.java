@@ -0,0 +1,63 @@
+package com.nlp.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁Count-Min Sketch
+ *
+ * depth行、每行width个计数器，每个键在每行按哈希落到一个计数器上，计数时各行原子加一，
+ * 估计值取各行的最小值。估计值不低于真实值，超出部分以高概率不超过 总数 * e / width。
+ * 内存固定为 depth * width 个long，与不同键的个数无关。
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width 每行的计数器个数，向上取整为2的幂
+     */
+    public CountMinSketch(int depth, int width) {
+        this.depth = Math.max(1, depth);
+        int rowWidth = Integer.highestOneBit(Math.max(16, width) - 1) << 1;
+        this.mask = rowWidth - 1;
+        this.counters = new AtomicLongArray(this.depth * rowWidth);
+    }
+
+    /**
+     * 对键的64位哈希计数
+     */
+    public void add(long hash, long count) {
+        long h1 = hash;
+        long h2 = Hashing.mix64(hash) | 1;
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(index(row, h1 + row * h2), count);
+        }
+    }
+
+    /**
+     * 估计键的计数，不低于真实值
+     */
+    public long estimate(long hash) {
+        long h1 = hash;
+        long h2 = Hashing.mix64(hash) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(row, h1 + row * h2)));
+        }
+        return min;
+    }
+
+    /**
+     * 占用的内存（字节），只计算计数器
+     */
+    public long sizeInBytes() {
+        return counters.length() * 8L;
+    }
+
+    private int index(int row, long hash) {
+        // 双重哈希 h1 + row * h2 模拟相互独立的哈希函数，高位参与取模
+        return row * (mask + 1) + (int) ((hash ^ (hash >>> 32)) & mask);
+    }
+}
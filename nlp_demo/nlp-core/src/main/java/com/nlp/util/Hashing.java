@@ -0,0 +1,75 @@
+package com.nlp.util;
+
+/**
+ * 64位哈希工具类
+ */
+public final class Hashing {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {
+    }
+
+    /**
+     * 对字符序列的 [from, to) 区间计算FNV-1a哈希，不产生子串对象
+     */
+    public static long fnv1a64(CharSequence text, int from, int to) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = from; i < to; i++) {
+            hash ^= text.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * 忽略大小写计算 [from, to) 区间的FNV-1a哈希
+     */
+    public static long fnv1a64IgnoreCase(CharSequence text, int from, int to) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = from; i < to; i++) {
+            hash ^= Character.toLowerCase(text.charAt(i));
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * 对整个字符序列计算FNV-1a哈希
+     */
+    public static long fnv1a64(CharSequence text) {
+        return fnv1a64(text, 0, text.length());
+    }
+
+    /**
+     * 与FNV-1a相互独立的第二个64位哈希，与fnv1a64组合成128位键以降低碰撞概率
+     */
+    public static long hash64(CharSequence text, long seed) {
+        long hash = seed;
+        for (int i = 0; i < text.length(); i++) {
+            hash = Long.rotateLeft((hash ^ text.charAt(i)) * 0x9e3779b97f4a7c15L, 27);
+        }
+        return mix64(hash ^ text.length());
+    }
+
+    /**
+     * 64位混淆函数（MurmurHash3 finalizer），使各比特分布均匀
+     */
+    public static long mix64(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 组合两个哈希值
+     */
+    public static long combine(long seed, long value) {
+        return mix64(seed * 31 + value);
+    }
+}
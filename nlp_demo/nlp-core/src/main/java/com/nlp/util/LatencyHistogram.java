@@ -0,0 +1,74 @@
+package com.nlp.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁延迟直方图
+ *
+ * 以微秒为单位按2的幂分桶，记录只需要几次原子加法；分位数按桶上界估算，误差在2倍以内，
+ * 适合常驻的运行时指标，不适合精确的基准测试。
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * 记录一次耗时
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        long micros = value / 1000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * 估算分位数（毫秒）
+     */
+    public double percentileMillis(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0.0;
+        }
+        long threshold = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= threshold) {
+                // 第i个桶的上界为 2^i 微秒
+                return Math.min((1L << i) / 1000.0, maxNanos.get() / 1_000_000.0);
+            }
+        }
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * 导出统计摘要
+     */
+    public Map<String, Object> snapshot() {
+        long total = count.get();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", total);
+        snapshot.put("meanMs", total == 0 ? 0.0 : totalNanos.get() / 1_000_000.0 / total);
+        snapshot.put("p50Ms", percentileMillis(50));
+        snapshot.put("p99Ms", percentileMillis(99));
+        snapshot.put("p999Ms", percentileMillis(99.9));
+        snapshot.put("maxMs", maxNanos.get() / 1_000_000.0);
+        return snapshot;
+    }
+}
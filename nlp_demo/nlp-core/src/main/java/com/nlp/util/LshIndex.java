@@ -0,0 +1,184 @@
+package com.nlp.util;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于局部敏感哈希(LSH)的近重复文档索引
+ *
+ * 同时维护两类分桶：
+ * - SimHash：按鸽巢原理把64位指纹切成 maxDistance+1 段，汉明距离不超过maxDistance的指纹至少有一段完全相同；
+ * - MinHash：签名按 bands x rows 分带，任意一带完全相同即成为候选。
+ * 查询只访问命中的分桶，复杂度与索引规模无关，候选再用原始签名精确校验。
+ */
+public class LshIndex {
+
+    private final int simhashMaxDistance;
+    private final int bands;
+    private final int rows;
+    private final int maxEntries;
+
+    private final int[] blockShifts;
+    private final long[] blockMasks;
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>();
+    private final List<Map<Long, List<Long>>> simhashTables = new ArrayList<>();
+    private final List<Map<Long, List<Long>>> minhashTables = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long nextId = 1;
+
+    public LshIndex(int simhashMaxDistance, int bands, int rows, int maxEntries) {
+        if (simhashMaxDistance < 0 || simhashMaxDistance > 63) {
+            throw new IllegalArgumentException("simhashMaxDistance必须在0到63之间");
+        }
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("bands和rows必须大于0");
+        }
+        this.simhashMaxDistance = simhashMaxDistance;
+        this.bands = bands;
+        this.rows = rows;
+        this.maxEntries = maxEntries;
+
+        int blocks = simhashMaxDistance + 1;
+        this.blockShifts = new int[blocks];
+        this.blockMasks = new long[blocks];
+        int shift = 0;
+        for (int i = 0; i < blocks; i++) {
+            int width = 64 / blocks + (i < 64 % blocks ? 1 : 0);
+            blockShifts[i] = shift;
+            blockMasks[i] = width == 64 ? -1L : (1L << width) - 1;
+            shift += width;
+            simhashTables.add(new HashMap<>());
+        }
+        for (int i = 0; i < bands; i++) {
+            minhashTables.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * 加入一个文档，返回分配的文档ID
+     */
+    public long add(String preview, long simhash, long[] minhash) {
+        checkSignature(minhash);
+        lock.writeLock().lock();
+        try {
+            long id = nextId++;
+            entries.put(id, new Entry(id, preview, simhash, minhash));
+            for (int i = 0; i < simhashTables.size(); i++) {
+                simhashTables.get(i).computeIfAbsent(simhashBlock(simhash, i), k -> new ArrayList<>()).add(id);
+            }
+            for (int band = 0; band < bands; band++) {
+                minhashTables.get(band).computeIfAbsent(bandKey(minhash, band), k -> new ArrayList<>()).add(id);
+            }
+            while (maxEntries > 0 && entries.size() > maxEntries) {
+                removeEldest();
+            }
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询近重复候选，按相似度从高到低排序
+     */
+    public List<Candidate> query(long simhash, long[] minhash, double minSimilarity, int limit) {
+        checkSignature(minhash);
+        Set<Long> candidateIds = new HashSet<>();
+
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < simhashTables.size(); i++) {
+                List<Long> bucket = simhashTables.get(i).get(simhashBlock(simhash, i));
+                if (bucket != null) {
+                    candidateIds.addAll(bucket);
+                }
+            }
+            for (int band = 0; band < bands; band++) {
+                List<Long> bucket = minhashTables.get(band).get(bandKey(minhash, band));
+                if (bucket != null) {
+                    candidateIds.addAll(bucket);
+                }
+            }
+
+            List<Candidate> candidates = new ArrayList<>();
+            for (Long id : candidateIds) {
+                Entry entry = entries.get(id);
+                int distance = SimHash.hammingDistance(simhash, entry.simhash);
+                double similarity = MinHash.similarity(minhash, entry.minhash);
+                if (distance <= simhashMaxDistance || similarity >= minSimilarity) {
+                    candidates.add(new Candidate(entry.id, entry.preview, similarity, distance));
+                }
+            }
+            candidates.sort(Comparator.comparingDouble(Candidate::similarity).reversed()
+                    .thenComparingInt(Candidate::hammingDistance));
+            return limit > 0 && candidates.size() > limit ? candidates.subList(0, limit) : candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前索引中的文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeEldest() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        Entry eldest = iterator.next();
+        iterator.remove();
+        for (int i = 0; i < simhashTables.size(); i++) {
+            removeFromBucket(simhashTables.get(i), simhashBlock(eldest.simhash, i), eldest.id);
+        }
+        for (int band = 0; band < bands; band++) {
+            removeFromBucket(minhashTables.get(band), bandKey(eldest.minhash, band), eldest.id);
+        }
+    }
+
+    private void removeFromBucket(Map<Long, List<Long>> table, long key, long id) {
+        List<Long> bucket = table.get(key);
+        if (bucket != null) {
+            bucket.remove(id);
+            if (bucket.isEmpty()) {
+                table.remove(key);
+            }
+        }
+    }
+
+    private long simhashBlock(long simhash, int block) {
+        return (simhash >>> blockShifts[block]) & blockMasks[block];
+    }
+
+    private long bandKey(long[] minhash, int band) {
+        long key = band;
+        int offset = band * rows;
+        for (int r = 0; r < rows; r++) {
+            key = Hashing.combine(key, minhash[offset + r]);
+        }
+        return key;
+    }
+
+    private void checkSignature(long[] minhash) {
+        if (minhash.length != bands * rows) {
+            throw new IllegalArgumentException("MinHash签名长度应为 " + (bands * rows) + "，实际为 " + minhash.length);
+        }
+    }
+
+    private record Entry(long id, String preview, long simhash, long[] minhash) {
+    }
+
+    /**
+     * 近重复候选
+     */
+    public record Candidate(long id, String preview, double similarity, int hammingDistance) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.nlp.util;
+
+import java.util.Arrays;
+
+/**
+ * MinHash签名计算工具类
+ *
+ * 以连续词组成的shingle为集合元素，签名中相同位置相等的比例即为Jaccard相似度的估计值。
+ */
+public class MinHash {
+
+    private final long[] seeds;
+    private final int shingleSize;
+
+    public MinHash(int numHashes, int shingleSize) {
+        if (numHashes <= 0) {
+            throw new IllegalArgumentException("numHashes必须大于0");
+        }
+        if (shingleSize <= 0) {
+            throw new IllegalArgumentException("shingleSize必须大于0");
+        }
+        this.shingleSize = shingleSize;
+        this.seeds = new long[numHashes];
+        long seed = 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < numHashes; i++) {
+            seed = Hashing.mix64(seed + i);
+            seeds[i] = seed;
+        }
+    }
+
+    /**
+     * 根据词的哈希值计算MinHash签名
+     */
+    public long[] signature(long[] tokenHashes) {
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+
+        if (tokenHashes.length == 0) {
+            return signature;
+        }
+
+        // 词数不足一个shingle时，整段文本作为唯一的shingle
+        int shingleCount = Math.max(1, tokenHashes.length - shingleSize + 1);
+        int width = Math.min(shingleSize, tokenHashes.length);
+
+        for (int start = 0; start < shingleCount; start++) {
+            long shingle = tokenHashes[start];
+            for (int k = 1; k < width; k++) {
+                shingle = Hashing.combine(shingle, tokenHashes[start + k]);
+            }
+            for (int i = 0; i < seeds.length; i++) {
+                long h = Hashing.mix64(shingle ^ seeds[i]);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * 估算两个签名对应集合的Jaccard相似度
+     */
+    public static double similarity(long[] a, long[] b) {
+        int length = Math.min(a.length, b.length);
+        if (length == 0) {
+            return 0.0;
+        }
+        int equal = 0;
+        for (int i = 0; i < length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / length;
+    }
+
+    public int getNumHashes() {
+        return seeds.length;
+    }
+}
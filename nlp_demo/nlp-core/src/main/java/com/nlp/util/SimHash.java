@@ -0,0 +1,41 @@
+package com.nlp.util;
+
+/**
+ * SimHash指纹计算工具类
+ *
+ * 每个词的64位哈希按比特投票，出现越多的词权重越高；
+ * 内容相近的文本得到的指纹汉明距离也越小。
+ */
+public final class SimHash {
+
+    private SimHash() {
+    }
+
+    /**
+     * 根据词的哈希值计算SimHash指纹
+     */
+    public static long compute(long[] tokenHashes) {
+        int[] votes = new int[64];
+        for (long tokenHash : tokenHashes) {
+            long h = Hashing.mix64(tokenHash);
+            for (int bit = 0; bit < 64; bit++) {
+                votes[bit] += ((h >>> bit) & 1L) != 0 ? 1 : -1;
+            }
+        }
+
+        long fingerprint = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 计算两个指纹的汉明距离
+     */
+    public static int hammingDistance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+}
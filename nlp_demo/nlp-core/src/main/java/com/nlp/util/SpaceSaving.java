@@ -0,0 +1,129 @@
+package com.nlp.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving热门项统计
+ *
+ * 只保留capacity个计数器：已跟踪的项直接加一；未跟踪的项替换计数最小的项，继承其计数并把它记为误差上界。
+ * 真实频次超过 总数 / capacity 的项一定在结果中，每项的计数减去误差不高于真实值。
+ * 计数器按计数组织成最小堆，每次更新 O(log capacity)。非线程安全，由调用方保证单线程写入或加锁。
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final String[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> positions;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.items = new String[this.capacity];
+        this.counts = new long[this.capacity];
+        this.errors = new long[this.capacity];
+        this.positions = new HashMap<>(this.capacity * 2);
+    }
+
+    /**
+     * 计数一次
+     */
+    public void add(String item) {
+        total++;
+        Integer position = positions.get(item);
+        if (position != null) {
+            counts[position]++;
+            siftDown(position);
+            return;
+        }
+        if (size < capacity) {
+            items[size] = item;
+            counts[size] = 1;
+            errors[size] = 0;
+            positions.put(item, size);
+            siftUp(size++);
+            return;
+        }
+        // 替换计数最小的项（堆顶）
+        positions.remove(items[0]);
+        items[0] = item;
+        errors[0] = counts[0];
+        counts[0]++;
+        positions.put(item, 0);
+        siftDown(0);
+    }
+
+    /**
+     * 当前跟踪的项，不保证顺序
+     */
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(items[i], counts[i], errors[i]));
+        }
+        return entries;
+    }
+
+    /**
+     * 计数过的总次数
+     */
+    public long total() {
+        return total;
+    }
+
+    private void siftUp(int index) {
+        int i = index;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (counts[parent] <= counts[i]) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        int i = index;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int smaller = left + 1 < size && counts[left + 1] < counts[left] ? left + 1 : left;
+            if (counts[i] <= counts[smaller]) {
+                break;
+            }
+            swap(i, smaller);
+            i = smaller;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String item = items[a];
+        items[a] = items[b];
+        items[b] = item;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        positions.put(items[a], a);
+        positions.put(items[b], b);
+    }
+
+    /**
+     * 一个跟踪项
+     *
+     * @param count 计数，不低于真实频次
+     * @param error 计数可能超出真实频次的上界
+     */
+    public record Entry(String item, long count, long error) {
+    }
+}
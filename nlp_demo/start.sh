@@ -26,9 +26,9 @@ echo "检查Maven环境..."
 if ! command -v mvn &> /dev/null; then
     echo "警告: 未找到Maven，将尝试使用已编译的jar文件"
     
-    if [ -f "target/nlp-demo-1.0.0.jar" ]; then
+    if [ -f "nlp-app/target/nlp-demo-1.0.0.jar" ]; then
         echo "找到已编译的jar文件，准备启动..."
-        java -Xmx4g -Xms2g -jar target/nlp-demo-1.0.0.jar
+        java -Xmx4g -Xms2g -jar nlp-app/target/nlp-demo-1.0.0.jar
     else
         echo "错误: 未找到编译后的jar文件，请先安装Maven并执行 mvn clean package"
         exit 1
@@ -46,7 +46,7 @@ else
         echo "编译成功，启动服务..."
         echo "内存配置: -Xmx4g -Xms2g"
         echo ""
-        java -Xmx4g -Xms2g -jar target/nlp-demo-1.0.0.jar
+        java -Xmx4g -Xms2g -jar nlp-app/target/nlp-demo-1.0.0.jar
     else
         echo "编译失败，请检查错误信息"
         exit 1